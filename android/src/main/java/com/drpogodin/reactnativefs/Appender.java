@@ -0,0 +1,238 @@
+package com.drpogodin.reactnativefs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a file open for appending, and batches appended records in memory.
+ *
+ * The buffered records are written to the file by a background thread
+ * (group commit): once the buffer fills up, or the flush interval is over,
+ * all records accumulated so far are written (and fsync-ed, depending on
+ * the fsync mode) at once. In FSYNC_ALWAYS mode each append() completes only
+ * once its record is fsync-ed, but records appended while a previous fsync
+ * is in progress are committed together by the next one, thus a burst of
+ * appends does not cost one fsync per record.
+ *
+ * Optionally, the file is rotated once its size reaches the given limit:
+ * it is renamed into "<name>.1", the older rotated files are shifted
+ * ("<name>.1" becomes "<name>.2", and so on), and a new file is started.
+ */
+class Appender {
+  static final int FSYNC_NEVER = 0;
+  static final int FSYNC_INTERVAL = 1;
+  static final int FSYNC_ALWAYS = 2;
+
+  interface Callback {
+    /**
+     * @param error Null on success.
+     */
+    void onDone(Exception error);
+  }
+
+  private static ScheduledThreadPoolExecutor scheduler;
+
+  private final File file;
+  private final int bufferBytes;
+  private final long flushIntervalMs;
+  private final int fsync;
+  private final long rotateBytes;
+  private final int maxFiles;
+
+  // These fields are guarded by "this".
+  private ByteArrayOutputStream pending;
+  private ByteArrayOutputStream spare;
+  private ArrayList<Callback> waiters = new ArrayList<>();
+  private ScheduledFuture<?> flushTask;
+  private boolean closed = false;
+  private Exception error;
+
+  // These fields are accessed by the scheduler thread only.
+  private FileOutputStream out;
+  private long size;
+
+  /**
+   * @param bufferBytes The buffer size; once the buffered records exceed it,
+   *  they are flushed without waiting for the flush interval.
+   * @param flushIntervalMs The maximal time [ms] records stay in the buffer.
+   * @param fsync One of FSYNC_NEVER, FSYNC_INTERVAL, FSYNC_ALWAYS.
+   * @param rotateBytes The file size triggering the rotation; 0 to disable
+   *  the rotation.
+   * @param maxFiles The number of rotated files to keep.
+   */
+  Appender(File file, int bufferBytes, long flushIntervalMs, int fsync, long rotateBytes, int maxFiles) {
+    this.file = file;
+    this.bufferBytes = Math.max(1, bufferBytes);
+    this.flushIntervalMs = Math.max(0, flushIntervalMs);
+    this.fsync = fsync;
+    this.rotateBytes = Math.max(0, rotateBytes);
+    this.maxFiles = Math.max(0, maxFiles);
+    pending = new ByteArrayOutputStream(this.bufferBytes);
+    spare = new ByteArrayOutputStream(this.bufferBytes);
+  }
+
+  private static synchronized ScheduledThreadPoolExecutor getScheduler() {
+    if (scheduler == null) {
+      scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "RNFS-Append");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return scheduler;
+  }
+
+  /**
+   * @return FSYNC_* constant matching the given fsync mode name.
+   */
+  static int fsyncModeFromName(String name) throws IORejectionException {
+    if (name == null || "interval".equals(name)) return FSYNC_INTERVAL;
+    if ("never".equals(name)) return FSYNC_NEVER;
+    if ("always".equals(name)) return FSYNC_ALWAYS;
+    throw new IORejectionException("EINVAL", "EINVAL: unknown fsync mode '" + name + "'");
+  }
+
+  /**
+   * Opens the file, creating it if necessary.
+   */
+  void open() throws IOException, IORejectionException {
+    if (file.isDirectory()) {
+      throw new IORejectionException("EISDIR", "EISDIR: illegal operation on a directory, open '" + file.getPath() + "'");
+    }
+    out = new FileOutputStream(file, true);
+    size = out.getChannel().size();
+  }
+
+  /**
+   * Appends a record to the buffer. The callback is invoked once the record
+   * is buffered, or, in FSYNC_ALWAYS mode, once it is committed to the disk.
+   * If an earlier flush has failed, the record is rejected with that error.
+   */
+  synchronized void append(byte[] data, Callback callback) {
+    if (closed) {
+      callback.onDone(new IORejectionException("EBADF", "EBADF: the appender is closed, write '" + file.getPath() + "'"));
+      return;
+    }
+    if (error != null) {
+      callback.onDone(error);
+      return;
+    }
+    pending.write(data, 0, data.length);
+    if (fsync == FSYNC_ALWAYS) {
+      waiters.add(callback);
+      scheduleFlush(0);
+    } else {
+      callback.onDone(null);
+      scheduleFlush(pending.size() >= bufferBytes ? 0 : flushIntervalMs);
+    }
+  }
+
+  /**
+   * Flushes the buffered records, and closes the file. The callback receives
+   * the error of the final flush, or of any earlier failed flush.
+   */
+  synchronized void close(Callback callback) {
+    if (closed) {
+      callback.onDone(null);
+      return;
+    }
+    closed = true;
+    if (flushTask != null) {
+      flushTask.cancel(false);
+      flushTask = null;
+    }
+    getScheduler().execute(() -> {
+      flush();
+      Exception closeError = null;
+      try {
+        if (fsync != FSYNC_NEVER) out.getFD().sync();
+        out.close();
+      } catch (IOException e) {
+        closeError = e;
+      }
+      Exception res;
+      synchronized (this) {
+        res = error != null ? error : closeError;
+      }
+      callback.onDone(res);
+    });
+  }
+
+  /**
+   * Schedules the flush after the given delay, unless an earlier flush
+   * is already scheduled.
+   */
+  private void scheduleFlush(long delayMs) {
+    if (flushTask != null) {
+      if (delayMs > 0 || flushTask.getDelay(TimeUnit.MILLISECONDS) <= 0) return;
+
+      // An urgent flush supersedes the delayed one. If the cancellation
+      // fails, the task is already running, and the extra flush is harmless.
+      flushTask.cancel(false);
+    }
+    flushTask = getScheduler().schedule(this::flush, delayMs, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Writes all buffered records at once. It runs on the scheduler thread
+   * only, thus flushes never overlap, and the records appended meanwhile
+   * are committed together by the next flush.
+   */
+  private void flush() {
+    ByteArrayOutputStream batch;
+    ArrayList<Callback> batchWaiters;
+    synchronized (this) {
+      flushTask = null;
+      if (pending.size() == 0 && waiters.isEmpty()) return;
+      batch = pending;
+      pending = spare;
+      spare = null;
+      batchWaiters = waiters;
+      waiters = new ArrayList<>();
+    }
+
+    Exception failure = null;
+    try {
+      if (batch.size() > 0) {
+        batch.writeTo(out);
+        size += batch.size();
+        if (fsync != FSYNC_NEVER) out.getFD().sync();
+        if (rotateBytes > 0 && size >= rotateBytes) rotate();
+      }
+    } catch (IOException e) {
+      failure = e;
+    }
+
+    batch.reset();
+    synchronized (this) {
+      spare = batch;
+      if (failure != null && error == null) error = failure;
+    }
+    for (Callback waiter : batchWaiters) waiter.onDone(failure);
+  }
+
+  private void rotate() throws IOException {
+    out.close();
+    String path = file.getPath();
+    if (maxFiles > 0) {
+      new File(path + "." + maxFiles).delete();
+      for (int i = maxFiles - 1; i > 0; --i) {
+        File rotated = new File(path + "." + i);
+        if (rotated.exists()) rotated.renameTo(new File(path + "." + (i + 1)));
+      }
+      if (!file.renameTo(new File(path + ".1"))) {
+        throw new IOException("Failed to rotate '" + path + "'");
+      }
+    } else if (!file.delete()) {
+      throw new IOException("Failed to rotate '" + path + "'");
+    }
+    out = new FileOutputStream(file, true);
+    size = 0;
+  }
+}
@@ -0,0 +1,163 @@
+package com.drpogodin.reactnativefs;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.res.AssetManager;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * In-memory index of the app assets: their names, sizes, compression,
+ * and folder structure.
+ *
+ * It is built once by reading the central directories of the app APK and
+ * its splits, which is much faster than probing AssetManager item by item,
+ * and it does not rely on exceptions to tell folders from compressed files.
+ * If the APKs cannot be read, the index is built from AssetManager listing,
+ * without sizes and compression flags.
+ */
+class AssetIndex {
+  private static final String ASSETS_PREFIX = "assets/";
+
+  static class Entry {
+    final String name;
+    final String path;
+
+    // For files only, -1 if not known.
+    final long size;
+    final boolean compressed;
+
+    // Children by name, for folders only, null for files.
+    final TreeMap<String, Entry> children;
+
+    private Entry(String name, String path, long size, boolean compressed, boolean isDirectory) {
+      this.name = name;
+      this.path = path;
+      this.size = size;
+      this.compressed = compressed;
+      this.children = isDirectory ? new TreeMap<String, Entry>() : null;
+    }
+
+    boolean isDirectory() {
+      return children != null;
+    }
+  }
+
+  private final Entry root = new Entry("", "", -1, false, true);
+
+  private AssetIndex() {}
+
+  static AssetIndex build(Context context) {
+    AssetIndex index = new AssetIndex();
+    try {
+      ApplicationInfo info = context.getApplicationInfo();
+      index.addApk(info.sourceDir);
+      if (info.splitSourceDirs != null) {
+        for (String split : info.splitSourceDirs) index.addApk(split);
+      }
+    } catch (Exception e) {
+      Log.w(Errors.LOGTAG, "Failed to index assets from APK, falling back to AssetManager", e);
+      index = new AssetIndex();
+      index.addFromAssetManager(context.getAssets());
+    }
+    return index;
+  }
+
+  /**
+   * @param path Asset path, relative to the assets root; leading and
+   *  trailing slashes are ignored.
+   * @return Null if there is no such asset.
+   */
+  Entry get(String path) {
+    Entry entry = root;
+    for (String name : path.split("/")) {
+      if (name.isEmpty()) continue;
+      if (entry.children == null) return null;
+      entry = entry.children.get(name);
+      if (entry == null) return null;
+    }
+    return entry;
+  }
+
+  /**
+   * @return All entries, in depth-first order, without the root.
+   */
+  List<Entry> list() {
+    ArrayList<Entry> res = new ArrayList<>();
+    ArrayDeque<Entry> stack = new ArrayDeque<>();
+    stack.push(root);
+    while (!stack.isEmpty()) {
+      Entry entry = stack.pop();
+      if (entry != root) res.add(entry);
+      if (entry.children != null) {
+        for (Entry child : entry.children.descendingMap().values()) stack.push(child);
+      }
+    }
+    return res;
+  }
+
+  private void addApk(String apkPath) throws IOException {
+    try (ZipFile zip = new ZipFile(apkPath)) {
+      Enumeration<? extends ZipEntry> entries = zip.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry entry = entries.nextElement();
+        String name = entry.getName();
+        if (entry.isDirectory() || !name.startsWith(ASSETS_PREFIX)) continue;
+        add(name.substring(ASSETS_PREFIX.length()), entry.getSize(), entry.getMethod() != ZipEntry.STORED);
+      }
+    }
+  }
+
+  private void addFromAssetManager(AssetManager assetManager) {
+    ArrayDeque<String> queue = new ArrayDeque<>();
+    queue.add("");
+    while (!queue.isEmpty()) {
+      String dir = queue.poll();
+      String[] names;
+      try {
+        names = assetManager.list(dir);
+      } catch (IOException e) {
+        continue;
+      }
+      if (names == null) continue;
+      for (String name : names) {
+        String path = dir.isEmpty() ? name : dir + "/" + name;
+        String[] children = null;
+        try {
+          children = assetManager.list(path);
+        } catch (IOException ignored) {}
+        if (children != null && children.length > 0) queue.add(path);
+        else add(path, -1, false);
+      }
+    }
+  }
+
+  /**
+   * Adds a file, along with its parent folders.
+   */
+  private void add(String path, long size, boolean compressed) {
+    String[] names = path.split("/");
+    Entry entry = root;
+    for (int i = 0; i < names.length; ++i) {
+      String name = names[i];
+      if (name.isEmpty()) continue;
+      Entry child = entry.children.get(name);
+      if (child == null) {
+        String childPath = entry == root ? name : entry.path + "/" + name;
+        boolean isDirectory = i < names.length - 1;
+        child = new Entry(name, childPath, isDirectory ? -1 : size, compressed, isDirectory);
+        entry.children.put(name, child);
+      }
+      if (child.children == null) return;
+      entry = child;
+    }
+  }
+}
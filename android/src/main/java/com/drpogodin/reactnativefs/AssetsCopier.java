@@ -0,0 +1,196 @@
+package com.drpogodin.reactnativefs;
+
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copies files out of the app assets.
+ *
+ * Assets stored in the APK without compression are copied with
+ * FileChannel.transferTo() from the APK segment exposed by their
+ * AssetFileDescriptor; compressed assets are streamed through pooled buffers.
+ * Folders are copied with many files extracted concurrently, the same way
+ * FolderCopier does it. The assets tree, sizes, and compression flags are
+ * taken from the AssetIndex.
+ */
+class AssetsCopier {
+  // Number of files a single fork/join task copies without further splitting.
+  private static final int FILES_PER_TASK = 16;
+
+  private final AssetManager assetManager;
+  private final AssetIndex index;
+  private final FileCopier copier;
+  private final FolderCopier.OnProgress onProgress;
+  private final int progressInterval;
+
+  private final ArrayList<AssetIndex.Entry> sources = new ArrayList<>();
+  private final ArrayList<File> targets = new ArrayList<>();
+  private final AtomicInteger filesCopied = new AtomicInteger();
+  private final AtomicLong bytesCopied = new AtomicLong();
+  private long totalBytes = 0;
+  private long lastProgressEmitTimestamp = 0;
+  private volatile Exception error;
+
+  /**
+   * @param copier File copier to use for individual files; it should not
+   *  have its own progress listener when copying folders. Stopping it aborts
+   *  the copying.
+   * @param onProgress Optional. Progress listener for folder copying.
+   *  It gets -1 as totalBytes if sizes of some assets are not known.
+   * @param progressInterval The minimal interval [ms] between progress
+   *  notifications.
+   */
+  AssetsCopier(AssetManager assetManager, AssetIndex index, FileCopier copier, FolderCopier.OnProgress onProgress, int progressInterval) {
+    this.assetManager = assetManager;
+    this.index = index;
+    this.copier = copier;
+    this.onProgress = onProgress;
+    this.progressInterval = progressInterval;
+  }
+
+  /**
+   * Copies a single asset into the given file, overwriting it.
+   * @return The number of bytes copied.
+   */
+  long copyFile(String assetPath, File into) throws IOException, IORejectionException {
+    return copyFile(assetPath, index.get(assetPath), into);
+  }
+
+  /**
+   * @param entry Optional. The asset index entry.
+   */
+  private long copyFile(String assetPath, AssetIndex.Entry entry, File into) throws IOException, IORejectionException {
+    if (entry == null || !entry.compressed) {
+      try (AssetFileDescriptor fd = assetManager.openFd(assetPath)) {
+        try (FileInputStream in = fd.createInputStream()) {
+          return copier.copy(in.getChannel(), fd.getStartOffset(), fd.getLength(), into);
+        }
+      } catch (FileNotFoundException e) {
+        // openFd() fails for compressed assets, which are streamed instead.
+        // It happens only if the index has no compression flags.
+      }
+    }
+    try (
+      InputStream in = assetManager.open(assetPath, AssetManager.ACCESS_STREAMING);
+      FileOutputStream out = new FileOutputStream(into)
+    ) {
+      return copier.copy(in, out, -1);
+    }
+  }
+
+  /**
+   * Copies the content of the assets folder into the given folder, creating
+   * it if necessary. Existing files are overwritten.
+   */
+  FolderCopier.Result copyFolder(String assetDir, File into) throws Exception {
+    FolderCopier.Result result = new FolderCopier.Result();
+    result.directories = createFolders(assetDir, into);
+    result.files = sources.size();
+    DiskSpace.ensure(into, totalBytes);
+
+    if (!sources.isEmpty()) {
+      FolderCopier.getPool().invoke(new CopyTask(0, sources.size()));
+      if (error != null) throw error;
+    }
+
+    result.bytes = bytesCopied.get();
+    reportProgress(true);
+    return result;
+  }
+
+  /**
+   * Walks the assets tree, creates the corresponding destination folders,
+   * and collects the files to copy.
+   * @return The number of folders created.
+   */
+  private int createFolders(String assetDir, File into) throws IOException, IORejectionException {
+    AssetIndex.Entry root = index.get(assetDir);
+    if (root == null || !root.isDirectory()) {
+      throw new IORejectionException("ENOENT", "ENOENT: no such assets folder, open '" + assetDir + "'");
+    }
+
+    int count = 0;
+    ArrayDeque<AssetIndex.Entry> queue = new ArrayDeque<>();
+    ArrayDeque<File> queueTargets = new ArrayDeque<>();
+    queue.add(root);
+    queueTargets.add(into);
+    while (!queue.isEmpty()) {
+      if (copier.isAborted()) {
+        throw new IORejectionException("ECANCELED", "ECANCELED: copying has been aborted");
+      }
+      AssetIndex.Entry folder = queue.poll();
+      File target = queueTargets.poll();
+      if (!target.isDirectory() && !target.mkdirs()) {
+        throw new IOException("Directory '" + target.getPath() + "' could not be created");
+      }
+      ++count;
+
+      for (AssetIndex.Entry child : folder.children.values()) {
+        if (child.isDirectory()) {
+          queue.add(child);
+          queueTargets.add(new File(target, child.name));
+        } else {
+          sources.add(child);
+          targets.add(new File(target, child.name));
+          if (totalBytes >= 0) totalBytes = child.size < 0 ? -1 : totalBytes + child.size;
+        }
+      }
+    }
+    return count;
+  }
+
+  private void reportProgress(boolean isFinal) {
+    if (onProgress == null) return;
+    synchronized (this) {
+      long timestamp = System.currentTimeMillis();
+      if (!isFinal && timestamp - lastProgressEmitTimestamp < progressInterval) return;
+      lastProgressEmitTimestamp = timestamp;
+    }
+    long bytes = bytesCopied.get();
+    onProgress.onProgress(filesCopied.get(), sources.size(), bytes, isFinal ? bytes : totalBytes);
+  }
+
+  private class CopyTask extends RecursiveAction {
+    private final int begin;
+    private final int end;
+
+    CopyTask(int begin, int end) {
+      this.begin = begin;
+      this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - begin > FILES_PER_TASK) {
+        int middle = (begin + end) >>> 1;
+        invokeAll(new CopyTask(begin, middle), new CopyTask(middle, end));
+        return;
+      }
+      try {
+        for (int i = begin; i < end; ++i) {
+          AssetIndex.Entry source = sources.get(i);
+          bytesCopied.addAndGet(copyFile(source.path, source, targets.get(i)));
+          filesCopied.incrementAndGet();
+          reportProgress(false);
+        }
+      } catch (Exception e) {
+        synchronized (AssetsCopier.this) {
+          if (error == null) error = e;
+        }
+        copier.stop();
+      }
+    }
+  }
+}
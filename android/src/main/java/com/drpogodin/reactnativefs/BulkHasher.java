@@ -0,0 +1,181 @@
+package com.drpogodin.reactnativefs;
+
+import android.util.Log;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hashes many files concurrently, with the given number of workers pulling
+ * the files from a shared list. Results are reported in batches while
+ * the hashing goes on, and all together once it is done.
+ */
+class BulkHasher {
+  interface Source {
+    InputStream open(String path) throws Exception;
+  }
+
+  interface Listener {
+    /**
+     * Reports digests computed since the previous call.
+     */
+    void onBatch(Map<String, String> batch, int hashed, int total);
+
+    /**
+     * @param bytes The total size of hashed files.
+     */
+    void onDone(Map<String, String> digests, long bytes);
+
+    void onError(String path, Exception error);
+  }
+
+  static final int DEFAULT_CONCURRENCY =
+    Math.max(4, Runtime.getRuntime().availableProcessors());
+
+  static final int MAX_CONCURRENCY = 32;
+
+  // Batches are reported once they reach this size, or once the progress
+  // interval has passed, whatever happens first.
+  private static final int MAX_BATCH_SIZE = 256;
+
+  private static ThreadPoolExecutor pool;
+
+  private final String[] paths;
+  private final String algorithm;
+  private final Source source;
+  private final Listener listener;
+  private final int progressInterval;
+
+  private final AtomicInteger nextIndex = new AtomicInteger();
+  private final AtomicInteger activeWorkers = new AtomicInteger();
+  private final AtomicBoolean failed = new AtomicBoolean(false);
+  private final AtomicLong bytesHashed = new AtomicLong();
+  private final ConcurrentHashMap<String, String> digests = new ConcurrentHashMap<>();
+
+  // Guarded by "this".
+  private HashMap<String, String> batch = new HashMap<>();
+  private int hashed = 0;
+  private long lastBatchTimestamp = 0;
+
+  /**
+   * @param listener Gets the results. Its onBatch() is only called if
+   *  progressInterval is non-negative.
+   * @param progressInterval The minimal interval [ms] between batches.
+   */
+  BulkHasher(String[] paths, String algorithm, Source source, Listener listener, int progressInterval) {
+    this.paths = paths;
+    this.algorithm = algorithm;
+    this.source = source;
+    this.listener = listener;
+    this.progressInterval = progressInterval;
+  }
+
+  /**
+   * Threads are created on demand and are released after some idle time,
+   * the number of concurrent workers is bounded by each start() call.
+   */
+  private static synchronized ThreadPoolExecutor getPool() {
+    if (pool == null) {
+      pool = new ThreadPoolExecutor(
+        0,
+        Integer.MAX_VALUE,
+        30,
+        TimeUnit.SECONDS,
+        new SynchronousQueue<Runnable>(),
+        new ThreadFactory() {
+          private final AtomicInteger counter = new AtomicInteger();
+
+          @Override
+          public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "RNFS-Hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          }
+        }
+      );
+    }
+    return pool;
+  }
+
+  /**
+   * Starts the hashing, and returns immediately.
+   */
+  void start(int concurrency) throws IORejectionException {
+    // Validates the algorithm upfront, rather than failing in all workers.
+    new Hasher(algorithm);
+
+    if (paths.length == 0) {
+      listener.onDone(digests, 0);
+      return;
+    }
+    int numWorkers = Math.min(paths.length, Math.max(1, Math.min(concurrency, MAX_CONCURRENCY)));
+    activeWorkers.set(numWorkers);
+    for (int i = 0; i < numWorkers; ++i) {
+      getPool().execute(new Worker());
+    }
+  }
+
+  private void onHashed(String path, String digest) {
+    digests.put(path, digest);
+    if (progressInterval < 0) return;
+    Map<String, String> toReport = null;
+    int hashedSoFar;
+    synchronized (this) {
+      batch.put(path, digest);
+      hashedSoFar = ++hashed;
+      long timestamp = System.currentTimeMillis();
+      if (batch.size() >= MAX_BATCH_SIZE || timestamp - lastBatchTimestamp >= progressInterval) {
+        toReport = batch;
+        batch = new HashMap<>();
+        lastBatchTimestamp = timestamp;
+      }
+    }
+    if (toReport != null) listener.onBatch(toReport, hashedSoFar, paths.length);
+  }
+
+  private void onWorkerDone() {
+    if (activeWorkers.decrementAndGet() > 0 || failed.get()) return;
+    if (progressInterval >= 0) {
+      Map<String, String> toReport;
+      synchronized (this) {
+        toReport = batch;
+        batch = new HashMap<>();
+      }
+      if (!toReport.isEmpty()) listener.onBatch(toReport, paths.length, paths.length);
+    }
+    listener.onDone(digests, bytesHashed.get());
+  }
+
+  private class Worker implements Runnable {
+    @Override
+    public void run() {
+      int index;
+      while (!failed.get() && (index = nextIndex.getAndIncrement()) < paths.length) {
+        String path = paths[index];
+        try {
+          Hasher hasher = new Hasher(algorithm);
+          try (InputStream in = source.open(path)) {
+            bytesHashed.addAndGet(hasher.update(in, 0, -1));
+          }
+          onHashed(path, hasher.digest().get(algorithm));
+        } catch (Exception e) {
+          // Only the first error is reported, the remaining workers stop.
+          if (failed.compareAndSet(false, true)) listener.onError(path, e);
+        } catch (Throwable e) {
+          Log.e(Errors.LOGTAG, "Uncaught exception in hash worker", e);
+          if (failed.compareAndSet(false, true)) listener.onError(path, new Exception(e));
+        }
+      }
+      onWorkerDone();
+    }
+  }
+}
@@ -0,0 +1,245 @@
+package com.drpogodin.reactnativefs;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.MediaStore;
+import android.provider.OpenableColumns;
+import android.util.LruCache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of content:// URI metadata.
+ *
+ * Metadata are fetched with projection-limited queries: the MediaStore
+ * columns for MediaStore URIs, and the OpenableColumns, which any provider
+ * should support, for others. MediaStore URIs from the same collection are
+ * resolved in batches, by a single query each. Entries expire after a short
+ * time, as the content may be changed by other apps.
+ */
+class ContentMetadataCache {
+  static class Metadata {
+    String displayName;
+    long size = -1;
+    long mtime = -1; // ms, -1 if not known
+    String mimeType;
+    String originalPath; // The file path, if the provider exposes it
+
+    private long timestamp;
+  }
+
+  static final int DEFAULT_CAPACITY = 1024;
+
+  private static final long TTL_MS = 30 * 1000;
+
+  // SQLite limits the number of query arguments to 999.
+  private static final int MAX_BATCH_SIZE = 500;
+
+  private static final String MEDIA_AUTHORITY = "media";
+
+  private static final String[] MEDIA_PROJECTION = {
+    MediaStore.MediaColumns._ID,
+    MediaStore.MediaColumns.DISPLAY_NAME,
+    MediaStore.MediaColumns.SIZE,
+    MediaStore.MediaColumns.DATE_MODIFIED,
+    MediaStore.MediaColumns.MIME_TYPE,
+    MediaStore.MediaColumns.DATA,
+  };
+
+  private static final String[] OPENABLE_PROJECTION = {
+    OpenableColumns.DISPLAY_NAME,
+    OpenableColumns.SIZE,
+  };
+
+  private final ContentResolver resolver;
+  private final LruCache<String, Metadata> cache;
+
+  ContentMetadataCache(ContentResolver resolver, int capacity) {
+    this.resolver = resolver;
+    this.cache = new LruCache<>(capacity);
+  }
+
+  /**
+   * @return Null if the URI cannot be resolved.
+   */
+  Metadata get(Uri uri) {
+    String key = uri.toString();
+    Metadata res = getCached(key);
+    if (res != null) return res;
+
+    res = isMediaUri(uri) ? queryMedia(uri) : null;
+    if (res == null) res = queryOpenable(uri);
+    if (res != null) put(key, res);
+    return res;
+  }
+
+  /**
+   * Resolves many URIs, with a single query per MediaStore collection.
+   * @return Metadata by URI strings; URIs which can't be resolved are
+   *  missing in the result.
+   */
+  Map<String, Metadata> getMany(List<Uri> uris) {
+    HashMap<String, Metadata> res = new HashMap<>();
+
+    // URIs to query, grouped by MediaStore collection, the "null" group
+    // is for non-MediaStore URIs, resolved one by one.
+    LinkedHashMap<String, List<Uri>> groups = new LinkedHashMap<>();
+    for (Uri uri : uris) {
+      String key = uri.toString();
+      if (res.containsKey(key)) continue;
+      Metadata cached = getCached(key);
+      if (cached != null) {
+        res.put(key, cached);
+        continue;
+      }
+      String collection = isMediaUri(uri) ? getCollection(uri) : null;
+      List<Uri> group = groups.get(collection);
+      if (group == null) {
+        group = new ArrayList<>();
+        groups.put(collection, group);
+      }
+      group.add(uri);
+    }
+
+    for (Map.Entry<String, List<Uri>> group : groups.entrySet()) {
+      if (group.getKey() != null) {
+        List<Uri> items = group.getValue();
+        for (int i = 0; i < items.size(); i += MAX_BATCH_SIZE) {
+          queryMediaBatch(group.getKey(), items.subList(i, Math.min(i + MAX_BATCH_SIZE, items.size())), res);
+        }
+      }
+
+      // Anything not resolved by batches (including non-MediaStore URIs)
+      // is resolved one by one.
+      for (Uri uri : group.getValue()) {
+        String key = uri.toString();
+        if (res.containsKey(key)) continue;
+        Metadata metadata = get(uri);
+        if (metadata != null) res.put(key, metadata);
+      }
+    }
+    return res;
+  }
+
+  /**
+   * Drops the cached metadata of the URI, e.g. when its content
+   * is modified.
+   */
+  void invalidate(Uri uri) {
+    cache.remove(uri.toString());
+  }
+
+  private Metadata getCached(String key) {
+    Metadata res = cache.get(key);
+    if (res != null && System.currentTimeMillis() - res.timestamp > TTL_MS) {
+      cache.remove(key);
+      return null;
+    }
+    return res;
+  }
+
+  private void put(String key, Metadata metadata) {
+    metadata.timestamp = System.currentTimeMillis();
+    cache.put(key, metadata);
+  }
+
+  private static boolean isMediaUri(Uri uri) {
+    return MEDIA_AUTHORITY.equals(uri.getAuthority());
+  }
+
+  /**
+   * @return The collection URI of a MediaStore item URI
+   *  (e.g. content://media/external/images/media for
+   *  content://media/external/images/media/123), or null if the URI
+   *  does not end with a numeric ID.
+   */
+  private static String getCollection(Uri uri) {
+    String id = uri.getLastPathSegment();
+    if (id == null || id.isEmpty()) return null;
+    for (int i = 0; i < id.length(); ++i) {
+      if (!Character.isDigit(id.charAt(i))) return null;
+    }
+    String str = uri.toString();
+    int pos = str.lastIndexOf("/" + id);
+    return pos > 0 ? str.substring(0, pos) : null;
+  }
+
+  private Metadata queryMedia(Uri uri) {
+    try (Cursor cursor = resolver.query(uri, MEDIA_PROJECTION, null, null, null)) {
+      if (cursor == null || !cursor.moveToFirst()) return null;
+      return readMedia(cursor);
+    } catch (RuntimeException e) {
+      // E.g. an unsupported column, or a missing permission.
+      return null;
+    }
+  }
+
+  private void queryMediaBatch(String collection, List<Uri> uris, Map<String, Metadata> res) {
+    HashMap<String, Uri> byId = new HashMap<>();
+    StringBuilder selection = new StringBuilder(MediaStore.MediaColumns._ID).append(" IN (");
+    String[] args = new String[uris.size()];
+    for (int i = 0; i < args.length; ++i) {
+      args[i] = uris.get(i).getLastPathSegment();
+      byId.put(args[i], uris.get(i));
+      selection.append(i == 0 ? "?" : ",?");
+    }
+    selection.append(")");
+
+    try (Cursor cursor = resolver.query(Uri.parse(collection), MEDIA_PROJECTION, selection.toString(), args, null)) {
+      if (cursor == null) return;
+      int idColumn = cursor.getColumnIndexOrThrow(MediaStore.MediaColumns._ID);
+      while (cursor.moveToNext()) {
+        Uri uri = byId.get(cursor.getString(idColumn));
+        if (uri == null) continue;
+        Metadata metadata = readMedia(cursor);
+        String key = uri.toString();
+        put(key, metadata);
+        res.put(key, metadata);
+      }
+    } catch (RuntimeException ignored) {
+      // The remaining URIs will be resolved one by one.
+    }
+  }
+
+  private static Metadata readMedia(Cursor cursor) {
+    Metadata res = new Metadata();
+    res.displayName = getString(cursor, MediaStore.MediaColumns.DISPLAY_NAME);
+    res.size = getLong(cursor, MediaStore.MediaColumns.SIZE, -1);
+
+    // MediaStore keeps modification dates in seconds.
+    long mtime = getLong(cursor, MediaStore.MediaColumns.DATE_MODIFIED, -1);
+    res.mtime = mtime < 0 ? -1 : 1000 * mtime;
+
+    res.mimeType = getString(cursor, MediaStore.MediaColumns.MIME_TYPE);
+    res.originalPath = getString(cursor, MediaStore.MediaColumns.DATA);
+    return res;
+  }
+
+  private Metadata queryOpenable(Uri uri) {
+    try (Cursor cursor = resolver.query(uri, OPENABLE_PROJECTION, null, null, null)) {
+      if (cursor == null || !cursor.moveToFirst()) return null;
+      Metadata res = new Metadata();
+      res.displayName = getString(cursor, OpenableColumns.DISPLAY_NAME);
+      res.size = getLong(cursor, OpenableColumns.SIZE, -1);
+      res.mimeType = resolver.getType(uri);
+      return res;
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+
+  private static String getString(Cursor cursor, String column) {
+    int index = cursor.getColumnIndex(column);
+    return index < 0 || cursor.isNull(index) ? null : cursor.getString(index);
+  }
+
+  private static long getLong(Cursor cursor, String column, long defaultValue) {
+    int index = cursor.getColumnIndex(column);
+    return index < 0 || cursor.isNull(index) ? defaultValue : cursor.getLong(index);
+  }
+}
@@ -0,0 +1,228 @@
+package com.drpogodin.reactnativefs;
+
+import android.os.Build;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Walks a folder tree depth-first, returning its items in pages of limited
+ * size. Folders are listed lazily, with Files.newDirectoryStream() where
+ * available (API 26+), thus the memory used is bounded by the page size
+ * and the tree depth, rather than by the total number of items.
+ *
+ * It is not thread-safe, the caller should ensure next() calls for the same
+ * walker are not done concurrently.
+ */
+class DirectoryWalker implements Closeable {
+  static class Item {
+    final File file;
+    final FileAttributes attrs;
+    final int depth;
+
+    Item(File file, FileAttributes attrs, int depth) {
+      this.file = file;
+      this.attrs = attrs;
+      this.depth = depth;
+    }
+  }
+
+  /**
+   * Lazily lists names of items inside a folder.
+   */
+  private interface Lister extends Closeable {
+    boolean hasNext() throws IOException;
+    String next() throws IOException;
+  }
+
+  private static class Frame {
+    final File dir;
+    final int depth;
+    final Lister lister;
+
+    Frame(File dir, int depth, Lister lister) {
+      this.dir = dir;
+      this.depth = depth;
+      this.lister = lister;
+    }
+  }
+
+  private final ArrayDeque<Frame> stack = new ArrayDeque<>();
+  private final int maxDepth;
+  private final int pageSize;
+  private final Pattern filter;
+
+  /**
+   * @param root The folder to walk.
+   * @param maxDepth The maximal depth of reported items, where the direct
+   *  children of the root have depth 1; negative for unlimited depth.
+   * @param pageSize The maximal number of items returned by next() call.
+   * @param filter Optional. If given, only items with names matching it are
+   *  reported (the walker still descends into non-matching folders).
+   */
+  DirectoryWalker(File root, int maxDepth, int pageSize, Pattern filter) throws IOException, IORejectionException {
+    if (!root.isDirectory()) {
+      throw new IORejectionException("ENOTDIR", "ENOTDIR: not a directory, scandir '" + root.getPath() + "'");
+    }
+    this.maxDepth = maxDepth;
+    this.pageSize = Math.max(1, pageSize);
+    this.filter = filter;
+    stack.push(new Frame(root, 0, openLister(root)));
+  }
+
+  /**
+   * Compiles a filter given as the source and flags of a JS RegExp.
+   * Flags i, m, s are mapped to their Java counterparts (u makes i Unicode
+   * aware); others do not affect name matching, and are ignored.
+   */
+  static Pattern compileFilter(String source, String flags) {
+    int javaFlags = 0;
+    if (flags != null) {
+      if (flags.indexOf('i') >= 0) {
+        javaFlags |= Pattern.CASE_INSENSITIVE;
+        if (flags.indexOf('u') >= 0) javaFlags |= Pattern.UNICODE_CASE;
+      }
+      if (flags.indexOf('m') >= 0) javaFlags |= Pattern.MULTILINE;
+      if (flags.indexOf('s') >= 0) javaFlags |= Pattern.DOTALL;
+    }
+    return Pattern.compile(source, javaFlags);
+  }
+
+  boolean isDone() {
+    return stack.isEmpty();
+  }
+
+  /**
+   * Returns up to pageSize next items. Once isDone() returns true,
+   * the walk is over, and all its resources are released.
+   */
+  List<Item> next() throws IOException, IORejectionException {
+    ArrayList<Item> page = new ArrayList<>(Math.min(pageSize, 1024));
+    while (page.size() < pageSize && !stack.isEmpty()) {
+      Frame frame = stack.peek();
+      if (!frame.lister.hasNext()) {
+        stack.pop().lister.close();
+        continue;
+      }
+      File file = new File(frame.dir, frame.lister.next());
+      FileAttributes attrs = FileAttributes.get(file.getPath());
+
+      // The item has been removed since the folder was listed.
+      if (attrs == null) continue;
+
+      int depth = frame.depth + 1;
+      if (filter == null || filter.matcher(file.getName()).find()) {
+        page.add(new Item(file, attrs, depth));
+      }
+
+      // Symbolic links to folders are not followed, to avoid loops.
+      if (attrs.isDirectory && !attrs.isSymbolicLink && (maxDepth < 0 || depth < maxDepth)) {
+        try {
+          stack.push(new Frame(file, depth, openLister(file)));
+        } catch (IOException ignored) {
+          // Not readable folders are reported, but not walked into.
+        }
+      }
+    }
+
+    // Releases exhausted listers right away, so that isDone() turns true
+    // together with the last non-empty page.
+    while (!stack.isEmpty() && !stack.peek().lister.hasNext()) {
+      stack.pop().lister.close();
+    }
+    return page;
+  }
+
+  @Override
+  public void close() {
+    while (!stack.isEmpty()) {
+      try { stack.pop().lister.close(); }
+      catch (IOException ignored) {}
+    }
+  }
+
+  private static Lister openLister(File dir) throws IOException {
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+      return new NioLister(dir);
+    }
+    return new ArrayLister(dir);
+  }
+
+  /**
+   * Lists a folder via DirectoryStream, without reading the entire listing
+   * into memory. Requires API 26+.
+   */
+  private static class NioLister implements Lister {
+    private final DirectoryStream<Path> stream;
+    private final Iterator<Path> iterator;
+
+    NioLister(File dir) throws IOException {
+      stream = Files.newDirectoryStream(dir.toPath());
+      iterator = stream.iterator();
+    }
+
+    // The iterator reports I/O errors wrapped into unchecked
+    // DirectoryIteratorException, these are unwrapped here.
+
+    @Override
+    public boolean hasNext() throws IOException {
+      try {
+        return iterator.hasNext();
+      } catch (DirectoryIteratorException e) {
+        throw e.getCause();
+      }
+    }
+
+    @Override
+    public String next() throws IOException {
+      try {
+        return iterator.next().getFileName().toString();
+      } catch (DirectoryIteratorException e) {
+        throw e.getCause();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      stream.close();
+    }
+  }
+
+  /**
+   * Fallback for older APIs, it reads the names of a folder children
+   * at once.
+   */
+  private static class ArrayLister implements Lister {
+    private final Iterator<String> iterator;
+
+    ArrayLister(File dir) throws IOException {
+      String[] names = dir.list();
+      if (names == null) throw new IOException("Failed to list '" + dir.getPath() + "'");
+      iterator = Arrays.asList(names).iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return iterator.hasNext();
+    }
+
+    @Override
+    public String next() {
+      return iterator.next();
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,357 @@
+package com.drpogodin.reactnativefs;
+
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A size-bounded disk cache, mapping string keys to files.
+ *
+ * Cached files are kept in a dedicated folder, named by SHA-1 of their keys.
+ * The index of entries (key, size, last access time) is kept in memory in
+ * the LRU order, and persisted as an append-only journal, which is replayed
+ * when the cache is opened, and compacted once it grows much larger than
+ * the index. New entries are written into temporary files first, and then
+ * committed by an atomic rename, thus a cached file is never seen partially
+ * written. Once the cache exceeds its size or entry count limits, the least
+ * recently used entries are evicted by a background thread.
+ */
+class DiskCache {
+  static final String FOLDER_NAME = "rnfs-cache";
+  static final long DEFAULT_MAX_BYTES = 64 * 1024 * 1024;
+
+  private static final String JOURNAL_FILE = "journal";
+  private static final String JOURNAL_TMP_FILE = "journal.tmp";
+  private static final String TMP_FOLDER = "tmp";
+  private static final String JOURNAL_HEADER = "rnfs-cache 1";
+
+  // The journal is compacted once it has this many redundant records.
+  private static final int MAX_REDUNDANT_RECORDS = 2000;
+
+  static class Entry {
+    final String key;
+    final long size;
+    long lastAccess;
+
+    Entry(String key, long size, long lastAccess) {
+      this.key = key;
+      this.size = size;
+      this.lastAccess = lastAccess;
+    }
+  }
+
+  private final File root;
+  private final File tmpDir;
+  private final File journalFile;
+  private final ThreadPoolExecutor trimmer;
+
+  // All fields below are guarded by "this".
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long maxBytes;
+  private int maxEntries;
+  private long totalBytes = 0;
+  private Writer journal;
+  private int journalRecords = 0;
+  private boolean trimScheduled = false;
+
+  /**
+   * @param cacheDir The folder to create the cache folder in.
+   * @param maxBytes The maximal total size of cached files.
+   * @param maxEntries The maximal number of entries; 0 for unlimited.
+   */
+  DiskCache(File cacheDir, long maxBytes, int maxEntries) {
+    root = new File(cacheDir, FOLDER_NAME);
+    tmpDir = new File(root, TMP_FOLDER);
+    journalFile = new File(root, JOURNAL_FILE);
+    this.maxBytes = maxBytes;
+    this.maxEntries = maxEntries;
+    trimmer = new ThreadPoolExecutor(
+      1,
+      1,
+      30,
+      TimeUnit.SECONDS,
+      new LinkedBlockingQueue<Runnable>(),
+      runnable -> {
+        Thread thread = new Thread(runnable, "RNFS-Cache");
+        thread.setDaemon(true);
+        return thread;
+      }
+    );
+    trimmer.allowCoreThreadTimeOut(true);
+  }
+
+  synchronized void configure(long maxBytes, int maxEntries) throws IOException {
+    open();
+    this.maxBytes = maxBytes;
+    this.maxEntries = maxEntries;
+    scheduleTrim();
+  }
+
+  /**
+   * @return The cached file for the key, or null if there is no such entry.
+   *  The entry becomes the most recently used one.
+   */
+  synchronized File get(String key) throws IOException {
+    open();
+    Entry entry = entries.get(key);
+    if (entry == null) return null;
+    File file = getFile(key);
+    if (!file.isFile()) {
+      // The file was removed by the system, or by the app itself.
+      entries.remove(key);
+      totalBytes -= entry.size;
+      writeRecord("D " + encodeKey(key));
+      return null;
+    }
+    entry.lastAccess = System.currentTimeMillis();
+    writeRecord("A " + entry.lastAccess + " " + encodeKey(key));
+    return file;
+  }
+
+  /**
+   * Creates a temporary file, to be committed into the cache with commit(),
+   * or deleted by the caller.
+   */
+  File createTempFile() throws IOException {
+    synchronized (this) {
+      open();
+    }
+    return File.createTempFile("entry", null, tmpDir);
+  }
+
+  /**
+   * Atomically moves the temporary file created by createTempFile() into
+   * the cache, replacing the current entry for the key, if any.
+   * @return The cached file.
+   */
+  synchronized File commit(String key, File tempFile) throws IOException {
+    open();
+    File file = getFile(key);
+    long size = tempFile.length();
+    if (!tempFile.renameTo(file)) {
+      tempFile.delete();
+      throw new IOException("Failed to commit cache entry '" + key + "'");
+    }
+    Entry prev = entries.put(key, new Entry(key, size, System.currentTimeMillis()));
+    if (prev != null) totalBytes -= prev.size;
+    totalBytes += size;
+    writeRecord("P " + size + " " + System.currentTimeMillis() + " " + encodeKey(key));
+    scheduleTrim();
+    return file;
+  }
+
+  synchronized boolean remove(String key) throws IOException {
+    open();
+    Entry entry = entries.remove(key);
+    if (entry == null) return false;
+    totalBytes -= entry.size;
+    getFile(key).delete();
+    writeRecord("D " + encodeKey(key));
+    return true;
+  }
+
+  synchronized void clear() throws IOException {
+    open();
+    for (String key : entries.keySet()) getFile(key).delete();
+    entries.clear();
+    totalBytes = 0;
+    rebuildJournal();
+  }
+
+  synchronized long getTotalBytes() throws IOException {
+    open();
+    return totalBytes;
+  }
+
+  synchronized int getEntryCount() throws IOException {
+    open();
+    return entries.size();
+  }
+
+  synchronized long getMaxBytes() {
+    return maxBytes;
+  }
+
+  synchronized int getMaxEntries() {
+    return maxEntries;
+  }
+
+  void shutdown() {
+    trimmer.shutdown();
+    synchronized (this) {
+      if (journal != null) {
+        try { journal.close(); }
+        catch (IOException ignored) {}
+        journal = null;
+      }
+    }
+  }
+
+  /**
+   * Opens the cache on the first use: reads the journal, and removes
+   * leftovers of interrupted writes.
+   */
+  private void open() throws IOException {
+    if (journal != null) return;
+    if (!tmpDir.isDirectory() && !tmpDir.mkdirs()) {
+      throw new IOException("Directory '" + tmpDir.getPath() + "' could not be created");
+    }
+    File[] leftovers = tmpDir.listFiles();
+    if (leftovers != null) for (File file : leftovers) file.delete();
+
+    entries.clear();
+    totalBytes = 0;
+    if (journalFile.isFile()) readJournal();
+
+    // Files committed, but not journaled, because of the app termination.
+    File[] files = root.listFiles();
+    if (files != null) {
+      HashSet<String> names = new HashSet<>();
+      for (String key : entries.keySet()) names.add(getFile(key).getName());
+      for (File file : files) {
+        String name = file.getName();
+        if (!names.contains(name) && !name.equals(TMP_FOLDER)
+          && !name.equals(JOURNAL_FILE) && !name.equals(JOURNAL_TMP_FILE)) {
+          file.delete();
+        }
+      }
+    }
+
+    rebuildJournal();
+    scheduleTrim();
+  }
+
+  private void readJournal() {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+      new FileInputStream(journalFile), StandardCharsets.UTF_8))) {
+      if (!JOURNAL_HEADER.equals(reader.readLine())) return;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        try {
+          String[] parts = line.split(" ");
+          if ("P".equals(parts[0]) && parts.length == 4) {
+            String key = decodeKey(parts[3]);
+            long size = Long.parseLong(parts[1]);
+            Entry prev = entries.put(key, new Entry(key, size, Long.parseLong(parts[2])));
+            if (prev != null) totalBytes -= prev.size;
+            totalBytes += size;
+          } else if ("A".equals(parts[0]) && parts.length == 3) {
+            Entry entry = entries.get(decodeKey(parts[2]));
+            if (entry != null) entry.lastAccess = Long.parseLong(parts[1]);
+          } else if ("D".equals(parts[0]) && parts.length == 2) {
+            Entry entry = entries.remove(decodeKey(parts[1]));
+            if (entry != null) totalBytes -= entry.size;
+          }
+        } catch (IllegalArgumentException ignored) {
+          // A malformed record, e.g. the last one cut by the app termination.
+        }
+      }
+    } catch (IOException e) {
+      Log.w(Errors.LOGTAG, "Failed to read the cache journal", e);
+    }
+  }
+
+  /**
+   * Writes a compact journal, with one record per entry, in the LRU order,
+   * and atomically replaces the current journal with it.
+   */
+  private void rebuildJournal() throws IOException {
+    if (journal != null) journal.close();
+    File tmp = new File(root, JOURNAL_TMP_FILE);
+    try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+      new FileOutputStream(tmp), StandardCharsets.UTF_8))) {
+      writer.write(JOURNAL_HEADER + "\n");
+      for (Entry entry : entries.values()) {
+        writer.write("P " + entry.size + " " + entry.lastAccess + " " + encodeKey(entry.key) + "\n");
+      }
+    }
+    if (!tmp.renameTo(journalFile)) {
+      throw new IOException("Failed to write the cache journal");
+    }
+    journal = new BufferedWriter(new OutputStreamWriter(
+      new FileOutputStream(journalFile, true), StandardCharsets.UTF_8));
+    journalRecords = 0;
+  }
+
+  private void writeRecord(String record) throws IOException {
+    journal.write(record + "\n");
+    journal.flush();
+    if (++journalRecords > MAX_REDUNDANT_RECORDS && journalRecords > 2 * entries.size()) {
+      rebuildJournal();
+    }
+  }
+
+  private void scheduleTrim() {
+    if (trimScheduled || !isOverLimits()) return;
+    trimScheduled = true;
+    trimmer.execute(this::trim);
+  }
+
+  private boolean isOverLimits() {
+    return totalBytes > maxBytes || (maxEntries > 0 && entries.size() > maxEntries);
+  }
+
+  /**
+   * Evicts the least recently used entries, until the cache fits its limits.
+   */
+  private synchronized void trim() {
+    trimScheduled = false;
+    try {
+      Iterator<Entry> iterator = entries.values().iterator();
+      while (isOverLimits() && iterator.hasNext()) {
+        Entry entry = iterator.next();
+        iterator.remove();
+        totalBytes -= entry.size;
+        getFile(entry.key).delete();
+        writeRecord("D " + encodeKey(entry.key));
+      }
+    } catch (IOException e) {
+      Log.e(Errors.LOGTAG, "Failed to trim the cache", e);
+    }
+  }
+
+  private File getFile(String key) {
+    try {
+      MessageDigest md = MessageDigest.getInstance("SHA-1");
+      return new File(root, Hasher.toHex(md.digest(key.getBytes(StandardCharsets.UTF_8))));
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static String encodeKey(String key) {
+    try {
+      return URLEncoder.encode(key, "UTF-8");
+    } catch (UnsupportedEncodingException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static String decodeKey(String encoded) {
+    try {
+      return URLDecoder.decode(encoded, "UTF-8");
+    } catch (UnsupportedEncodingException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
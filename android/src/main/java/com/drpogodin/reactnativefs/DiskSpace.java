@@ -0,0 +1,95 @@
+package com.drpogodin.reactnativefs;
+
+import android.os.StatFs;
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.OsConstants;
+
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.IOException;
+
+/**
+ * Free space checks and preallocation of files, so that large transfers
+ * fail fast, before writing anything, if they do not fit the storage, and
+ * their destinations are allocated in one go, rather than grown by small
+ * appends.
+ */
+class DiskSpace {
+  // Smaller transfers are neither checked nor preallocated, as the extra
+  // system calls would cost more than they save.
+  static final long THRESHOLD = 1024 * 1024;
+
+  // The space [bytes] to keep free on top of the transfer size.
+  private static volatile long reserve = 0;
+
+  static void setReserve(long bytes) {
+    reserve = Math.max(0, bytes);
+  }
+
+  /**
+   * Checks there is enough free space to write the given number of bytes
+   * into the target, keeping the reserve free.
+   * @param target The file (possibly, not existing yet) to be written.
+   * @param bytes The number of bytes to write. Nothing is checked if it is
+   *  below the THRESHOLD, or unknown (negative).
+   */
+  static void ensure(File target, long bytes) throws IORejectionException {
+    if (bytes < THRESHOLD) return;
+
+    // The space taken by the current content of an overwritten file
+    // will be reused.
+    long required = bytes + reserve - (target.isFile() ? target.length() : 0);
+
+    File dir = target.getAbsoluteFile();
+    while (dir != null && !dir.isDirectory()) dir = dir.getParentFile();
+    if (dir == null) return;
+
+    long available;
+    try {
+      available = new StatFs(dir.getPath()).getAvailableBytes();
+    } catch (IllegalArgumentException e) {
+      // StatFs fails for paths it cannot stat, then we just don't know.
+      return;
+    }
+    if (available < required) {
+      throw noSpace(target, "required " + required + " bytes, available " + available + " bytes");
+    }
+  }
+
+  /**
+   * Allocates disk blocks for the given size of an open file. The file size
+   * is extended to that size, thus the caller should truncate it, if less
+   * data are written eventually. It does nothing for sizes below the THRESHOLD,
+   * and on file systems not supporting the preallocation.
+   */
+  static void preallocate(File target, FileDescriptor fd, long size) throws IORejectionException {
+    if (size < THRESHOLD) return;
+    try {
+      Os.posix_fallocate(fd, 0, size);
+    } catch (ErrnoException e) {
+      if (e.errno == OsConstants.ENOSPC) throw noSpace(target, "failed to allocate " + size + " bytes");
+
+      // Other errors (e.g. EOPNOTSUPP) mean the file system does not support
+      // the preallocation, the file will just grow as it is written.
+    }
+  }
+
+  /**
+   * @return True if the exception is caused by the lack of free space.
+   */
+  static boolean isNoSpace(IOException e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ErrnoException && ((ErrnoException) cause).errno == OsConstants.ENOSPC) {
+        return true;
+      }
+      String message = cause.getMessage();
+      if (message != null && message.contains("ENOSPC")) return true;
+    }
+    return false;
+  }
+
+  static IORejectionException noSpace(File target, String details) {
+    return new IORejectionException("ENOSPC", "ENOSPC: no space left on device, " + details + ", write '" + target.getPath() + "'");
+  }
+}
@@ -0,0 +1,139 @@
+package com.drpogodin.reactnativefs;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes the disk usage of a folder tree: the total size and the numbers
+ * of files and folders, along with the breakdown by folder children down to
+ * the given depth. Subtrees are measured concurrently on the fork/join pool
+ * shared with FolderCopier.
+ */
+class DiskUsage {
+  static class Node {
+    final String name;
+    long bytes = 0;
+    int files = 0;
+    int directories = 0;
+
+    // Null for nodes below the breakdown depth.
+    List<Node> children;
+
+    Node(String name) {
+      this.name = name;
+    }
+
+    private void add(Node node) {
+      bytes += node.bytes;
+      files += node.files;
+      directories += node.directories;
+    }
+  }
+
+  private final boolean followSymlinks;
+  private final int maxDepth;
+
+  // Keys of folders visited when following symbolic links, to avoid loops.
+  private final Set<String> visited =
+    Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+  /**
+   * @param followSymlinks If true, symbolic links are followed, and their
+   *  targets are measured; otherwise links are counted as small files.
+   * @param maxDepth The depth of the reported breakdown: 0 for the totals
+   *  only, 1 to also report each direct child of the root, etc.; negative
+   *  for unlimited depth. It does not limit the measurement depth.
+   */
+  DiskUsage(boolean followSymlinks, int maxDepth) {
+    this.followSymlinks = followSymlinks;
+    this.maxDepth = maxDepth;
+  }
+
+  Node measure(File root) throws IORejectionException {
+    FileAttributes attrs = FileAttributes.get(root.getPath(), followSymlinks);
+    if (attrs == null) {
+      throw new IORejectionException("ENOENT", "ENOENT: no such file or directory, stat '" + root.getPath() + "'");
+    }
+    if (!attrs.isDirectory) {
+      Node node = new Node(root.getName());
+      node.bytes = attrs.size;
+      node.files = 1;
+      return node;
+    }
+    visit(attrs);
+    return FolderCopier.getPool().invoke(new Task(root, 0));
+  }
+
+  /**
+   * Marks the folder as visited.
+   * @return False if it has been visited already.
+   */
+  private boolean visit(FileAttributes attrs) {
+    return !followSymlinks || visited.add(attrs.device + ":" + attrs.inode);
+  }
+
+  private class Task extends RecursiveTask<Node> {
+    private final File dir;
+    private final int depth;
+
+    Task(File dir, int depth) {
+      this.dir = dir;
+      this.depth = depth;
+    }
+
+    @Override
+    protected Node compute() {
+      Node node = new Node(dir.getName());
+      node.directories = 1;
+      boolean withBreakdown = maxDepth < 0 || depth < maxDepth;
+      if (withBreakdown) node.children = new ArrayList<>();
+
+      // Unreadable folders are counted, but not measured.
+      String[] names = dir.list();
+      if (names == null) return node;
+
+      ArrayList<Task> subtasks = new ArrayList<>();
+      for (String name : names) {
+        File file = new File(dir, name);
+        FileAttributes attrs;
+        try {
+          attrs = FileAttributes.get(file.getPath(), followSymlinks);
+        } catch (IORejectionException e) {
+          continue;
+        }
+
+        // The item has been removed since the folder was listed.
+        if (attrs == null) continue;
+
+        if (attrs.isDirectory) {
+          if (visit(attrs)) {
+            Task task = new Task(file, depth + 1);
+            task.fork();
+            subtasks.add(task);
+          }
+        } else {
+          node.bytes += attrs.size;
+          ++node.files;
+          if (withBreakdown) {
+            Node child = new Node(name);
+            child.bytes = attrs.size;
+            child.files = 1;
+            node.children.add(child);
+          }
+        }
+      }
+
+      for (Task task : subtasks) {
+        Node child = task.join();
+        node.add(child);
+        if (withBreakdown) node.children.add(child);
+      }
+      return node;
+    }
+  }
+}
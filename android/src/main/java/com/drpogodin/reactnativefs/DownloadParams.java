@@ -4,6 +4,9 @@ import java.io.File;
 import java.net.URL;
 import java.util.*;
 
+import android.content.ContentResolver;
+import android.net.Uri;
+
 import com.facebook.react.bridge.ReadableMap;
 
 public class DownloadParams {
@@ -19,8 +22,23 @@ public class DownloadParams {
     void onDownloadProgress(long contentLength, long bytesWritten);
   }
 
+  public interface OnCheckpoint {
+    /**
+     * @param bytesCommitted The number of bytes durably written to dest.
+     * @param contentLength The total size of the file, -1 if not known.
+     * @param headers The response headers.
+     */
+    void onCheckpoint(long bytesCommitted, long contentLength, Map<String, String> headers) throws Exception;
+  }
+
   public URL src;
   public File dest;
+
+  // Content URI to write into, with the given access mode, if dest is null.
+  public Uri destUri;
+  public String destMode;
+  public ContentResolver resolver;
+
   public ReadableMap headers;
   public int progressInterval;
   public float progressDivider;
@@ -29,4 +47,37 @@ public class DownloadParams {
   public OnTaskCompleted onTaskCompleted;
   public OnDownloadBegin onDownloadBegin;
   public OnDownloadProgress onDownloadProgress;
+
+  // Optional. Invoked once the download begins, and then every
+  // checkpointInterval [ms], after the data written so far are synced
+  // to the disk. Local file destinations only.
+  public OnCheckpoint onCheckpoint;
+  public int checkpointInterval = 1000;
+
+  // The number of bytes already in dest to continue the download from,
+  // with a range request conditional on the validator (ETag or
+  // Last-Modified value). If the server does not honor the request,
+  // the file is downloaded from the start.
+  public long resumeFrom;
+  public String resumeValidator;
+
+  // Alternative URLs of the same file; failed attempts are retried against
+  // src and mirrors in turn.
+  public ArrayList<URL> mirrors = new ArrayList<>();
+
+  // Retry policy: the maximal number of attempts, and delays [ms] between
+  // them, doubled after each failed attempt, up to maxRetryDelay.
+  public int maxAttempts = 1;
+  public int retryDelay = 1000;
+  public int maxRetryDelay = 30000;
+
+  // An attempt is failed as stalled if it receives less than stallSpeed
+  // [bytes/s] over stallWindow [ms]; 0 disables the check.
+  public long stallSpeed = 0;
+  public int stallWindow = 5000;
+
+  // If an attempt receives no data within hedgeAfter [ms], a concurrent
+  // request is sent to the next mirror, and the slower one is cancelled;
+  // 0 disables the hedging.
+  public int hedgeAfter = 0;
 }
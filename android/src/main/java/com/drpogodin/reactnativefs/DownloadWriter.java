@@ -0,0 +1,150 @@
+package com.drpogodin.reactnativefs;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The write loop of downloads: copies the response body into
+ * the destination, throttling progress notifications, syncing checkpoints,
+ * and failing the transfer if it stalls.
+ */
+class DownloadWriter {
+  interface Listener {
+    /**
+     * Called after each chunk is written.
+     * @param total The number of bytes written so far, including the resume
+     *  offset.
+     */
+    void onWritten(long total);
+
+    /**
+     * Called when a progress notification is due.
+     */
+    void onProgress(long total);
+
+    /**
+     * Called after the data written so far are synced to the storage.
+     */
+    void onCheckpoint(long total) throws Exception;
+  }
+
+  static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  private final int bufferSize;
+
+  // Progress throttling, see DownloadParams.
+  boolean progress = false;
+  int progressInterval = 0;
+  float progressDivider = 0;
+
+  // Checkpoints every checkpointInterval [ms], if enabled.
+  boolean checkpoints = false;
+  int checkpointInterval = 1000;
+
+  // Stall check, disabled if stallSpeed is 0.
+  long stallSpeed = 0;
+  int stallWindow = 5000;
+
+  /**
+   * @param bufferSize The size [bytes] of chunks the data are read by.
+   */
+  DownloadWriter(int bufferSize) {
+    this.bufferSize = bufferSize;
+  }
+
+  /**
+   * Writes all remaining data from the input into the output. Does not close
+   * the streams.
+   * @param dest The destination file, for error messages; null for content
+   *  URI destinations.
+   * @param offset The number of bytes already in the destination.
+   * @param length The total size of the file, -1 if not known.
+   * @param abort Checked between chunks, the download is aborted once it is
+   *  set.
+   * @return The number of bytes written, including the offset.
+   */
+  long write(
+    InputStream input,
+    FileOutputStream output,
+    File dest,
+    long offset,
+    long length,
+    AtomicBoolean abort,
+    Listener listener
+  ) throws Exception {
+    long lastCheckpointTimestamp = System.currentTimeMillis();
+
+    byte data[] = new byte[bufferSize];
+    long total = offset;
+    int count;
+    double lastProgressValue = 0;
+    long lastProgressEmitTimestamp = 0;
+
+    long stallWindowStart = System.currentTimeMillis();
+    long stallWindowBytes = total;
+
+    while ((count = input.read(data)) != -1) {
+      if (abort.get()) throw new Exception("Download has been aborted");
+
+      total += count;
+
+      if (progress) {
+        if (progressInterval > 0) {
+          long timestamp = System.currentTimeMillis();
+          if (timestamp - lastProgressEmitTimestamp > progressInterval) {
+            lastProgressEmitTimestamp = timestamp;
+            listener.onProgress(total);
+          }
+        } else if (progressDivider <= 0) {
+          listener.onProgress(total);
+        } else {
+          double progress = Math.round(((double) total * 100) / length);
+          if (progress % progressDivider == 0) {
+            if ((progress != lastProgressValue) || (total == length)) {
+              Log.d("Downloader", "EMIT: " + String.valueOf(progress) + ", TOTAL:" + String.valueOf(total));
+              lastProgressValue = progress;
+              listener.onProgress(total);
+            }
+          }
+        }
+      }
+
+      try {
+        output.write(data, 0, count);
+      } catch (IOException e) {
+        if (dest != null && DiskSpace.isNoSpace(e)) throw DiskSpace.noSpace(dest, e.getMessage());
+        throw e;
+      }
+      listener.onWritten(total);
+
+      if (checkpoints) {
+        long timestamp = System.currentTimeMillis();
+        if (timestamp - lastCheckpointTimestamp >= checkpointInterval) {
+          lastCheckpointTimestamp = timestamp;
+          output.getFD().sync();
+          listener.onCheckpoint(total);
+        }
+      }
+
+      if (stallSpeed > 0) {
+        long timestamp = System.currentTimeMillis();
+        if (timestamp - stallWindowStart >= stallWindow) {
+          long speed = 1000 * (total - stallWindowBytes) / (timestamp - stallWindowStart);
+          if (speed < stallSpeed) {
+            throw new IOException("Download stalled at " + speed + " bytes/s, below " + stallSpeed + " bytes/s");
+          }
+          stallWindowStart = timestamp;
+          stallWindowBytes = total;
+        }
+      }
+    }
+
+    output.flush();
+    return total;
+  }
+}
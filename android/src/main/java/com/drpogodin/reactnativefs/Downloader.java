@@ -1,12 +1,19 @@
 package com.drpogodin.reactnativefs;
 
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.BufferedInputStream;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.net.URL;
 import java.net.HttpURLConnection;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.Map;
 import java.util.HashMap;
@@ -14,14 +21,34 @@ import java.util.HashMap;
 import android.util.Log;
 
 import android.os.AsyncTask;
+import android.os.ParcelFileDescriptor;
 
 import com.facebook.react.bridge.ReadableMapKeySetIterator;
 
-public class Downloader extends AsyncTask<DownloadParams, long[], DownloadResult> {
+public class Downloader extends AsyncTask<DownloadParams, long[], DownloadResult> implements TransferRegistry.Transfer {
+  // Runs hedged requests, each in its own thread, as the downloads do.
+  private static final Executor HEDGE_EXECUTOR = new Executor() {
+    public void execute(Runnable command) {
+      new Thread(command, "RNFS-Download-Hedge").start();
+    }
+  };
+
   private DownloadParams mParam;
   private AtomicBoolean mAbort = new AtomicBoolean(false);
   DownloadResult res;
 
+  // Progress of the download, for the transfer registry.
+  private volatile long bytesTransferred = 0;
+  private volatile long initialBytes = 0;
+  private volatile long totalBytes = -1;
+
+  // The number of bytes written into dest by the last attempt, and
+  // the validator of the response, for the next attempt to resume from.
+  private long bytesCommitted = 0;
+  private String validator;
+
+  private boolean begun = false;
+
   protected DownloadResult doInBackground(DownloadParams... params) {
     mParam = params[0];
     res = new DownloadResult();
@@ -41,50 +68,265 @@ public class Downloader extends AsyncTask<DownloadParams, long[], DownloadResult
     return res;
   }
 
+  /**
+   * Downloads the file, retrying failed attempts against the source and its
+   * mirrors in turn, as permitted by the retry policy in params. Network
+   * errors, stalls, and HTTP statuses telling the server is temporarily
+   * unavailable are retried; other errors fail the download right away.
+   */
   private void download(DownloadParams param, DownloadResult res) throws Exception {
-    InputStream input = null;
-    OutputStream output = null;
-    HttpURLConnection connection = null;
+    ArrayList<URL> sources = new ArrayList<>();
+    sources.add(param.src);
+    sources.addAll(param.mirrors);
+    bytesCommitted = param.resumeFrom;
+    validator = param.resumeValidator;
+
+    long delay = param.retryDelay;
+    for (int attempt = 1; ; ++attempt) {
+      // A download stopped while it was queued, or waiting for a retry.
+      if (mAbort.get()) throw new Exception("Download has been aborted");
+
+      int source = (attempt - 1) % sources.size();
+      try {
+        Response response = connect(param, sources, source);
+        if (attempt < param.maxAttempts && isRetriable(response.statusCode)) {
+          response.close();
+          Log.w(Errors.LOGTAG, "Download from '" + response.src + "' failed with HTTP status " + response.statusCode + ", attempt " + attempt);
+        } else {
+          receive(param, res, response);
+          return;
+        }
+      } catch (IOException e) {
+        if (mAbort.get() || attempt >= param.maxAttempts) throw e;
+        Log.w(Errors.LOGTAG, "Download from '" + sources.get(source) + "' failed, attempt " + attempt, e);
+      }
 
-    try {
-      connection = (HttpURLConnection)param.src.openConnection();
+      // The next attempt continues from the data written so far, if
+      // the response had a validator to check that the remote file stays
+      // the same; otherwise, it starts over.
+      if (param.dest != null && validator != null && bytesCommitted > 0) {
+        param.resumeFrom = bytesCommitted;
+        param.resumeValidator = validator;
+      } else {
+        param.resumeFrom = 0;
+        param.resumeValidator = null;
+      }
+
+      for (long end = System.currentTimeMillis() + delay; !mAbort.get() && System.currentTimeMillis() < end; ) {
+        Thread.sleep(Math.min(100, Math.max(1, end - System.currentTimeMillis())));
+      }
+      delay = Math.min(2 * delay, param.maxRetryDelay);
+    }
+  }
 
-      ReadableMapKeySetIterator iterator = param.headers.keySetIterator();
+  /**
+   * A response, with its status, and for successful ones, the input stream.
+   */
+  private static class Response {
+    final URL src;
+    HttpURLConnection connection;
+    int statusCode;
+    long lengthOfFile;
+    InputStream input;
+
+    Response(URL src) {
+      this.src = src;
+    }
 
-      while (iterator.hasNextKey()) {
-        String key = iterator.nextKey();
-        String value = param.headers.getString(key);
-        connection.setRequestProperty(key, value);
+    void close() {
+      if (input != null) {
+        try { input.close(); }
+        catch (IOException e) {}
       }
+      if (connection != null) connection.disconnect();
+    }
+  }
 
-      connection.setConnectTimeout(param.connectionTimeout);
-      connection.setReadTimeout(param.readTimeout);
-      connection.connect();
+  /**
+   * A request which may be cancelled from another thread, as the slower
+   * one of hedged requests is.
+   */
+  private class Attempt implements Callable<Response> {
+    private final DownloadParams param;
+    private final Response response;
+    private volatile boolean cancelled = false;
+
+    Attempt(DownloadParams param, URL src) {
+      this.param = param;
+      this.response = new Response(src);
+    }
+
+    @Override
+    public Response call() throws Exception {
+      try {
+        open(param, response, this);
+        if (cancelled) throw new IOException("Hedged request has been cancelled");
+        return response;
+      } catch (Exception e) {
+        response.close();
+        throw e;
+      }
+    }
 
-      int statusCode = connection.getResponseCode();
-      long lengthOfFile = getContentLength(connection);
-
-      boolean isRedirect = (
-        statusCode != HttpURLConnection.HTTP_OK &&
-        (
-          statusCode == HttpURLConnection.HTTP_MOVED_PERM ||
-          statusCode == HttpURLConnection.HTTP_MOVED_TEMP ||
-          statusCode == 307 ||
-          statusCode == 308
-        )
-      );
-
-      if (isRedirect) {
-        String redirectURL = connection.getHeaderField("Location");
+    synchronized void setConnection(HttpURLConnection connection) throws IOException {
+      if (cancelled) {
         connection.disconnect();
+        throw new IOException("Hedged request has been cancelled");
+      }
+      response.connection = connection;
+    }
 
-        connection = (HttpURLConnection) new URL(redirectURL).openConnection();
-        connection.setConnectTimeout(5000);
-        connection.connect();
+    synchronized void cancel() {
+      cancelled = true;
+      response.close();
+    }
+  }
 
-        statusCode = connection.getResponseCode();
-        lengthOfFile = getContentLength(connection);
+  /**
+   * Sends the request to the given source. If hedging is enabled, and it
+   * receives no data within the hedging delay, sends another request to
+   * the next source, and takes the response which gets data first.
+   */
+  private Response connect(DownloadParams param, List<URL> sources, int source) throws Exception {
+    if (param.hedgeAfter <= 0) {
+      Response response = new Response(sources.get(source));
+      try {
+        open(param, response, null);
+      } catch (Exception e) {
+        response.close();
+        throw e;
+      }
+      return response;
+    }
+
+    ExecutorCompletionService<Response> race = new ExecutorCompletionService<>(HEDGE_EXECUTOR);
+    ArrayList<Attempt> attempts = new ArrayList<>(2);
+    attempts.add(new Attempt(param, sources.get(source)));
+    race.submit(attempts.get(0));
+
+    Future<Response> done = race.poll(param.hedgeAfter, TimeUnit.MILLISECONDS);
+    if (done == null && !mAbort.get()) {
+      attempts.add(new Attempt(param, sources.get((source + 1) % sources.size())));
+      race.submit(attempts.get(1));
+    }
+
+    Response winner = null;
+    Exception error = null;
+    try {
+      for (int pending = attempts.size(); winner == null && pending > 0; --pending) {
+        if (done == null) done = race.take();
+        try {
+          winner = done.get();
+        } catch (ExecutionException e) {
+          error = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+        done = null;
+      }
+    } finally {
+      for (Attempt attempt : attempts) {
+        if (attempt.response != winner) attempt.cancel();
       }
+    }
+    if (winner == null) throw error;
+    return winner;
+  }
+
+  /**
+   * Opens the connection for the response, following a redirect, and gets
+   * the response status. For a hedged request (attempt is not null), it also
+   * waits for the first data of successful responses.
+   */
+  private void open(DownloadParams param, Response response, Attempt attempt) throws Exception {
+    HttpURLConnection connection = (HttpURLConnection)response.src.openConnection();
+    setConnection(response, attempt, connection);
+
+    ReadableMapKeySetIterator iterator = param.headers.keySetIterator();
+
+    while (iterator.hasNextKey()) {
+      String key = iterator.nextKey();
+      String value = param.headers.getString(key);
+      connection.setRequestProperty(key, value);
+    }
+    setRangeHeaders(connection, param);
+
+    connection.setConnectTimeout(param.connectionTimeout);
+    connection.setReadTimeout(getReadTimeout(param));
+    connection.connect();
+
+    int statusCode = connection.getResponseCode();
+    long lengthOfFile = getContentLength(connection);
+
+    boolean isRedirect = (
+      statusCode != HttpURLConnection.HTTP_OK &&
+      (
+        statusCode == HttpURLConnection.HTTP_MOVED_PERM ||
+        statusCode == HttpURLConnection.HTTP_MOVED_TEMP ||
+        statusCode == 307 ||
+        statusCode == 308
+      )
+    );
+
+    if (isRedirect) {
+      String redirectURL = connection.getHeaderField("Location");
+      connection.disconnect();
+
+      connection = (HttpURLConnection) new URL(redirectURL).openConnection();
+      setConnection(response, attempt, connection);
+      setRangeHeaders(connection, param);
+      connection.setConnectTimeout(5000);
+      connection.setReadTimeout(getReadTimeout(param));
+      connection.connect();
+
+      statusCode = connection.getResponseCode();
+      lengthOfFile = getContentLength(connection);
+    }
+
+    response.statusCode = statusCode;
+    response.lengthOfFile = lengthOfFile;
+    if (statusCode >= 200 && statusCode < 300) {
+      response.input = new BufferedInputStream(connection.getInputStream(), 8 * 1024);
+      if (attempt != null) {
+        response.input.mark(1);
+        response.input.read();
+        response.input.reset();
+      }
+    }
+  }
+
+  private static void setConnection(Response response, Attempt attempt, HttpURLConnection connection) throws IOException {
+    if (attempt != null) attempt.setConnection(connection);
+    else response.connection = connection;
+  }
+
+  /**
+   * Receives the response body into the destination.
+   */
+  private void receive(DownloadParams param, DownloadResult res, Response response) throws Exception {
+    InputStream input = response.input;
+    FileOutputStream output = null;
+    HttpURLConnection connection = response.connection;
+    int statusCode = response.statusCode;
+    long lengthOfFile = response.lengthOfFile;
+
+    // Whether the destination is preallocated; if so, it is truncated to
+    // the data written (bytesCommitted) in the end. Content URI destinations,
+    // and resumed downloads are not preallocated.
+    boolean preallocated = false;
+
+    try {
+      // The server has accepted the range request, thus the download
+      // continues from the given offset, and the content length reported
+      // to the callbacks is the one of the whole file.
+      long offset = 0;
+      if (statusCode == HttpURLConnection.HTTP_PARTIAL && param.resumeFrom > 0) {
+        offset = param.resumeFrom;
+        String range = connection.getHeaderField("Content-Range");
+        if (range == null || !range.startsWith("bytes " + offset + "-")) {
+          throw new IOException("Unexpected Content-Range '" + range + "' for the download resumed at " + offset);
+        }
+        if (lengthOfFile >= 0) lengthOfFile += offset;
+      }
+
       if(statusCode >= 200 && statusCode < 300) {
         Map<String, List<String>> headers = connection.getHeaderFields();
 
@@ -98,73 +340,167 @@ public class Downloader extends AsyncTask<DownloadParams, long[], DownloadResult
             headersFlat.put(headerKey, valueKey);
           }
         }
+        validator = getValidator(headersFlat);
+
+        bytesTransferred = offset;
+        bytesCommitted = offset;
+        totalBytes = lengthOfFile;
+
+        // Retries do not begin the download again.
+        if (!begun) {
+          begun = true;
+          initialBytes = offset;
+          if (mParam.onDownloadBegin != null) {
+            mParam.onDownloadBegin.onDownloadBegin(statusCode, lengthOfFile, headersFlat);
+          }
+        }
 
-        if (mParam.onDownloadBegin != null) {
-          mParam.onDownloadBegin.onDownloadBegin(statusCode, lengthOfFile, headersFlat);
+        if (param.dest != null && offset > 0) {
+          // Drops anything past the resume offset (e.g. the preallocated
+          // space, or data written after the last checkpoint), and appends
+          // the rest of the file.
+          try (RandomAccessFile file = new RandomAccessFile(param.dest, "rw")) {
+            file.setLength(offset);
+          }
+          DiskSpace.ensure(param.dest, lengthOfFile);
+          output = new FileOutputStream(param.dest, true);
+        } else if (param.dest != null) {
+          // Fails fast, before anything is written, if the file won't fit.
+          DiskSpace.ensure(param.dest, lengthOfFile);
+          output = new FileOutputStream(param.dest);
+          preallocated = true;
+          DiskSpace.preallocate(param.dest, output.getFD(), lengthOfFile);
+        } else {
+          output = openContentOutput(param);
         }
 
-        input = new BufferedInputStream(connection.getInputStream(), 8 * 1024);
-        output = new FileOutputStream(param.dest);
-
-        byte data[] = new byte[8 * 1024];
-        long total = 0;
-        int count;
-        double lastProgressValue = 0;
-        long lastProgressEmitTimestamp = 0;
-        boolean hasProgressCallback = mParam.onDownloadProgress != null;
-
-        while ((count = input.read(data)) != -1) {
-          if (mAbort.get()) throw new Exception("Download has been aborted");
-
-          total += count;
-
-          if (hasProgressCallback) {
-            if (param.progressInterval > 0) {
-              long timestamp = System.currentTimeMillis();
-              if (timestamp - lastProgressEmitTimestamp > param.progressInterval) {
-                lastProgressEmitTimestamp = timestamp;
-                publishProgress(new long[]{lengthOfFile, total});
-              }
-            } else if (param.progressDivider <= 0) {
-              publishProgress(new long[]{lengthOfFile, total});
-            } else {
-              double progress = Math.round(((double) total * 100) / lengthOfFile);
-              if (progress % param.progressDivider == 0) {
-                if ((progress != lastProgressValue) || (total == lengthOfFile)) {
-                  Log.d("Downloader", "EMIT: " + String.valueOf(progress) + ", TOTAL:" + String.valueOf(total));
-                  lastProgressValue = progress;
-                  publishProgress(new long[]{lengthOfFile, total});
-                }
-              }
-            }
+        boolean hasCheckpoints = param.onCheckpoint != null && param.dest != null;
+        if (hasCheckpoints) param.onCheckpoint.onCheckpoint(offset, lengthOfFile, headersFlat);
+
+        DownloadWriter writer = new DownloadWriter(DownloadWriter.DEFAULT_BUFFER_SIZE);
+        writer.progress = mParam.onDownloadProgress != null;
+        writer.progressInterval = param.progressInterval;
+        writer.progressDivider = param.progressDivider;
+        writer.checkpoints = hasCheckpoints;
+        writer.checkpointInterval = param.checkpointInterval;
+        writer.stallSpeed = param.stallSpeed;
+        writer.stallWindow = param.stallWindow;
+
+        final long length = lengthOfFile;
+        long total = writer.write(input, output, param.dest, offset, length, mAbort, new DownloadWriter.Listener() {
+          public void onWritten(long total) {
+            bytesTransferred = total;
+            bytesCommitted = total;
           }
 
-          output.write(data, 0, count);
-        }
+          public void onProgress(long total) {
+            publishProgress(new long[]{length, total});
+          }
+
+          public void onCheckpoint(long total) throws Exception {
+            param.onCheckpoint.onCheckpoint(total, length, headersFlat);
+          }
+        });
 
-        output.flush();
         res.bytesWritten = total;
         res.headers = headersFlat;
       }
       res.statusCode = statusCode;
- } finally {
-      if (output != null) output.close();
+    } finally {
+      if (output != null) {
+        try {
+          if (preallocated && output.getChannel().size() > bytesCommitted) {
+            output.getChannel().truncate(bytesCommitted);
+          }
+        } finally {
+          output.close();
+        }
+      }
       if (input != null) input.close();
       if (connection != null) connection.disconnect();
     }
   }
 
-  private long getContentLength(HttpURLConnection connection){
+  /**
+   * @return True if the HTTP status tells the server is temporarily unable
+   *  to serve the request, and it may be retried.
+   */
+  private static boolean isRetriable(int statusCode) {
+    return statusCode == 408 || statusCode == 429 || statusCode >= 500;
+  }
+
+  /**
+   * @return The strong ETag, or the Last-Modified value of the response,
+   *  or null if it has none of these.
+   */
+  private static String getValidator(Map<String, String> headers) {
+    String lastModified = null;
+    for (Map.Entry<String, String> header : headers.entrySet()) {
+      // Weak ETags can't be used in If-Range header.
+      if ("ETag".equalsIgnoreCase(header.getKey()) && !header.getValue().startsWith("W/")) {
+        return header.getValue();
+      } else if ("Last-Modified".equalsIgnoreCase(header.getKey())) {
+        lastModified = header.getValue();
+      }
+    }
+    return lastModified;
+  }
+
+  /**
+   * @return The read timeout; with the stall check enabled, reads blocked
+   *  for longer than the stall window are failed as stalled.
+   */
+  private static int getReadTimeout(DownloadParams param) {
+    if (param.stallSpeed <= 0) return param.readTimeout;
+    return param.readTimeout > 0 ? Math.min(param.readTimeout, param.stallWindow) : param.stallWindow;
+  }
+
+  private static void setRangeHeaders(HttpURLConnection connection, DownloadParams param) {
+    if (param.resumeFrom <= 0 || param.resumeValidator == null) return;
+    connection.setRequestProperty("Range", "bytes=" + param.resumeFrom + "-");
+    connection.setRequestProperty("If-Range", param.resumeValidator);
+  }
+
+  /**
+   * Opens the content URI destination through its file descriptor, thus
+   * the data are written straight into the file backing it (e.g. a MediaStore
+   * entry), without an intermediate copy.
+   */
+  private static FileOutputStream openContentOutput(DownloadParams param) throws Exception {
+    ParcelFileDescriptor pfd = param.resolver.openFileDescriptor(param.destUri, param.destMode);
+    if (pfd == null) {
+      throw new IORejectionException("ENOENT", "ENOENT: could not open an output stream for '" + param.destUri + "'");
+    }
+    return new ParcelFileDescriptor.AutoCloseOutputStream(pfd);
+  }
+
+  private static long getContentLength(HttpURLConnection connection){
     if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.N) {
       return connection.getContentLengthLong();
     }
     return connection.getContentLength();
   }
 
-  protected void stop() {
+  public void stop() {
     mAbort.set(true);
   }
 
+  protected boolean isAborted() {
+    return mAbort.get();
+  }
+
+  public long getBytesTransferred() {
+    return bytesTransferred;
+  }
+
+  public long getInitialBytes() {
+    return initialBytes;
+  }
+
+  public long getTotalBytes() {
+    return totalBytes;
+  }
+
   @Override
   protected void onProgressUpdate(long[]... values) {
     super.onProgressUpdate(values);
@@ -0,0 +1,76 @@
+package com.drpogodin.reactnativefs;
+
+import android.os.Build;
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.OsConstants;
+import android.system.StructStat;
+
+/**
+ * Attributes of a file system item, fetched by a single stat() system call,
+ * instead of separate calls done by java.io.File methods (exists(),
+ * length(), lastModified(), isDirectory(), etc.).
+ */
+class FileAttributes {
+  final long size;
+  final double mtime; // seconds
+  final double ctime; // seconds, the last status change time
+  final long device;
+  final long inode;
+  final int mode;
+  final boolean isDirectory;
+  final boolean isSymbolicLink;
+
+  private FileAttributes(StructStat stat, boolean isSymbolicLink) {
+    size = stat.st_size;
+    if (Build.VERSION.SDK_INT >= 27) {
+      mtime = stat.st_mtim.tv_sec + stat.st_mtim.tv_nsec / 1e9;
+      ctime = stat.st_ctim.tv_sec + stat.st_ctim.tv_nsec / 1e9;
+    } else {
+      mtime = stat.st_mtime;
+      ctime = stat.st_ctime;
+    }
+    device = stat.st_dev;
+    inode = stat.st_ino;
+    mode = stat.st_mode;
+    isDirectory = OsConstants.S_ISDIR(stat.st_mode);
+    this.isSymbolicLink = isSymbolicLink;
+  }
+
+  /**
+   * Gets attributes of the item at the given path. For a symbolic link
+   * it returns attributes of its target (flagged as a link), or of the link
+   * itself, if the target does not exist.
+   * @return Null if the item does not exist.
+   */
+  static FileAttributes get(String path) throws IORejectionException {
+    return get(path, true);
+  }
+
+  /**
+   * Gets attributes of the item at the given path.
+   * @param followLinks If false, attributes of a symbolic link are returned
+   *  for the link itself, rather than for its target.
+   * @return Null if the item does not exist.
+   */
+  static FileAttributes get(String path, boolean followLinks) throws IORejectionException {
+    StructStat stat;
+    try {
+      stat = Os.lstat(path);
+    } catch (ErrnoException e) {
+      if (e.errno == OsConstants.ENOENT) return null;
+      throw new IORejectionException("EIO", "EIO: " + e.getMessage() + ", stat '" + path + "'");
+    }
+
+    // An extra system call is only needed for symbolic links.
+    boolean isSymbolicLink = OsConstants.S_ISLNK(stat.st_mode);
+    if (followLinks && isSymbolicLink) {
+      try {
+        return new FileAttributes(Os.stat(path), true);
+      } catch (ErrnoException ignored) {
+        // A dangling link.
+      }
+    }
+    return new FileAttributes(stat, isSymbolicLink);
+  }
+}
@@ -0,0 +1,194 @@
+package com.drpogodin.reactnativefs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Copies data between files or streams, reporting progress, and allowing
+ * to abort the copying from another thread.
+ *
+ * File-to-file copies are done with FileChannel.transferTo(), which lets
+ * the kernel move the data without copying it through Java heap; other
+ * sources and destinations (e.g. content:// URIs) are copied through
+ * large pooled buffers.
+ */
+class FileCopier {
+  interface OnProgress {
+    void onProgress(long bytesCopied, long totalBytes);
+  }
+
+  static final int BUFFER_SIZE = 256 * 1024;
+
+  // The amount of data moved by a single transferTo() call. It bounds
+  // how long the copier may take to notice it was aborted.
+  private static final long TRANSFER_CHUNK_SIZE = 8 * 1024 * 1024;
+
+  private static final ArrayBlockingQueue<byte[]> bufferPool =
+    new ArrayBlockingQueue<>(8);
+
+  private final AtomicBoolean mAbort = new AtomicBoolean(false);
+  private final OnProgress onProgress;
+  private final int progressInterval;
+  private final int bufferSize;
+  private long lastProgressEmitTimestamp = 0;
+
+  /**
+   * @param onProgress Optional progress listener.
+   * @param progressInterval The minimal interval [ms] between progress
+   *  notifications.
+   */
+  FileCopier(OnProgress onProgress, int progressInterval) {
+    this(onProgress, progressInterval, BUFFER_SIZE);
+  }
+
+  /**
+   * @param onProgress Optional progress listener.
+   * @param progressInterval The minimal interval [ms] between progress
+   *  notifications.
+   * @param bufferSize The buffer size [bytes] for stream copies; only
+   *  buffers of the default BUFFER_SIZE are taken from the shared pool.
+   */
+  FileCopier(OnProgress onProgress, int progressInterval, int bufferSize) {
+    this.onProgress = onProgress;
+    this.progressInterval = progressInterval;
+    this.bufferSize = bufferSize;
+  }
+
+  /**
+   * Takes a buffer of BUFFER_SIZE bytes from the shared pool,
+   * or allocates a new one, if the pool is empty.
+   */
+  static byte[] acquireBuffer() {
+    byte[] buffer = bufferPool.poll();
+    return buffer != null ? buffer : new byte[BUFFER_SIZE];
+  }
+
+  /**
+   * Returns a buffer obtained with acquireBuffer() to the shared pool.
+   */
+  static void releaseBuffer(byte[] buffer) {
+    bufferPool.offer(buffer);
+  }
+
+  boolean isAborted() {
+    return mAbort.get();
+  }
+
+  void stop() {
+    mAbort.set(true);
+  }
+
+  /**
+   * Copies a regular file into another one, overwriting the destination.
+   * @return The number of bytes copied.
+   */
+  long copy(File from, File into) throws IOException, IORejectionException {
+    checkAborted();
+    try (FileInputStream in = new FileInputStream(from)) {
+      FileChannel source = in.getChannel();
+      return copy(source, 0, source.size(), into);
+    }
+  }
+
+  /**
+   * Copies a segment of the source channel into the given file, overwriting
+   * it. Does not close the source channel.
+   * @param offset The segment start position in the source channel.
+   * @param size The segment size.
+   * @return The number of bytes copied.
+   */
+  long copy(FileChannel source, long offset, long size, File into) throws IOException, IORejectionException {
+    checkAborted();
+    DiskSpace.ensure(into, size);
+    try (FileOutputStream out = new FileOutputStream(into)) {
+      FileChannel target = out.getChannel();
+      DiskSpace.preallocate(into, out.getFD(), size);
+      long position = 0;
+      try {
+        while (position < size) {
+          checkAborted();
+          long count = source.transferTo(offset + position, Math.min(TRANSFER_CHUNK_SIZE, size - position), target);
+
+          // transferTo() may return 0 if the source was truncated meanwhile.
+          if (count <= 0) break;
+          position += count;
+          reportProgress(position, size, false);
+        }
+      } catch (IOException e) {
+        if (DiskSpace.isNoSpace(e)) throw DiskSpace.noSpace(into, e.getMessage());
+        throw e;
+      } finally {
+        // Drops the preallocated space not filled with data.
+        if (target.size() > position) target.truncate(position);
+      }
+      reportProgress(position, size, true);
+      return position;
+    }
+  }
+
+  /**
+   * Copies all remaining data from the input stream into the output one.
+   * Does not close the streams.
+   * @param totalBytes The expected number of bytes, used for progress
+   *  reporting only; -1 if not known.
+   * @return The number of bytes copied.
+   */
+  long copy(InputStream in, OutputStream out, long totalBytes) throws IOException, IORejectionException {
+    checkAborted();
+    boolean pooled = bufferSize == BUFFER_SIZE;
+    byte[] buffer = pooled ? acquireBuffer() : new byte[bufferSize];
+    try {
+      long total = 0;
+      int count;
+      while ((count = in.read(buffer)) != -1) {
+        checkAborted();
+        out.write(buffer, 0, count);
+        total += count;
+        reportProgress(total, totalBytes, false);
+      }
+      out.flush();
+      reportProgress(total, totalBytes, true);
+      return total;
+    } finally {
+      if (pooled) releaseBuffer(buffer);
+    }
+  }
+
+  /**
+   * Reads all remaining data from the input stream. Does not close it.
+   * @param bufferSize The size [bytes] of chunks the data are read by.
+   */
+  static byte[] readAll(InputStream in, int bufferSize) throws IOException {
+    byte[] buffer = new byte[bufferSize];
+    try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+      int count;
+      while ((count = in.read(buffer)) != -1) {
+        out.write(buffer, 0, count);
+      }
+      return out.toByteArray();
+    }
+  }
+
+  private void checkAborted() throws IORejectionException {
+    if (mAbort.get()) {
+      throw new IORejectionException("ECANCELED", "ECANCELED: copying has been aborted");
+    }
+  }
+
+  private void reportProgress(long bytesCopied, long totalBytes, boolean isFinal) {
+    if (onProgress == null) return;
+    long timestamp = System.currentTimeMillis();
+    if (isFinal || timestamp - lastProgressEmitTimestamp >= progressInterval) {
+      lastProgressEmitTimestamp = timestamp;
+      onProgress.onProgress(bytesCopied, totalBytes);
+    }
+  }
+}
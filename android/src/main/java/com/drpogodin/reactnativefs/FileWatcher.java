@@ -0,0 +1,231 @@
+package com.drpogodin.reactnativefs;
+
+import android.os.FileObserver;
+import android.util.Log;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a file or folder for changes with FileObserver, optionally
+ * including all its subfolders, in which case observers are attached to
+ * new subfolders as they appear.
+ *
+ * Events are not reported one by one: changes of the same path within
+ * the debounce window are coalesced, and all pending changes are reported
+ * together once the window closes.
+ */
+class FileWatcher {
+  static final int CREATE = 1;
+  static final int MODIFY = 2;
+  static final int DELETE = 4;
+  static final int ATTRIB = 8;
+  static final int ALL = CREATE | MODIFY | DELETE | ATTRIB;
+
+  interface Listener {
+    /**
+     * @param changes Changed paths, mapped to the bitmasks of CREATE, MODIFY,
+     *  DELETE, and ATTRIB flags.
+     */
+    void onChanges(Map<String, Integer> changes);
+  }
+
+  // inotify flag, set for events related to folders.
+  private static final int IN_ISDIR = 0x40000000;
+
+  // Events the observers always subscribe to in the recursive mode,
+  // to keep track of subfolders.
+  private static final int TREE_MASK = FileObserver.CREATE | FileObserver.MOVED_TO
+    | FileObserver.DELETE_SELF | FileObserver.MOVE_SELF;
+
+  private static ScheduledThreadPoolExecutor scheduler;
+
+  private final File root;
+  private final boolean recursive;
+  private final int events;
+  private final long debounceMs;
+  private final Listener listener;
+
+  // All fields below are guarded by "this".
+  private final HashMap<String, Observer> observers = new HashMap<>();
+  private LinkedHashMap<String, Integer> pending = new LinkedHashMap<>();
+  private boolean flushScheduled = false;
+  private boolean stopped = false;
+
+  /**
+   * @param events Bitmask of CREATE, MODIFY, DELETE, and ATTRIB flags,
+   *  selecting the changes to report.
+   * @param debounceMs The interval [ms] during which changes are coalesced.
+   */
+  FileWatcher(File root, boolean recursive, int events, long debounceMs, Listener listener) {
+    this.root = root;
+    this.recursive = recursive;
+    this.events = events;
+    this.debounceMs = Math.max(0, debounceMs);
+    this.listener = listener;
+  }
+
+  private static synchronized ScheduledThreadPoolExecutor getScheduler() {
+    if (scheduler == null) {
+      scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "RNFS-Watch");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return scheduler;
+  }
+
+  synchronized void start() throws IORejectionException {
+    if (!root.exists()) {
+      throw new IORejectionException("ENOENT", "ENOENT: no such file or directory, watch '" + root.getPath() + "'");
+    }
+    if (recursive && root.isDirectory()) attachTree(root);
+    else attach(root);
+  }
+
+  synchronized void stop() {
+    stopped = true;
+    for (Observer observer : observers.values()) observer.stopWatching();
+    observers.clear();
+    pending.clear();
+  }
+
+  /**
+   * Attaches observers to the folder and all its subfolders. Symbolic links
+   * are not followed.
+   */
+  private void attachTree(File dir) {
+    ArrayDeque<File> queue = new ArrayDeque<>();
+    queue.add(dir);
+    while (!queue.isEmpty()) {
+      File folder = queue.poll();
+      attach(folder);
+      File[] children = folder.listFiles();
+      if (children == null) continue;
+      for (File child : children) {
+        try {
+          FileAttributes attrs = FileAttributes.get(child.getPath(), false);
+          if (attrs != null && attrs.isDirectory) queue.add(child);
+        } catch (IORejectionException ignored) {}
+      }
+    }
+  }
+
+  private void attach(File file) {
+    String path = file.getPath();
+    if (observers.containsKey(path)) return;
+    Observer observer = new Observer(path, toObserverMask(events) | (recursive ? TREE_MASK : 0));
+    observers.put(path, observer);
+    observer.startWatching();
+  }
+
+  private static int toObserverMask(int events) {
+    int mask = 0;
+    if ((events & CREATE) != 0) mask |= FileObserver.CREATE | FileObserver.MOVED_TO;
+    if ((events & MODIFY) != 0) mask |= FileObserver.MODIFY | FileObserver.CLOSE_WRITE;
+    if ((events & DELETE) != 0) {
+      mask |= FileObserver.DELETE | FileObserver.MOVED_FROM
+        | FileObserver.DELETE_SELF | FileObserver.MOVE_SELF;
+    }
+    if ((events & ATTRIB) != 0) mask |= FileObserver.ATTRIB;
+    return mask;
+  }
+
+  private static int toEvents(int observerEvent) {
+    int res = 0;
+    if ((observerEvent & (FileObserver.CREATE | FileObserver.MOVED_TO)) != 0) res |= CREATE;
+    if ((observerEvent & (FileObserver.MODIFY | FileObserver.CLOSE_WRITE)) != 0) res |= MODIFY;
+    if ((observerEvent & (FileObserver.DELETE | FileObserver.MOVED_FROM
+      | FileObserver.DELETE_SELF | FileObserver.MOVE_SELF)) != 0) res |= DELETE;
+    if ((observerEvent & FileObserver.ATTRIB) != 0) res |= ATTRIB;
+    return res;
+  }
+
+  private synchronized void onEvent(Observer observer, int event, String name) {
+    if (stopped) return;
+    String path = name == null ? observer.path : observer.path + File.separator + name;
+
+    if (recursive) {
+      if ((event & IN_ISDIR) != 0 && (event & (FileObserver.CREATE | FileObserver.MOVED_TO)) != 0) {
+        attachTree(new File(path));
+      }
+      if ((event & (FileObserver.DELETE_SELF | FileObserver.MOVE_SELF)) != 0) {
+        observers.remove(observer.path);
+        observer.stopWatching();
+      }
+    }
+
+    int changes = toEvents(event) & events;
+    if (changes == 0) return;
+    Integer prev = pending.get(path);
+    pending.put(path, prev == null ? changes : prev | changes);
+    if (!flushScheduled) {
+      flushScheduled = true;
+      getScheduler().schedule(this::flush, debounceMs, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void flush() {
+    Map<String, Integer> changes;
+    synchronized (this) {
+      flushScheduled = false;
+      if (stopped || pending.isEmpty()) return;
+      changes = pending;
+      pending = new LinkedHashMap<>();
+    }
+    try {
+      listener.onChanges(changes);
+    } catch (Exception e) {
+      Log.e(Errors.LOGTAG, "Failed to report file changes", e);
+    }
+  }
+
+  /**
+   * @return Names of the events in the bitmask.
+   */
+  static List<String> toEventNames(int events) {
+    ArrayList<String> res = new ArrayList<>();
+    if ((events & CREATE) != 0) res.add("create");
+    if ((events & MODIFY) != 0) res.add("modify");
+    if ((events & DELETE) != 0) res.add("delete");
+    if ((events & ATTRIB) != 0) res.add("attrib");
+    return res;
+  }
+
+  /**
+   * @return The bitmask of events with the given name; 0 for unknown names.
+   */
+  static int fromEventName(String name) {
+    switch (name) {
+      case "create": return CREATE;
+      case "modify": return MODIFY;
+      case "delete": return DELETE;
+      case "attrib": return ATTRIB;
+      default: return 0;
+    }
+  }
+
+  private class Observer extends FileObserver {
+    final String path;
+
+    @SuppressWarnings("deprecation")
+    Observer(String path, int mask) {
+      // FileObserver(File, int) is only available since API 29.
+      super(path, mask);
+      this.path = path;
+    }
+
+    @Override
+    public void onEvent(int event, String name) {
+      FileWatcher.this.onEvent(this, event, name);
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package com.drpogodin.reactnativefs;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recursively copies content of a folder into another folder.
+ *
+ * It first walks the source tree, creating all destination folders and
+ * collecting the list of files, then copies the files concurrently on
+ * a fork/join pool, using FileCopier for each of them.
+ */
+class FolderCopier {
+  interface OnProgress {
+    void onProgress(int filesCopied, int totalFiles, long bytesCopied, long totalBytes);
+  }
+
+  static class Result {
+    int directories = 0;
+    int files = 0;
+    long bytes = 0;
+  }
+
+  // Number of files a single fork/join task copies without further splitting.
+  private static final int FILES_PER_TASK = 16;
+
+  private static ForkJoinPool pool;
+
+  private final FileCopier copier;
+  private final OnProgress onProgress;
+  private final int progressInterval;
+
+  private final ArrayList<File> sources = new ArrayList<>();
+  private final ArrayList<File> targets = new ArrayList<>();
+  private final AtomicInteger filesCopied = new AtomicInteger();
+  private final AtomicLong bytesCopied = new AtomicLong();
+  private long totalBytes = 0;
+  private long lastProgressEmitTimestamp = 0;
+  private volatile Exception error;
+
+  /**
+   * @param copier File copier to use for individual files; it should not
+   *  have its own progress listener. Stopping it aborts the folder copying.
+   * @param onProgress Optional progress listener.
+   * @param progressInterval The minimal interval [ms] between progress
+   *  notifications.
+   */
+  FolderCopier(FileCopier copier, OnProgress onProgress, int progressInterval) {
+    this.copier = copier;
+    this.onProgress = onProgress;
+    this.progressInterval = progressInterval;
+  }
+
+  /**
+   * The fork/join pool shared by folder-wide operations.
+   */
+  static synchronized ForkJoinPool getPool() {
+    if (pool == null) {
+      pool = new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+    return pool;
+  }
+
+  /**
+   * Copies the content of "from" folder into "into" folder, creating it
+   * if necessary. Existing files are overwritten.
+   */
+  Result copy(File from, File into) throws Exception {
+    if (!from.isDirectory()) {
+      throw new IORejectionException("ENOTDIR", "ENOTDIR: not a directory, open '" + from.getPath() + "'");
+    }
+    String fromPath = from.getCanonicalPath() + File.separator;
+    if ((into.getCanonicalPath() + File.separator).startsWith(fromPath)) {
+      throw new IORejectionException("EINVAL", "EINVAL: cannot copy '" + from.getPath() + "' into its own subfolder '" + into.getPath() + "'");
+    }
+
+    Result result = new Result();
+    result.directories = createFolders(from, into);
+    result.files = sources.size();
+    DiskSpace.ensure(into, totalBytes);
+
+    if (!sources.isEmpty()) {
+      getPool().invoke(new CopyTask(0, sources.size()));
+      if (error != null) throw error;
+    }
+
+    result.bytes = bytesCopied.get();
+    reportProgress(true);
+    return result;
+  }
+
+  /**
+   * Walks the source tree, creates the corresponding destination folders,
+   * and collects the files to copy.
+   * @return The number of folders created.
+   */
+  private int createFolders(File from, File into) throws IOException, IORejectionException {
+    int count = 0;
+    ArrayDeque<File[]> queue = new ArrayDeque<>();
+    queue.add(new File[]{from, into});
+    while (!queue.isEmpty()) {
+      if (copier.isAborted()) {
+        throw new IORejectionException("ECANCELED", "ECANCELED: copying has been aborted");
+      }
+      File[] pair = queue.poll();
+      if (!pair[1].isDirectory() && !pair[1].mkdirs()) {
+        throw new IOException("Directory '" + pair[1].getPath() + "' could not be created");
+      }
+      ++count;
+
+      File[] children = pair[0].listFiles();
+      if (children == null) continue;
+      for (File child : children) {
+        File target = new File(pair[1], child.getName());
+        if (child.isDirectory()) {
+          // Symbolic links to folders are not followed, to avoid loops.
+          if (!isSymlink(child)) queue.add(new File[]{child, target});
+        } else {
+          sources.add(child);
+          targets.add(target);
+          totalBytes += child.length();
+        }
+      }
+    }
+    return count;
+  }
+
+  private static boolean isSymlink(File file) throws IOException {
+    File canonicalParent = file.getParentFile().getCanonicalFile();
+    File candidate = new File(canonicalParent, file.getName());
+    return !candidate.getCanonicalFile().equals(candidate.getAbsoluteFile());
+  }
+
+  private void reportProgress(boolean isFinal) {
+    if (onProgress == null) return;
+    synchronized (this) {
+      long timestamp = System.currentTimeMillis();
+      if (!isFinal && timestamp - lastProgressEmitTimestamp < progressInterval) return;
+      lastProgressEmitTimestamp = timestamp;
+    }
+    onProgress.onProgress(filesCopied.get(), sources.size(), bytesCopied.get(), totalBytes);
+  }
+
+  private class CopyTask extends RecursiveAction {
+    private final int begin;
+    private final int end;
+
+    CopyTask(int begin, int end) {
+      this.begin = begin;
+      this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - begin > FILES_PER_TASK) {
+        int middle = (begin + end) >>> 1;
+        invokeAll(new CopyTask(begin, middle), new CopyTask(middle, end));
+        return;
+      }
+      try {
+        for (int i = begin; i < end; ++i) {
+          bytesCopied.addAndGet(copier.copy(sources.get(i), targets.get(i)));
+          filesCopied.incrementAndGet();
+          reportProgress(false);
+        }
+      } catch (Exception e) {
+        // Keeps the first error only, as the following ones are most probably
+        // caused by the abort below.
+        synchronized (FolderCopier.this) {
+          if (error == null) error = e;
+        }
+        copier.stop();
+      }
+    }
+  }
+}
@@ -0,0 +1,279 @@
+package com.drpogodin.reactnativefs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Computes one or more digests of the same data in a single read pass.
+ *
+ * Besides the cryptographic digests provided by MessageDigest it supports
+ * the fast non-cryptographic CRC32 and xxHash64 checksums, intended for
+ * integrity checks.
+ */
+class Hasher {
+  private interface Digest {
+    void update(byte[] data, int offset, int length);
+    byte[] digest();
+  }
+
+  // Maps algorithm names accepted from JS to MessageDigest names; other
+  // supported algorithms are implemented by the Hasher itself.
+  private static final Map<String, String> DIGEST_ALGORITHMS;
+  static {
+    Map<String, String> algorithms = new HashMap<>();
+    algorithms.put("md5", "MD5");
+    algorithms.put("sha1", "SHA-1");
+    algorithms.put("sha224", "SHA-224");
+    algorithms.put("sha256", "SHA-256");
+    algorithms.put("sha384", "SHA-384");
+    algorithms.put("sha512", "SHA-512");
+    DIGEST_ALGORITHMS = Collections.unmodifiableMap(algorithms);
+  }
+
+  private static final String CRC32 = "crc32";
+  private static final String XXHASH64 = "xxhash64";
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private final String[] algorithms;
+  private final Digest[] digests;
+
+  /**
+   * @param algorithms Names of the algorithms to compute.
+   */
+  Hasher(String... algorithms) throws IORejectionException {
+    if (algorithms.length == 0) {
+      throw new IORejectionException("EINVAL", "EINVAL: no hash algorithm given");
+    }
+    this.algorithms = algorithms;
+    digests = new Digest[algorithms.length];
+    for (int i = 0; i < algorithms.length; ++i) {
+      digests[i] = createDigest(algorithms[i]);
+    }
+  }
+
+  private static Digest createDigest(String algorithm) throws IORejectionException {
+    if (CRC32.equals(algorithm)) return new Crc32Digest();
+    if (XXHASH64.equals(algorithm)) return new XxHash64Digest();
+
+    String name = algorithm == null ? null : DIGEST_ALGORITHMS.get(algorithm);
+    if (name == null) {
+      throw new IORejectionException("EINVAL", "Invalid hash algorithm '" + algorithm + "'");
+    }
+    try {
+      final MessageDigest md = MessageDigest.getInstance(name);
+      return new Digest() {
+        @Override
+        public void update(byte[] data, int offset, int length) {
+          md.update(data, offset, length);
+        }
+
+        @Override
+        public byte[] digest() {
+          return md.digest();
+        }
+      };
+    } catch (NoSuchAlgorithmException e) {
+      throw new IORejectionException("EINVAL", "Hash algorithm '" + algorithm + "' is not available");
+    }
+  }
+
+  /**
+   * Feeds data from the stream into all digests. Does not close the stream.
+   * @param offset The number of bytes to skip in the stream first.
+   * @param length The maximal number of bytes to hash; negative to hash
+   *  everything till the stream end.
+   * @return The number of bytes hashed.
+   */
+  long update(InputStream in, long offset, long length) throws IOException {
+    while (offset > 0) {
+      long skipped = in.skip(offset);
+      if (skipped <= 0) {
+        // skip() is allowed to return 0 before the stream end,
+        // thus the end is checked by read().
+        if (in.read() == -1) return 0;
+        skipped = 1;
+      }
+      offset -= skipped;
+    }
+
+    byte[] buffer = FileCopier.acquireBuffer();
+    try {
+      long total = 0;
+      while (length < 0 || total < length) {
+        int toRead = length < 0 ? buffer.length : (int) Math.min(buffer.length, length - total);
+        int count = in.read(buffer, 0, toRead);
+        if (count == -1) break;
+        for (Digest digest : digests) digest.update(buffer, 0, count);
+        total += count;
+      }
+      return total;
+    } finally {
+      FileCopier.releaseBuffer(buffer);
+    }
+  }
+
+  /**
+   * Completes the hashing.
+   * @return Hex-encoded digests, keyed by algorithm names.
+   */
+  Map<String, String> digest() {
+    Map<String, String> res = new HashMap<>();
+    for (int i = 0; i < digests.length; ++i) {
+      res.put(algorithms[i], toHex(digests[i].digest()));
+    }
+    return res;
+  }
+
+  static String toHex(byte[] bytes) {
+    char[] chars = new char[2 * bytes.length];
+    for (int i = 0; i < bytes.length; ++i) {
+      int value = bytes[i] & 0xff;
+      chars[2 * i] = HEX_DIGITS[value >>> 4];
+      chars[2 * i + 1] = HEX_DIGITS[value & 0x0f];
+    }
+    return new String(chars);
+  }
+
+  private static byte[] toBytes(long value, int numBytes) {
+    byte[] bytes = new byte[numBytes];
+    for (int i = numBytes - 1; i >= 0; --i) {
+      bytes[i] = (byte) value;
+      value >>>= 8;
+    }
+    return bytes;
+  }
+
+  private static class Crc32Digest implements Digest {
+    private final CRC32 crc = new CRC32();
+
+    @Override
+    public void update(byte[] data, int offset, int length) {
+      crc.update(data, offset, length);
+    }
+
+    @Override
+    public byte[] digest() {
+      return toBytes(crc.getValue(), 4);
+    }
+  }
+
+  /**
+   * Streaming xxHash64 with zero seed, see
+   * https://github.com/Cyan4973/xxHash/blob/dev/doc/xxhash_spec.md
+   */
+  private static class XxHash64Digest implements Digest {
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+    private long v1 = PRIME1 + PRIME2;
+    private long v2 = PRIME2;
+    private long v3 = 0;
+    private long v4 = -PRIME1;
+    private long totalLength = 0;
+
+    // The tail of data, not yet consumed as a full 32-byte stripe.
+    private final byte[] memory = new byte[32];
+    private int memorySize = 0;
+
+    @Override
+    public void update(byte[] data, int offset, int length) {
+      totalLength += length;
+      int end = offset + length;
+
+      if (memorySize > 0) {
+        int count = Math.min(32 - memorySize, length);
+        System.arraycopy(data, offset, memory, memorySize, count);
+        memorySize += count;
+        offset += count;
+        if (memorySize < 32) return;
+        consumeStripe(memory, 0);
+        memorySize = 0;
+      }
+
+      for (; offset + 32 <= end; offset += 32) consumeStripe(data, offset);
+
+      if (offset < end) {
+        memorySize = end - offset;
+        System.arraycopy(data, offset, memory, 0, memorySize);
+      }
+    }
+
+    @Override
+    public byte[] digest() {
+      long h;
+      if (totalLength >= 32) {
+        h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7)
+          + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+        h = mergeRound(h, v1);
+        h = mergeRound(h, v2);
+        h = mergeRound(h, v3);
+        h = mergeRound(h, v4);
+      } else {
+        h = PRIME5;
+      }
+      h += totalLength;
+
+      int i = 0;
+      for (; i + 8 <= memorySize; i += 8) {
+        h ^= round(0, getLong(memory, i));
+        h = Long.rotateLeft(h, 27) * PRIME1 + PRIME4;
+      }
+      if (i + 4 <= memorySize) {
+        h ^= (getInt(memory, i) & 0xffffffffL) * PRIME1;
+        h = Long.rotateLeft(h, 23) * PRIME2 + PRIME3;
+        i += 4;
+      }
+      for (; i < memorySize; ++i) {
+        h ^= (memory[i] & 0xff) * PRIME5;
+        h = Long.rotateLeft(h, 11) * PRIME1;
+      }
+
+      h ^= h >>> 33;
+      h *= PRIME2;
+      h ^= h >>> 29;
+      h *= PRIME3;
+      h ^= h >>> 32;
+      return toBytes(h, 8);
+    }
+
+    private void consumeStripe(byte[] data, int offset) {
+      v1 = round(v1, getLong(data, offset));
+      v2 = round(v2, getLong(data, offset + 8));
+      v3 = round(v3, getLong(data, offset + 16));
+      v4 = round(v4, getLong(data, offset + 24));
+    }
+
+    private static long round(long acc, long input) {
+      acc += input * PRIME2;
+      acc = Long.rotateLeft(acc, 31);
+      return acc * PRIME1;
+    }
+
+    private static long mergeRound(long acc, long value) {
+      acc ^= round(0, value);
+      return acc * PRIME1 + PRIME4;
+    }
+
+    private static long getLong(byte[] data, int offset) {
+      return (getInt(data, offset) & 0xffffffffL)
+        | ((long) getInt(data, offset + 4) << 32);
+    }
+
+    private static int getInt(byte[] data, int offset) {
+      return (data[offset] & 0xff)
+        | (data[offset + 1] & 0xff) << 8
+        | (data[offset + 2] & 0xff) << 16
+        | (data[offset + 3] & 0xff) << 24;
+    }
+  }
+}
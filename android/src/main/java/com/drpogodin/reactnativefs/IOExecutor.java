@@ -0,0 +1,248 @@
+package com.drpogodin.reactnativefs;
+
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs file system operations off the native modules thread.
+ *
+ * Operations bound to a path are routed into one of a fixed number of serial
+ * queues (stripes), selected by the path hash; thus operations on the same
+ * path are executed in the order they were submitted, while operations on
+ * different paths run concurrently on the shared thread pool. Operations
+ * bound to two paths (e.g. copying) hold the stripes of both paths.
+ */
+class IOExecutor {
+  static final int DEFAULT_POOL_SIZE =
+    Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+  private static final int NUM_STRIPES = 64;
+  private static final long KEEP_ALIVE_SECONDS = 30;
+
+  private final ThreadPoolExecutor pool;
+  private final Stripe[] stripes = new Stripe[NUM_STRIPES];
+
+  IOExecutor(String name) {
+    this(name, DEFAULT_POOL_SIZE);
+  }
+
+  IOExecutor(final String name, int poolSize) {
+    pool = new ThreadPoolExecutor(
+      poolSize,
+      poolSize,
+      KEEP_ALIVE_SECONDS,
+      TimeUnit.SECONDS,
+      new LinkedBlockingQueue<Runnable>(),
+      new ThreadFactory() {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }
+      }
+    );
+    pool.allowCoreThreadTimeOut(true);
+    for (int i = 0; i < NUM_STRIPES; ++i) stripes[i] = new Stripe(i);
+  }
+
+  /**
+   * Executes given task after all tasks previously submitted for the same
+   * path have completed.
+   * @param path
+   * @param task
+   */
+  void execute(String path, Runnable task) {
+    if (path == null) {
+      execute(task);
+      return;
+    }
+    getStripe(path).submit(new SafeRunnable(task));
+  }
+
+  /**
+   * Executes given task after all tasks previously submitted for any of
+   * the two paths have completed; tasks submitted later for either path
+   * wait for this one to complete.
+   * @param path
+   * @param otherPath
+   * @param task
+   */
+  void execute(String path, String otherPath, Runnable task) {
+    if (path == null || otherPath == null) {
+      execute(path == null ? otherPath : path, task);
+      return;
+    }
+    Stripe first = getStripe(path);
+    Stripe second = getStripe(otherPath);
+    if (first == second) {
+      first.submit(new SafeRunnable(task));
+      return;
+    }
+    if (first.index > second.index) {
+      Stripe tmp = first;
+      first = second;
+      second = tmp;
+    }
+
+    // Both stripes are locked, always in the order of their indices, while
+    // the task is queued into them; thus any two tasks sharing stripes are
+    // queued in the same order into all of them, and can't wait for each
+    // other in a cycle.
+    Joint joint = new Joint(task, first, second);
+    synchronized (first) {
+      synchronized (second) {
+        first.submit(joint);
+        second.submit(joint);
+      }
+    }
+  }
+
+  /**
+   * Executes given task without any ordering guarantees.
+   * @param task
+   */
+  void execute(Runnable task) {
+    pool.execute(new SafeRunnable(task));
+  }
+
+  private Stripe getStripe(String path) {
+    int hash = path.hashCode();
+    hash ^= (hash >>> 16);
+    return stripes[(hash & 0x7fffffff) % NUM_STRIPES];
+  }
+
+  int getPoolSize() {
+    return pool.getMaximumPoolSize();
+  }
+
+  /**
+   * Changes the number of worker threads. Queued tasks are not affected.
+   * @param poolSize
+   */
+  synchronized void setPoolSize(int poolSize) {
+    if (poolSize < 1) throw new IllegalArgumentException("Pool size must be positive");
+
+    // The order of updates matters, as the core size is not allowed
+    // to exceed the maximum size at any moment.
+    if (poolSize > pool.getMaximumPoolSize()) {
+      pool.setMaximumPoolSize(poolSize);
+      pool.setCorePoolSize(poolSize);
+    } else {
+      pool.setCorePoolSize(poolSize);
+      pool.setMaximumPoolSize(poolSize);
+    }
+  }
+
+  void shutdown() {
+    pool.shutdown();
+  }
+
+  private static class SafeRunnable implements Runnable {
+    private final Runnable task;
+
+    SafeRunnable(Runnable task) {
+      this.task = task;
+    }
+
+    @Override
+    public void run() {
+      try {
+        task.run();
+      } catch (Throwable e) {
+        // Tasks are expected to settle their promises on their own,
+        // thus anything caught here is a programming error.
+        Log.e(Errors.LOGTAG, "Uncaught exception in I/O task", e);
+      }
+    }
+  }
+
+  /**
+   * A task queued into two stripes, which runs once it reaches the heads
+   * of both queues, and holds both stripes until it completes.
+   */
+  private class Joint implements Runnable {
+    private final Runnable task;
+    private final Stripe first;
+    private final Stripe second;
+    private int pending = 2;
+
+    Joint(Runnable task, Stripe first, Stripe second) {
+      this.task = new SafeRunnable(task);
+      this.first = first;
+      this.second = second;
+    }
+
+    /**
+     * Called by each of the stripes when the joint reaches its head;
+     * the task is run by the last one of them.
+     */
+    @Override
+    public void run() {
+      synchronized (this) {
+        if (--pending > 0) return;
+      }
+      try {
+        task.run();
+      } finally {
+        first.release();
+        second.release();
+      }
+    }
+  }
+
+  /**
+   * A serial queue, which runs one task at a time on the shared pool.
+   */
+  private class Stripe implements Runnable {
+    final int index;
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    private boolean scheduled = false;
+
+    Stripe(int index) {
+      this.index = index;
+    }
+
+    synchronized void submit(Runnable task) {
+      tasks.add(task);
+      if (!scheduled) {
+        scheduled = true;
+        pool.execute(this);
+      }
+    }
+
+    @Override
+    public void run() {
+      Runnable task;
+      synchronized (this) {
+        task = tasks.poll();
+      }
+      if (task instanceof Joint) {
+        // The joint holds the stripe, and releases it once its task
+        // has completed.
+        task.run();
+        return;
+      }
+      try {
+        if (task != null) task.run();
+      } finally {
+        release();
+      }
+    }
+
+    synchronized void release() {
+      // Re-schedules itself instead of draining the queue in a loop,
+      // so that a busy path does not starve other stripes.
+      if (tasks.isEmpty()) scheduled = false;
+      else pool.execute(this);
+    }
+  }
+}
@@ -0,0 +1,176 @@
+package com.drpogodin.reactnativefs;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Persists the state of downloads, so that they can be resumed after
+ * the app process is killed.
+ *
+ * Each job is kept in its own small file, rewritten atomically (written into
+ * a temporary file, then renamed) on every checkpoint; thus, a job file is
+ * never seen partially written. A checkpoint records the number of bytes
+ * durably written to the destination, and the response validators (ETag,
+ * Last-Modified), which allow to resume the download with a range request
+ * only if the remote file has not changed meanwhile.
+ */
+class JobJournal {
+  static final String FOLDER_NAME = "rnfs-jobs";
+
+  private static final String JOB_SUFFIX = ".job";
+  private static final String TMP_SUFFIX = ".tmp";
+  private static final String HEADER_PREFIX = "header.";
+
+  static class Job {
+    final String id;
+    final String fromUrl;
+    final String toFile;
+    final Map<String, String> headers;
+    final long createdAt;
+
+    // These fields are updated by checkpoints.
+    long bytesWritten = 0;
+    long contentLength = -1;
+    String etag;
+    String lastModified;
+
+    Job(String id, String fromUrl, String toFile, Map<String, String> headers, long createdAt) {
+      this.id = id;
+      this.fromUrl = fromUrl;
+      this.toFile = toFile;
+      this.headers = headers;
+      this.createdAt = createdAt;
+    }
+
+    /**
+     * @return The validator to send in If-Range header when resuming the job,
+     *  or null if the response had none, and thus the job can't be resumed.
+     */
+    String getValidator() {
+      return etag != null ? etag : lastModified;
+    }
+  }
+
+  private final File root;
+
+  JobJournal(File filesDir) {
+    root = new File(filesDir, FOLDER_NAME);
+  }
+
+  /**
+   * Creates and persists a new job.
+   */
+  synchronized Job create(String fromUrl, String toFile, Map<String, String> headers) throws IOException {
+    Job job = new Job(UUID.randomUUID().toString(), fromUrl, toFile, headers, System.currentTimeMillis());
+    save(job);
+    return job;
+  }
+
+  /**
+   * @return The job with the given ID, or null if there is no such job.
+   */
+  synchronized Job get(String id) {
+    if (id.indexOf('/') >= 0) return null;
+    return read(new File(root, id + JOB_SUFFIX));
+  }
+
+  /**
+   * @return All persisted jobs, ordered by their creation time.
+   */
+  synchronized ArrayList<Job> list() {
+    ArrayList<Job> jobs = new ArrayList<>();
+    File[] files = root.listFiles();
+    if (files == null) return jobs;
+    for (File file : files) {
+      String name = file.getName();
+      if (name.endsWith(JOB_SUFFIX)) {
+        Job job = read(file);
+        if (job != null) jobs.add(job);
+      } else if (name.endsWith(TMP_SUFFIX)) {
+        // A leftover of a checkpoint interrupted by the app termination.
+        file.delete();
+      }
+    }
+    Collections.sort(jobs, (a, b) -> Long.compare(a.createdAt, b.createdAt));
+    return jobs;
+  }
+
+  /**
+   * Atomically replaces the persisted state of the job with the current one.
+   */
+  synchronized void save(Job job) throws IOException {
+    if (!root.isDirectory() && !root.mkdirs()) {
+      throw new IOException("Directory '" + root.getPath() + "' could not be created");
+    }
+
+    Properties props = new Properties();
+    props.setProperty("fromUrl", job.fromUrl);
+    props.setProperty("toFile", job.toFile);
+    props.setProperty("createdAt", Long.toString(job.createdAt));
+    props.setProperty("bytesWritten", Long.toString(job.bytesWritten));
+    props.setProperty("contentLength", Long.toString(job.contentLength));
+    if (job.etag != null) props.setProperty("etag", job.etag);
+    if (job.lastModified != null) props.setProperty("lastModified", job.lastModified);
+    for (Map.Entry<String, String> header : job.headers.entrySet()) {
+      props.setProperty(HEADER_PREFIX + header.getKey(), header.getValue());
+    }
+
+    File tmp = new File(root, job.id + TMP_SUFFIX);
+    try (FileOutputStream out = new FileOutputStream(tmp)) {
+      props.store(out, null);
+      out.getFD().sync();
+    }
+    if (!tmp.renameTo(new File(root, job.id + JOB_SUFFIX))) {
+      tmp.delete();
+      throw new IOException("Failed to save download job '" + job.id + "'");
+    }
+  }
+
+  synchronized void remove(String id) {
+    new File(root, id + JOB_SUFFIX).delete();
+  }
+
+  private Job read(File file) {
+    if (!file.isFile()) return null;
+    String name = file.getName();
+    Properties props = new Properties();
+    try (InputStream in = new FileInputStream(file)) {
+      props.load(in);
+
+      HashMap<String, String> headers = new HashMap<>();
+      for (String key : props.stringPropertyNames()) {
+        if (key.startsWith(HEADER_PREFIX)) {
+          headers.put(key.substring(HEADER_PREFIX.length()), props.getProperty(key));
+        }
+      }
+      Job job = new Job(
+        name.substring(0, name.length() - JOB_SUFFIX.length()),
+        props.getProperty("fromUrl"),
+        props.getProperty("toFile"),
+        headers,
+        Long.parseLong(props.getProperty("createdAt"))
+      );
+      job.bytesWritten = Long.parseLong(props.getProperty("bytesWritten"));
+      job.contentLength = Long.parseLong(props.getProperty("contentLength"));
+      job.etag = props.getProperty("etag");
+      job.lastModified = props.getProperty("lastModified");
+      if (job.fromUrl == null || job.toFile == null) throw new IllegalArgumentException("Missing job fields");
+      return job;
+    } catch (IOException | IllegalArgumentException e) {
+      Log.w(Errors.LOGTAG, "Dropping unreadable download job '" + file.getPath() + "'", e);
+      file.delete();
+      return null;
+    }
+  }
+}
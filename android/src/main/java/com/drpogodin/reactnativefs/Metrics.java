@@ -0,0 +1,257 @@
+package com.drpogodin.reactnativefs;
+
+import android.os.Build;
+import android.os.Trace;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-operation metrics: call and error counts, processed bytes, active
+ * calls, and latency histograms.
+ *
+ * The collection is disabled by default; then start() returns null, and
+ * the only cost of an instrumented call is a single volatile read. Latencies
+ * are recorded into log-linear histograms (four buckets per power of two
+ * microseconds), thus percentiles are estimated with an error below 25%,
+ * at a fixed memory cost, and without locks on the recording path.
+ *
+ * Optionally, instrumented calls are also wrapped into android.os.Trace
+ * sections named "RNFS.<operation>", to be seen in system traces.
+ */
+class Metrics {
+  private static final String TRACE_PREFIX = "RNFS.";
+
+  // Four sub-buckets per power of two, up to 2^32 us (more than an hour);
+  // longer calls go into the last bucket.
+  private static final int NUM_BUCKETS = 128;
+
+  private static volatile boolean enabled = false;
+  private static volatile boolean tracing = false;
+  private static volatile long since = System.currentTimeMillis();
+
+  private static final ConcurrentHashMap<String, Operation> operations = new ConcurrentHashMap<>();
+  private static final AtomicInteger lastTraceCookie = new AtomicInteger();
+
+  static class Operation {
+    final String name;
+    final AtomicLong calls = new AtomicLong();
+    final AtomicLong bytes = new AtomicLong();
+    final AtomicLong totalMicros = new AtomicLong();
+    final AtomicLong maxMicros = new AtomicLong();
+    final AtomicInteger active = new AtomicInteger();
+    final AtomicLongArray histogram = new AtomicLongArray(NUM_BUCKETS);
+    final ConcurrentHashMap<String, AtomicLong> errors = new ConcurrentHashMap<>();
+
+    Operation(String name) {
+      this.name = name;
+    }
+
+    void record(long micros, long numBytes, String errorCode) {
+      calls.incrementAndGet();
+      if (numBytes > 0) bytes.addAndGet(numBytes);
+      totalMicros.addAndGet(micros);
+      long max;
+      while (micros > (max = maxMicros.get()) && !maxMicros.compareAndSet(max, micros));
+      histogram.incrementAndGet(bucketOf(micros));
+      if (errorCode != null) {
+        AtomicLong counter = errors.get(errorCode);
+        if (counter == null) {
+          AtomicLong created = new AtomicLong();
+          counter = errors.putIfAbsent(errorCode, created);
+          if (counter == null) counter = created;
+        }
+        counter.incrementAndGet();
+      }
+    }
+
+    /**
+     * Resets all counters, but the active call count, as the calls
+     * in progress will still complete.
+     */
+    void reset() {
+      calls.set(0);
+      bytes.set(0);
+      totalMicros.set(0);
+      maxMicros.set(0);
+      for (int i = 0; i < NUM_BUCKETS; ++i) histogram.set(i, 0);
+      errors.clear();
+    }
+
+    /**
+     * @param fraction The percentile, e.g. 0.95 for p95.
+     * @return The estimated latency [us]; it is the upper bound of the bucket
+     *  holding the percentile, but not above the maximal latency seen.
+     */
+    long percentile(double fraction) {
+      long[] counts = new long[NUM_BUCKETS];
+      long total = 0;
+      for (int i = 0; i < NUM_BUCKETS; ++i) {
+        counts[i] = histogram.get(i);
+        total += counts[i];
+      }
+      if (total == 0) return 0;
+      long rank = (long) Math.ceil(fraction * total);
+      long seen = 0;
+      for (int i = 0; i < NUM_BUCKETS; ++i) {
+        seen += counts[i];
+        if (seen >= rank) return Math.min(upperBoundOf(i), maxMicros.get());
+      }
+      return maxMicros.get();
+    }
+  }
+
+  /**
+   * Measures a single call; it should be finished by exactly one done()
+   * or failed() call, further calls are ignored.
+   */
+  static class Timer {
+    private final Operation operation;
+    private final long startNanos;
+
+    // 0 for synchronous trace sections, which must be ended by the thread
+    // which started them; otherwise, the cookie of an async trace section.
+    private final int traceCookie;
+    private final boolean traced;
+    private boolean finished = false;
+
+    private Timer(Operation operation, boolean async) {
+      this.operation = operation;
+      boolean trace = tracing;
+      if (trace && async) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+          traceCookie = lastTraceCookie.incrementAndGet();
+          Trace.beginAsyncSection(TRACE_PREFIX + operation.name, traceCookie);
+        } else {
+          traceCookie = 0;
+          trace = false;
+        }
+      } else {
+        traceCookie = 0;
+        if (trace) Trace.beginSection(TRACE_PREFIX + operation.name);
+      }
+      traced = trace;
+      operation.active.incrementAndGet();
+      startNanos = System.nanoTime();
+    }
+
+    private synchronized void finish(long bytes, String errorCode) {
+      if (finished) return;
+      finished = true;
+      long micros = (System.nanoTime() - startNanos) / 1000;
+      operation.active.decrementAndGet();
+      operation.record(micros, bytes, errorCode);
+      if (traced) {
+        if (traceCookie != 0) {
+          Trace.endAsyncSection(TRACE_PREFIX + operation.name, traceCookie);
+        } else {
+          Trace.endSection();
+        }
+      }
+    }
+  }
+
+  static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * @param trace Also wrap instrumented calls into system trace sections.
+   */
+  static void setEnabled(boolean enable, boolean trace) {
+    tracing = enable && trace;
+    enabled = enable;
+  }
+
+  /**
+   * Starts measuring a call which completes on the thread it is started by.
+   * @return The timer, or null if metrics are disabled.
+   */
+  static Timer start(String operation) {
+    if (!enabled) return null;
+    return new Timer(getOperation(operation), false);
+  }
+
+  /**
+   * Starts measuring a call which may complete on another thread (e.g. a
+   * download); its trace section, if any, is an async one, supported by
+   * Android 10+ only.
+   * @return The timer, or null if metrics are disabled.
+   */
+  static Timer startAsync(String operation) {
+    if (!enabled) return null;
+    return new Timer(getOperation(operation), true);
+  }
+
+  /**
+   * Records a successful call.
+   * @param timer The timer from start(), may be null.
+   * @param bytes The number of bytes read, written, or transferred.
+   */
+  static void done(Timer timer, long bytes) {
+    if (timer != null) timer.finish(bytes, null);
+  }
+
+  /**
+   * Records a failed call, counting the error by its code.
+   * @param timer The timer from start(), may be null.
+   */
+  static void failed(Timer timer, Exception error) {
+    if (timer != null) timer.finish(0, getErrorCode(error));
+  }
+
+  static void reset() {
+    since = System.currentTimeMillis();
+    for (Operation operation : operations.values()) operation.reset();
+  }
+
+  static long getSince() {
+    return since;
+  }
+
+  static Iterable<Operation> getOperations() {
+    return operations.values();
+  }
+
+  /**
+   * @return The error code the error is rejected with to JS side,
+   *  or "EUNKNOWN" for errors without a code.
+   */
+  static String getErrorCode(Exception error) {
+    if (error instanceof IORejectionException) {
+      String code = ((IORejectionException) error).getCode();
+      return code != null ? code : "EUNKNOWN";
+    }
+    if (error instanceof FileNotFoundException) return "ENOENT";
+    if (error instanceof IOException && DiskSpace.isNoSpace((IOException) error)) return "ENOSPC";
+    return "EUNKNOWN";
+  }
+
+  private static Operation getOperation(String name) {
+    Operation operation = operations.get(name);
+    if (operation == null) {
+      Operation created = new Operation(name);
+      operation = operations.putIfAbsent(name, created);
+      if (operation == null) operation = created;
+    }
+    return operation;
+  }
+
+  private static int bucketOf(long micros) {
+    if (micros < 4) return (int) Math.max(0, micros);
+    int exp = 63 - Long.numberOfLeadingZeros(micros);
+    int sub = (int) (micros >>> (exp - 2)) & 3;
+    return Math.min(NUM_BUCKETS - 1, 4 * (exp - 1) + sub);
+  }
+
+  private static long upperBoundOf(int bucket) {
+    if (bucket < 4) return bucket;
+    int exp = bucket / 4 + 1;
+    int sub = bucket % 4;
+    return ((5L + sub) << (exp - 2)) - 1;
+  }
+}
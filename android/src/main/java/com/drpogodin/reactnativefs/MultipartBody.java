@@ -0,0 +1,145 @@
+package com.drpogodin.reactnativefs;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The request body of uploads: multipart/form-data with the form fields
+ * followed by the files, each in its own part; or, for binary stream only
+ * uploads, just the content of the files, back to back.
+ *
+ * File content is moved into the request with FileChannel.transferTo(),
+ * in chunks of 1% of each file, for the progress reporting.
+ */
+class MultipartBody {
+  interface OnProgress {
+    /**
+     * @param bytesSent The number of file bytes written so far.
+     */
+    void onProgress(long bytesSent);
+  }
+
+  static class Part {
+    final String name;
+    final String filename;
+    final String filetype;
+    final File file;
+
+    Part(String name, String filename, String filetype, File file) {
+      this.name = name;
+      this.filename = filename;
+      this.filetype = filetype;
+      this.file = file;
+    }
+  }
+
+  static final String BOUNDARY = "*****";
+
+  private static final String CRLF = "\r\n";
+  private static final String TWO_HYPHENS = "--";
+  private static final String TAIL = CRLF + TWO_HYPHENS + BOUNDARY + TWO_HYPHENS + CRLF;
+
+  private final List<Part> parts;
+  private final boolean binaryStreamOnly;
+  private final String metaData;
+  private final String[] partHeaders;
+  private final long filesLength;
+  private final long length;
+
+  /**
+   * @param fields Form fields, in the order to write them.
+   * @param parts Files to upload.
+   * @param binaryStreamOnly Write the file content only, without fields
+   *  and part headers.
+   */
+  MultipartBody(Map<String, String> fields, List<Part> parts, boolean binaryStreamOnly) {
+    this.parts = parts;
+    this.binaryStreamOnly = binaryStreamOnly;
+
+    StringBuilder meta = new StringBuilder();
+    for (Map.Entry<String, String> field : fields.entrySet()) {
+      meta.append(TWO_HYPHENS).append(BOUNDARY).append(CRLF)
+        .append("Content-Disposition: form-data; name=\"").append(field.getKey()).append("\"").append(CRLF)
+        .append(CRLF).append(field.getValue()).append(CRLF);
+    }
+    metaData = meta.toString();
+
+    long headersLength = metaData.length();
+    long total = 0;
+    partHeaders = new String[parts.size()];
+    for (int i = 0; i < parts.size(); ++i) {
+      Part part = parts.get(i);
+      long fileLength = part.file.length();
+      total += fileLength;
+      if (!binaryStreamOnly) {
+        partHeaders[i] = TWO_HYPHENS + BOUNDARY + CRLF +
+          "Content-Disposition: form-data; name=\"" + part.name + "\"; filename=\"" + part.filename + "\"" + CRLF +
+          "Content-Type: " + part.filetype + CRLF +
+          "Content-length: " + fileLength + CRLF + CRLF;
+        headersLength += partHeaders[i].length();
+
+        // The closing boundary is counted with the files.
+        if (i == parts.size() - 1) total += TAIL.length();
+      }
+    }
+    filesLength = total;
+    length = total + headersLength + parts.size() * CRLF.length();
+  }
+
+  /**
+   * @return The size of the whole body, for multipart bodies.
+   */
+  long getLength() {
+    return length;
+  }
+
+  /**
+   * @return The total the upload progress is reported against: the size of
+   *  the files, and for multipart bodies, of the closing boundary.
+   */
+  long getFilesLength() {
+    return filesLength;
+  }
+
+  /**
+   * Writes the body into the request. Does not close it.
+   * @param abort Checked between chunks, the writing is aborted once it is
+   *  set.
+   */
+  void writeTo(DataOutputStream request, AtomicBoolean abort, OnProgress onProgress) throws Exception {
+    WritableByteChannel requestChannel = Channels.newChannel(request);
+    if (!binaryStreamOnly) request.writeBytes(metaData);
+
+    long bytesSent = 0;
+    for (int i = 0; i < parts.size(); ++i) {
+      if (!binaryStreamOnly) request.writeBytes(partHeaders[i]);
+
+      File file = parts.get(i).file;
+      long fileLength = file.length();
+      long chunkSize = (long) Math.ceil(fileLength / 100.f);
+      long bytesRead = 0;
+
+      try (FileInputStream fileStream = new FileInputStream(file)) {
+        FileChannel fileChannel = fileStream.getChannel();
+        while (bytesRead < fileLength) {
+          if (abort.get()) throw new Exception("Upload has been aborted");
+          long transferredBytes = fileChannel.transferTo(bytesRead, chunkSize, requestChannel);
+          bytesRead += transferredBytes;
+          bytesSent += transferredBytes;
+          if (onProgress != null) onProgress.onProgress(bytesSent);
+        }
+      }
+
+      if (!binaryStreamOnly) request.writeBytes(CRLF);
+    }
+
+    if (!binaryStreamOnly) request.writeBytes(TAIL);
+  }
+}
@@ -5,16 +5,15 @@ package com.drpogodin.reactnativefs;
 //  Note: Recompile with -Xlint:deprecation for details.
 // It should be taken care of later.
 
-import android.content.res.AssetFileDescriptor;
+import android.content.ContentValues;
 import android.content.res.AssetManager;
-import android.database.Cursor;
 import android.media.MediaScannerConnection;
 import android.net.Uri;
-import android.os.AsyncTask;
 import android.os.Environment;
 import android.os.StatFs;
 import android.provider.MediaStore;
 import android.util.Base64;
+import android.util.Log;
 import android.util.SparseArray;
 
 import androidx.activity.result.ActivityResultCallback;
@@ -30,36 +29,68 @@ import com.facebook.react.bridge.ReactContext;
 import com.facebook.react.bridge.ReactMethod;
 import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableMapKeySetIterator;
+import com.facebook.react.bridge.UiThreadUtil;
 import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.ReactActivity;
 
 import com.facebook.react.modules.core.DeviceEventManagerModule.RCTDeviceEventEmitter;
 
-import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
 import java.net.URI;
 import java.net.URL;
-import java.security.MessageDigest;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
 
 import com.drpogodin.reactnativefs.Errors;
 
 public class ReactNativeFsModule extends ReactNativeFsSpec {
   public static final String NAME = "ReactNativeFs";
 
-  private SparseArray<Downloader> downloaders = new SparseArray<>();
-  private SparseArray<Uploader> uploaders = new SparseArray<>();
+  // Downloads and uploads, from their start until completion.
+  private final TransferRegistry transfers = new TransferRegistry(UiThreadUtil::runOnUiThread);
+
+  private final SparseArray<FileCopier> copiers = new SparseArray<>();
+  private final SparseArray<DirectoryWalker> walkers = new SparseArray<>();
+  private final AtomicInteger lastWalkCursorId = new AtomicInteger();
+  private final SparseArray<FileWatcher> watchers = new SparseArray<>();
+  private final SparseArray<Appender> appenders = new SparseArray<>();
+  private final AtomicInteger lastAppenderId = new AtomicInteger();
+
+  // Runs synchronous file system operations off the native modules thread,
+  // keeping operations on the same path ordered. Copying operations hold
+  // both their source and destination paths.
+  private final IOExecutor ioExecutor = new IOExecutor("RNFS-IO");
+
+  // Removes items in background for unlink() with "background" option.
+  private final Trash trash;
+
+  // Metadata of content:// URIs, for stat() and statMany().
+  private final ContentMetadataCache contentMetadata;
+
+  // Disk cache for cache*() methods, and downloads targeting cache keys.
+  private final DiskCache diskCache;
+
+  // Persisted downloads, and IDs of those running in this session.
+  private final JobJournal jobJournal;
+  private final HashSet<String> runningJournaledJobs = new HashSet<>();
+
+  // Built on the first use by getAssetIndex().
+  private volatile AssetIndex assetIndex;
 
   private ArrayDeque<Promise> pendingPickFilePromises = new ArrayDeque<Promise>();
   private ActivityResultLauncher<String[]> pickFileLauncher;
@@ -78,6 +109,21 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
 
   ReactNativeFsModule(ReactApplicationContext context) {
     super(context);
+
+    File externalDirectory = context.getExternalFilesDir(null);
+    trash = new Trash(
+      context.getFilesDir().getParentFile(),
+      externalDirectory == null ? null : externalDirectory.getParentFile()
+    );
+    trash.sweep();
+
+    contentMetadata = new ContentMetadataCache(
+      context.getContentResolver(),
+      ContentMetadataCache.DEFAULT_CAPACITY
+    );
+
+    diskCache = new DiskCache(context.getCacheDir(), DiskCache.DEFAULT_MAX_BYTES, 0);
+    jobJournal = new JobJournal(context.getFilesDir());
   }
 
   private ActivityResultLauncher<String[]> getPickFileLauncher() {
@@ -100,6 +146,26 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
     return pickFileLauncher;
   }
 
+  @Override
+  public void invalidate() {
+    ioExecutor.shutdown();
+    trash.shutdown();
+    diskCache.shutdown();
+    synchronized (walkers) {
+      for (int i = 0; i < walkers.size(); ++i) walkers.valueAt(i).close();
+      walkers.clear();
+    }
+    synchronized (watchers) {
+      for (int i = 0; i < watchers.size(); ++i) watchers.valueAt(i).stop();
+      watchers.clear();
+    }
+    synchronized (appenders) {
+      for (int i = 0; i < appenders.size(); ++i) appenders.valueAt(i).close(error -> {});
+      appenders.clear();
+    }
+    super.invalidate();
+  }
+
   @Override
   protected void finalize() throws Throwable {
     if (pickFileLauncher != null) pickFileLauncher.unregister();
@@ -154,16 +220,162 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
   }
 
   @ReactMethod
-  public void appendFile(String filepath, String base64Content, Promise promise) {
-    try (OutputStream outputStream = getOutputStream(filepath, true)) {
+  public void append(double appenderId, String base64Content, Promise promise) {
+    Appender appender;
+    synchronized (appenders) {
+      appender = appenders.get((int)appenderId);
+    }
+    if (appender == null) {
+      reject(promise, null, new IORejectionException("EBADF", "EBADF: no open appender with ID " + (int)appenderId));
+      return;
+    }
+    try {
       byte[] bytes = Base64.decode(base64Content, Base64.DEFAULT);
-      outputStream.write(bytes);
-
-      promise.resolve(null);
+      appender.append(bytes, error -> {
+        if (error == null) promise.resolve(null);
+        else reject(promise, null, error);
+      });
     } catch (Exception ex) {
       ex.printStackTrace();
-      reject(promise, filepath, ex);
+      reject(promise, null, ex);
+    }
+  }
+
+  @ReactMethod
+  public void appendFile(String filepath, String base64Content, Promise promise) {
+    ioExecutor.execute(filepath, () -> {
+      Metrics.Timer timer = Metrics.start("appendFile");
+      try (OutputStream outputStream = getOutputStream(filepath, true)) {
+        byte[] bytes = Base64.decode(base64Content, Base64.DEFAULT);
+        outputStream.write(bytes);
+
+        Metrics.done(timer, bytes.length);
+        promise.resolve(null);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        Metrics.failed(timer, ex);
+        reject(promise, filepath, ex);
+      }
+    });
+  }
+
+  @ReactMethod
+  public void cacheClear(Promise promise) {
+    ioExecutor.execute("cache", () -> {
+      try {
+        diskCache.clear();
+        promise.resolve(null);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        reject(promise, null, ex);
+      }
+    });
+  }
+
+  @ReactMethod
+  public void cacheConfigure(ReadableMap options, Promise promise) {
+    ioExecutor.execute("cache", () -> {
+      try {
+        diskCache.configure(
+          options.hasKey("maxBytes") ? (long) options.getDouble("maxBytes") : diskCache.getMaxBytes(),
+          options.hasKey("maxEntries") ? options.getInt("maxEntries") : diskCache.getMaxEntries()
+        );
+        promise.resolve(null);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        reject(promise, null, ex);
+      }
+    });
+  }
+
+  @ReactMethod
+  public void cacheGet(String key, Promise promise) {
+    ioExecutor.execute("cache:" + key, () -> {
+      try {
+        File file = diskCache.get(key);
+        promise.resolve(file == null ? null : file.getAbsolutePath());
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        reject(promise, null, ex);
+      }
+    });
+  }
+
+  @ReactMethod
+  public void cachePut(String key, String filepath, ReadableMap options, Promise promise) {
+    ioExecutor.execute("cache:" + key, () -> {
+      File temp = null;
+      try {
+        boolean move = options.hasKey("move") && options.getBoolean("move");
+        File source = getLocalFile(filepath);
+        temp = diskCache.createTempFile();
+        FileCopier copier = new FileCopier(null, 0);
+        if (source != null) {
+          if (!move || !source.renameTo(temp)) {
+            copier.copy(source, temp);
+            if (move) source.delete();
+          }
+        } else {
+          try (
+            InputStream in = getInputStream(filepath);
+            OutputStream out = new FileOutputStream(temp)
+          ) {
+            copier.copy(in, out, -1);
+          }
+        }
+        promise.resolve(diskCache.commit(key, temp).getAbsolutePath());
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        if (temp != null) temp.delete();
+        reject(promise, filepath, ex);
+      }
+    });
+  }
+
+  @ReactMethod
+  public void cacheRemove(String key, Promise promise) {
+    ioExecutor.execute("cache:" + key, () -> {
+      try {
+        promise.resolve(diskCache.remove(key));
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        reject(promise, null, ex);
+      }
+    });
+  }
+
+  @ReactMethod
+  public void cacheStats(Promise promise) {
+    ioExecutor.execute("cache", () -> {
+      try {
+        WritableMap stats = Arguments.createMap();
+        stats.putDouble("bytes", (double) diskCache.getTotalBytes());
+        stats.putInt("entries", diskCache.getEntryCount());
+        stats.putDouble("maxBytes", (double) diskCache.getMaxBytes());
+        stats.putInt("maxEntries", diskCache.getMaxEntries());
+        promise.resolve(stats);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        reject(promise, null, ex);
+      }
+    });
+  }
+
+  @ReactMethod
+  public void closeAppender(double appenderId, Promise promise) {
+    Appender appender;
+    synchronized (appenders) {
+      appender = appenders.get((int)appenderId);
+      appenders.remove((int)appenderId);
+    }
+    if (appender == null) {
+      promise.resolve(null);
+      return;
     }
+    appender.close(error -> {
+      if (error == null) promise.resolve(null);
+      else reject(promise, null, error);
+    });
   }
 
   @ReactMethod
@@ -193,52 +405,137 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
 
   @ReactMethod
   public void copyFile(final String filepath, final String destPath, ReadableMap options, final Promise promise) {
-    new CopyFileTask() {
-      @Override
-      protected void onPostExecute (Exception ex) {
-        if (ex == null) {
-          promise.resolve(null);
-        } else {
-          ex.printStackTrace();
-          reject(promise, filepath, ex);
-        }
+    final int jobId = getJobId(options);
+    final FileCopier copier = createFileCopier(jobId, options);
+    ioExecutor.execute(filepath, destPath, () -> {
+      Metrics.Timer timer = Metrics.start("copyFile");
+      try {
+        Metrics.done(timer, copyFileInternal(filepath, destPath, copier));
+        promise.resolve(null);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        Metrics.failed(timer, ex);
+        reject(promise, filepath, ex);
+      } finally {
+        removeFileCopier(jobId);
+      }
+    });
+  }
+
+  @ReactMethod
+  public void copyAssetsFolder(final String assetDir, final String destDir, ReadableMap options, final Promise promise) {
+    final int jobId = getJobId(options);
+    final FileCopier copier = new FileCopier(null, 0);
+    registerFileCopier(jobId, copier);
+    final FolderCopier.OnProgress onProgress = createFolderProgressListener(jobId, options);
+    final int progressInterval = getProgressInterval(options);
+
+    ioExecutor.execute(destDir, () -> {
+      try {
+        AssetsCopier assetsCopier = new AssetsCopier(
+          getReactApplicationContext().getAssets(),
+          getAssetIndex(),
+          copier,
+          onProgress,
+          progressInterval
+        );
+        promise.resolve(folderCopyResultToMap(assetsCopier.copyFolder(assetDir, new File(destDir))));
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        reject(promise, assetDir, ex);
+      } finally {
+        removeFileCopier(jobId);
       }
-    }.execute(filepath, destPath);
+    });
   }
 
   @ReactMethod
   public void copyFileAssets(String assetPath, String destination, Promise promise) {
-    AssetManager assetManager = getReactApplicationContext().getAssets();
-    try {
-      InputStream in = assetManager.open(assetPath);
-      copyInputStream(in, assetPath, destination, promise);
-    } catch (IOException e) {
-      // Default error message is just asset name, so make a more helpful error here.
-      reject(promise, assetPath, new Exception(String.format("Asset '%s' could not be opened", assetPath)));
-    }
+    ioExecutor.execute(destination, () -> {
+      AssetManager assetManager = getReactApplicationContext().getAssets();
+      try {
+        File file = getLocalFile(destination);
+        if (file != null) {
+          new AssetsCopier(assetManager, getAssetIndex(), new FileCopier(null, 0), null, 0).copyFile(assetPath, file);
+          promise.resolve(null);
+          return;
+        }
+      } catch (Exception ex) {
+        reject(promise, assetPath, new Exception(String.format("Failed to copy '%s' to %s (%s)", assetPath, destination, ex.getLocalizedMessage())));
+        return;
+      }
+      try {
+        InputStream in = assetManager.open(assetPath);
+        copyInputStream(in, assetPath, destination, promise);
+      } catch (IOException e) {
+        // Default error message is just asset name, so make a more helpful error here.
+        reject(promise, assetPath, new Exception(String.format("Asset '%s' could not be opened", assetPath)));
+      }
+    });
   }
 
   @ReactMethod
   public void copyFileRes(String filename, String destination, Promise promise) {
-    try {
-      int res = getResIdentifier(filename);
-      InputStream in = getReactApplicationContext().getResources().openRawResource(res);
-      copyInputStream(in, filename, destination, promise);
-    } catch (Exception e) {
-      reject(promise, filename, new Exception(String.format("Res '%s' could not be opened", filename)));
-    }
+    ioExecutor.execute(destination, () -> {
+      try {
+        int res = getResIdentifier(filename);
+        InputStream in = getReactApplicationContext().getResources().openRawResource(res);
+        copyInputStream(in, filename, destination, promise);
+      } catch (Exception e) {
+        reject(promise, filename, new Exception(String.format("Res '%s' could not be opened", filename)));
+      }
+    });
   }
 
-  // TODO: As of now it is meant to be Windows-only.
   @ReactMethod
-  public void copyFolder(String from, String to, Promise promise) {
-    Errors.NOT_IMPLEMENTED.reject(promise, "copyFolder()");
+  public void copyFolder(final String from, final String to, ReadableMap options, final Promise promise) {
+    final int jobId = getJobId(options);
+    final FileCopier copier = new FileCopier(null, 0);
+    registerFileCopier(jobId, copier);
+    final FolderCopier folderCopier = new FolderCopier(
+      copier,
+      createFolderProgressListener(jobId, options),
+      getProgressInterval(options)
+    );
+
+    ioExecutor.execute(from, to, () -> {
+      Metrics.Timer timer = Metrics.start("copyFolder");
+      try {
+        FolderCopier.Result res = folderCopier.copy(new File(from), new File(to));
+        Metrics.done(timer, res.bytes);
+        promise.resolve(folderCopyResultToMap(res));
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        Metrics.failed(timer, ex);
+        reject(promise, from, ex);
+      } finally {
+        removeFileCopier(jobId);
+      }
+    });
   }
 
   @ReactMethod
   public void downloadFile(final ReadableMap options, final Promise promise) {
+    // Side effects of the download setup, to be undone if it fails.
+    File tempFile = null;
+    Uri createdItem = null;
+    Uri pendingUri = null;
+    JobJournal.Job openedJob = null;
+    boolean submitted = false;
     try {
-      File file = new File(options.getString("toFile"));
+      // Downloads targeting a cache key are written into a temporary file,
+      // which is committed into the cache once the download succeeds.
+      final String cacheKey = options.hasKey("cacheKey") ? options.getString("cacheKey") : null;
+
+      // Downloads into content URIs (e.g. MediaStore entries created for
+      // the "mediaStore" option) are written through their file descriptors,
+      // and MediaStore entries are kept pending until the download is over.
+      final ReadableMap mediaStore = options.hasKey("mediaStore") ? options.getMap("mediaStore") : null;
+      boolean journaled = options.hasKey("restoreId") || (options.hasKey("persist") && options.getBoolean("persist"));
+      if (journaled && (cacheKey != null || mediaStore != null)) throw notJournalable();
+
+      // All options are parsed and validated before the destination
+      // is created, or marked pending.
       URL url = new URL(options.getString("fromUrl"));
       final int jobId = options.getInt("jobId");
       ReadableMap headers = options.getMap("headers");
@@ -250,9 +547,50 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
       boolean hasProgressCallback = options.getBoolean("hasProgressCallback");
 
       DownloadParams params = new DownloadParams();
+      final Downloader downloader = new Downloader();
+      setRetryPolicy(options, params);
+
+      final File file;
+      final Uri uri;
+      if (cacheKey != null || mediaStore != null) {
+        file = null;
+        uri = null;
+      } else {
+        file = getLocalFile(options.getString("toFile"));
+        uri = file == null ? Uri.parse(options.getString("toFile")) : null;
+      }
+
+      // Persisted downloads are journaled, so that they can be resumed
+      // by restoreJobs() after the app restart.
+      final JobJournal.Job job = openJournaledJob(options, file, params);
+      openedJob = job;
+
+      final File dest;
+      final Uri destUri;
+      if (cacheKey != null) {
+        dest = tempFile = diskCache.createTempFile();
+        destUri = null;
+      } else if (mediaStore != null) {
+        dest = null;
+        destUri = createdItem = insertPendingMediaItem(mediaStore);
+      } else {
+        dest = file;
+        destUri = uri;
+        if (uri != null) {
+          setMediaItemPending(uri, true);
+          pendingUri = uri;
+        }
+      }
+      final Metrics.Timer timer = Metrics.startAsync("downloadFile");
 
       params.src = url;
-      params.dest = file;
+      params.dest = dest;
+      if (destUri != null) {
+        contentMetadata.invalidate(destUri);
+        params.destUri = destUri;
+        params.destMode = getWriteAccessByAPILevel();
+        params.resolver = getReactApplicationContext().getContentResolver();
+      }
       params.headers = headers;
       params.progressInterval = progressInterval;
       params.progressDivider = progressDivider;
@@ -261,7 +599,41 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
 
       params.onTaskCompleted = new DownloadParams.OnTaskCompleted() {
         public void onTaskCompleted(DownloadResult res) {
+          transfers.complete(jobId);
+          if (job != null) {
+            synchronized (runningJournaledJobs) {
+              runningJournaledJobs.remove(job.id);
+            }
+            // Jobs failed by network or I/O errors are kept, to be resumed
+            // later; completed, and stopped jobs are dropped.
+            if (res.exception == null || downloader.isAborted()) jobJournal.remove(job.id);
+          }
+
+          String cachedPath = null;
+          if (cacheKey != null) {
+            if (res.exception == null && res.statusCode >= 200 && res.statusCode < 300) {
+              try {
+                cachedPath = diskCache.commit(cacheKey, dest).getAbsolutePath();
+              } catch (IOException e) {
+                res.exception = e;
+              }
+            } else {
+              dest.delete();
+            }
+          }
+          if (destUri != null) {
+            // Entries created for the "mediaStore" option are removed if
+            // the download fails; the content URIs given by the caller
+            // are left in place.
+            if (mediaStore != null && (res.exception != null || res.statusCode < 200 || res.statusCode >= 300)) {
+              deleteMediaItem(destUri);
+            } else {
+              setMediaItemPending(destUri, false);
+            }
+          }
+
           if (res.exception == null) {
+            Metrics.done(timer, res.bytesWritten);
             WritableMap infoMap = Arguments.createMap();
 
             infoMap.putInt("jobId", jobId);
@@ -275,10 +647,13 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
               }
               infoMap.putMap("headers", headersMap);
             }
+            if (cachedPath != null) infoMap.putString("path", cachedPath);
+            else if (mediaStore != null) infoMap.putString("path", destUri.toString());
 
             promise.resolve(infoMap);
           } else {
-            reject(promise, options.getString("toFile"), res.exception);
+            Metrics.failed(timer, res.exception);
+            reject(promise, cacheKey != null ? cacheKey : options.getString("toFile"), res.exception);
           }
         }
       };
@@ -318,53 +693,65 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
         };
       }
 
-      Downloader downloader = new Downloader();
-
-      downloader.execute(params);
-
-      this.downloaders.put(jobId, downloader);
+      submitted = true;
+      transfers.submit(jobId, TransferRegistry.DOWNLOAD, url.toString(), downloader, () -> downloader.execute(params));
     } catch (Exception ex) {
       ex.printStackTrace();
+      if (!submitted) {
+        if (tempFile != null) tempFile.delete();
+        if (createdItem != null) deleteMediaItem(createdItem);
+        if (pendingUri != null) setMediaItemPending(pendingUri, false);
+        if (openedJob != null) releaseJournaledJob(openedJob, !options.hasKey("restoreId"));
+      }
       reject(promise, options.getString("toFile"), ex);
     }
   }
 
   @ReactMethod
-  public void exists(String filepath, Promise promise) {
-    try {
-      File file = new File(filepath);
-      promise.resolve(file.exists());
-    } catch (Exception ex) {
-      ex.printStackTrace();
-      reject(promise, filepath, ex);
-    }
+  public void du(final String path, ReadableMap options, final Promise promise) {
+    ioExecutor.execute(path, () -> {
+      try {
+        boolean followSymlinks = options.hasKey("followSymlinks") && options.getBoolean("followSymlinks");
+        int maxDepth = options.hasKey("maxDepth") ? options.getInt("maxDepth") : 1;
+        DiskUsage.Node usage = new DiskUsage(followSymlinks, maxDepth).measure(new File(path));
+
+        WritableMap result = diskUsageToMap(usage);
+        if (options.hasKey("fsInfo") && options.getBoolean("fsInfo")) {
+          StatFs stat = new StatFs(path);
+          result.putDouble("totalSpace", (double) stat.getTotalBytes());
+          result.putDouble("freeSpace", (double) stat.getFreeBytes());
+        }
+        promise.resolve(result);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        reject(promise, path, ex);
+      }
+    });
   }
 
   @ReactMethod
-  public void existsAssets(String filepath, Promise promise) {
-    try {
-      AssetManager assetManager = getReactApplicationContext().getAssets();
-
+  public void exists(String filepath, Promise promise) {
+    ioExecutor.execute(filepath, () -> {
       try {
-        String[] list = assetManager.list(filepath);
-        if (list != null && list.length > 0) {
-          promise.resolve(true);
-          return;
-        }
-      } catch (Exception ignored) {
-        //.. probably not a directory then
+        File file = new File(filepath);
+        promise.resolve(file.exists());
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        reject(promise, filepath, ex);
       }
+    });
+  }
 
-      // Attempt to open file (win = exists)
-      try (InputStream fileStream = assetManager.open(filepath)) {
-        promise.resolve(true);
+  @ReactMethod
+  public void existsAssets(String filepath, Promise promise) {
+    ioExecutor.execute(() -> {
+      try {
+        promise.resolve(getAssetIndex().get(filepath) != null);
       } catch (Exception ex) {
-        promise.resolve(false); // don't throw an error, resolve false
+        ex.printStackTrace();
+        reject(promise, filepath, ex);
       }
-    } catch (Exception ex) {
-      ex.printStackTrace();
-      reject(promise, filepath, ex);
-    }
+    });
   }
 
   @ReactMethod
@@ -382,6 +769,48 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
     }
   }
 
+  @ReactMethod
+  public void getActiveJobs(Promise promise) {
+    long now = System.currentTimeMillis();
+    WritableArray jobs = Arguments.createArray();
+    for (TransferRegistry.Job job : transfers.list()) {
+      long startedAt = job.startedAt;
+      WritableMap map = Arguments.createMap();
+      map.putInt("jobId", job.id);
+      map.putString("type", job.type);
+      map.putString("url", job.url);
+      map.putString("state", job.getState());
+      map.putDouble("bytesTransferred", (double) job.transfer.getBytesTransferred());
+      map.putDouble("totalBytes", (double) job.transfer.getTotalBytes());
+      map.putDouble("speed", job.getSpeed(now));
+      map.putDouble("queuedAt", (double) job.queuedAt);
+      if (startedAt != 0) map.putDouble("startedAt", (double) startedAt);
+      jobs.pushMap(map);
+    }
+    promise.resolve(jobs);
+  }
+
+  @ReactMethod
+  public void getAssetManifest(Promise promise) {
+    ioExecutor.execute(() -> {
+      try {
+        WritableArray entries = Arguments.createArray();
+        for (AssetIndex.Entry entry : getAssetIndex().list()) {
+          WritableMap map = Arguments.createMap();
+          map.putString("path", entry.path);
+          map.putDouble("size", (double) entry.size);
+          map.putBoolean("compressed", entry.compressed);
+          map.putInt("type", entry.isDirectory() ? 1 : 0);
+          entries.pushMap(map);
+        }
+        promise.resolve(entries);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        reject(promise, null, ex);
+      }
+    });
+  }
+
   @ReactMethod
   public void getAllExternalFilesDirs(Promise promise){
     File[] allExternalFilesDirs = this.getReactApplicationContext().getExternalFilesDirs(null);
@@ -422,55 +851,189 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
   }
 
   @ReactMethod
-  public void hash(String filepath, String algorithm, Promise promise) {
-    FileInputStream inputStream = null;
-    try {
-      Map<String, String> algorithms = new HashMap<>();
-
-      algorithms.put("md5", "MD5");
-      algorithms.put("sha1", "SHA-1");
-      algorithms.put("sha224", "SHA-224");
-      algorithms.put("sha256", "SHA-256");
-      algorithms.put("sha384", "SHA-384");
-      algorithms.put("sha512", "SHA-512");
+  public void getMetrics(Promise promise) {
+    long now = System.currentTimeMillis();
+    WritableMap operations = Arguments.createMap();
+    for (Metrics.Operation op : Metrics.getOperations()) {
+      long calls = op.calls.get();
+      long bytes = op.bytes.get();
+      long totalMicros = op.totalMicros.get();
+      int active = op.active.get();
+      if (calls == 0 && active == 0) continue;
+
+      WritableMap errors = Arguments.createMap();
+      long numErrors = 0;
+      for (Map.Entry<String, AtomicLong> entry : op.errors.entrySet()) {
+        long count = entry.getValue().get();
+        errors.putDouble(entry.getKey(), (double) count);
+        numErrors += count;
+      }
 
-      if (!algorithms.containsKey(algorithm)) throw new Exception("Invalid hash algorithm");
+      WritableMap map = Arguments.createMap();
+      map.putDouble("calls", (double) calls);
+      map.putDouble("errors", (double) numErrors);
+      map.putMap("errorsByCode", errors);
+      map.putDouble("bytes", (double) bytes);
+      map.putInt("active", active);
+      map.putDouble("totalMs", totalMicros / 1000.0);
+      map.putDouble("p50Ms", op.percentile(0.5) / 1000.0);
+      map.putDouble("p95Ms", op.percentile(0.95) / 1000.0);
+      map.putDouble("p99Ms", op.percentile(0.99) / 1000.0);
+      map.putDouble("maxMs", op.maxMicros.get() / 1000.0);
+
+      // Bytes per second of the time spent in the calls.
+      map.putDouble("throughput", totalMicros > 0 ? bytes * 1e6 / totalMicros : 0);
+      operations.putMap(op.name, map);
+    }
 
-      File file = new File(filepath);
+    WritableMap result = Arguments.createMap();
+    result.putBoolean("enabled", Metrics.isEnabled());
+    result.putDouble("since", (double) Metrics.getSince());
+    result.putDouble("durationMs", (double) (now - Metrics.getSince()));
+    result.putMap("operations", operations);
+    promise.resolve(result);
+  }
 
-      if (file.isDirectory()) {
-        rejectFileIsDirectory(promise);
-        return;
+  @ReactMethod
+  public void getPendingJobs(Promise promise) {
+    ioExecutor.execute(() -> {
+      try {
+        WritableArray jobs = Arguments.createArray();
+        for (JobJournal.Job job : jobJournal.list()) {
+          synchronized (runningJournaledJobs) {
+            if (runningJournaledJobs.contains(job.id)) continue;
+          }
+          WritableMap headers = Arguments.createMap();
+          for (Map.Entry<String, String> header : job.headers.entrySet()) {
+            headers.putString(header.getKey(), header.getValue());
+          }
+          WritableMap map = Arguments.createMap();
+          map.putString("id", job.id);
+          map.putString("fromUrl", job.fromUrl);
+          map.putString("toFile", job.toFile);
+          map.putMap("headers", headers);
+          map.putDouble("bytesWritten", (double) job.bytesWritten);
+          map.putDouble("contentLength", (double) job.contentLength);
+          map.putDouble("createdAt", (double) job.createdAt);
+          jobs.pushMap(map);
+        }
+        promise.resolve(jobs);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        reject(promise, null, ex);
       }
+    });
+  }
 
-      if (!file.exists()) {
-        rejectFileNotFound(promise, filepath);
-        return;
+  @ReactMethod
+  public void hash(String filepath, String algorithm, Promise promise) {
+    ioExecutor.execute(filepath, () -> {
+      Metrics.Timer timer = Metrics.start("hash");
+      try {
+        Hasher hasher = new Hasher(algorithm);
+        long bytes;
+        try (InputStream in = getInputStream(filepath)) {
+          bytes = hasher.update(in, 0, -1);
+        }
+        Metrics.done(timer, bytes);
+        promise.resolve(hasher.digest().get(algorithm));
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        Metrics.failed(timer, ex);
+        reject(promise, filepath, ex);
       }
+    });
+  }
 
-      MessageDigest md = MessageDigest.getInstance(algorithms.get(algorithm));
+  @ReactMethod
+  public void hashMany(ReadableArray pathsArray, String algorithm, ReadableMap options, Promise promise) {
+    final Metrics.Timer timer = Metrics.startAsync("hashMany");
+    try {
+      String[] paths = new String[pathsArray.size()];
+      for (int i = 0; i < paths.length; ++i) paths[i] = pathsArray.getString(i);
+
+      final int jobId = getJobId(options);
+      int concurrency = options.hasKey("concurrency")
+        ? options.getInt("concurrency") : BulkHasher.DEFAULT_CONCURRENCY;
+      int progressInterval = -1;
+      if (jobId >= 0 && options.hasKey("hasProgressCallback") && options.getBoolean("hasProgressCallback")) {
+        progressInterval = options.hasKey("progressInterval") ? options.getInt("progressInterval") : 0;
+      }
 
-      inputStream = new FileInputStream(filepath);
-      byte[] buffer = new byte[1024 * 10]; // 10 KB Buffer
+      BulkHasher hasher = new BulkHasher(paths, algorithm, this::getInputStream, new BulkHasher.Listener() {
+        @Override
+        public void onBatch(Map<String, String> batch, int hashed, int total) {
+          WritableMap digests = Arguments.createMap();
+          for (Map.Entry<String, String> entry : batch.entrySet()) {
+            digests.putString(entry.getKey(), entry.getValue());
+          }
 
-      int read;
-      while ((read = inputStream.read(buffer)) != -1) {
-        md.update(buffer, 0, read);
-      }
+          WritableMap data = Arguments.createMap();
+          data.putInt("jobId", jobId);
+          data.putMap("digests", digests);
+          data.putInt("hashed", hashed);
+          data.putInt("total", total);
+          sendEvent(getReactApplicationContext(), "HashManyProgress", data);
+        }
 
-      StringBuilder hexString = new StringBuilder();
-      for (byte digestByte : md.digest())
-        hexString.append(String.format("%02x", digestByte));
+        @Override
+        public void onDone(Map<String, String> digests, long bytes) {
+          Metrics.done(timer, bytes);
+          WritableMap result = Arguments.createMap();
+          for (Map.Entry<String, String> entry : digests.entrySet()) {
+            result.putString(entry.getKey(), entry.getValue());
+          }
+          promise.resolve(result);
+        }
 
-      promise.resolve(hexString.toString());
+        @Override
+        public void onError(String path, Exception error) {
+          error.printStackTrace();
+          Metrics.failed(timer, error);
+          reject(promise, path, error);
+        }
+      }, progressInterval);
+      hasher.start(concurrency);
     } catch (Exception ex) {
       ex.printStackTrace();
-      reject(promise, filepath, ex);
-    } finally {
-      closeIgnoringException(inputStream);
+      Metrics.failed(timer, ex);
+      reject(promise, null, ex);
     }
   }
 
+  @ReactMethod
+  public void hashWithOptions(String filepath, ReadableMap options, Promise promise) {
+    ioExecutor.execute(filepath, () -> {
+      Metrics.Timer timer = Metrics.start("hashWithOptions");
+      try {
+        ReadableArray algorithmsArray = options.getArray("algorithms");
+        String[] algorithms = new String[algorithmsArray == null ? 0 : algorithmsArray.size()];
+        for (int i = 0; i < algorithms.length; ++i) {
+          algorithms[i] = algorithmsArray.getString(i);
+        }
+        long offset = options.hasKey("offset") ? (long) options.getDouble("offset") : 0;
+        long length = options.hasKey("length") ? (long) options.getDouble("length") : -1;
+
+        Hasher hasher = new Hasher(algorithms);
+        long bytes;
+        try (InputStream in = getInputStream(filepath)) {
+          bytes = hasher.update(in, offset, length);
+        }
+
+        WritableMap result = Arguments.createMap();
+        for (Map.Entry<String, String> entry : hasher.digest().entrySet()) {
+          result.putString(entry.getKey(), entry.getValue());
+        }
+        Metrics.done(timer, bytes);
+        promise.resolve(result);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        Metrics.failed(timer, ex);
+        reject(promise, filepath, ex);
+      }
+    });
+  }
+
   @ReactMethod
   public void isResumable(double jobId, Promise promise) {
     Errors.NOT_IMPLEMENTED.reject(promise, "isResumable()");
@@ -478,47 +1041,79 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
 
   @ReactMethod
   public void mkdir(String filepath, ReadableMap options, Promise promise) {
-    try {
-      File file = new File(filepath);
+    ioExecutor.execute(filepath, () -> {
+      try {
+        File file = new File(filepath);
 
-      file.mkdirs();
+        file.mkdirs();
 
-      boolean exists = file.exists();
+        boolean exists = file.exists();
 
-      if (!exists) throw new Exception("Directory could not be created");
+        if (!exists) throw new Exception("Directory could not be created");
 
-      promise.resolve(null);
-    } catch (Exception ex) {
-      ex.printStackTrace();
-      reject(promise, filepath, ex);
-    }
+        promise.resolve(null);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        reject(promise, filepath, ex);
+      }
+    });
   }
 
   @ReactMethod
   public void moveFile(final String filepath, String destPath, ReadableMap options, final Promise promise) {
-    try {
-      final File inFile = new File(filepath);
+    final int jobId = getJobId(options);
+    final FileCopier copier = createFileCopier(jobId, options);
+    ioExecutor.execute(filepath, destPath, () -> {
+      Metrics.Timer timer = Metrics.start("moveFile");
+      try {
+        File inFile = new File(filepath);
+
+        // Falls back to copying when the rename is not possible,
+        // e.g. when moving between different file systems.
+        long bytes = 0;
+        if (!inFile.renameTo(new File(destPath))) {
+          bytes = copyFileInternal(filepath, destPath, copier);
+          inFile.delete();
+        }
+        Metrics.done(timer, bytes);
+        promise.resolve(true);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        Metrics.failed(timer, ex);
+        reject(promise, filepath, ex);
+      } finally {
+        removeFileCopier(jobId);
+      }
+    });
+  }
 
-      if (!inFile.renameTo(new File(destPath))) {
-        new CopyFileTask() {
-          @Override
-          protected void onPostExecute (Exception ex) {
-            if (ex == null) {
-              inFile.delete();
-              promise.resolve(true);
-            } else {
-              ex.printStackTrace();
-              reject(promise, filepath, ex);
-            }
-          }
-        }.execute(filepath, destPath);
-      } else {
-          promise.resolve(true);
+  @ReactMethod
+  public void openAppender(String filepath, ReadableMap options, Promise promise) {
+    ioExecutor.execute(filepath, () -> {
+      try {
+        File file = getLocalFile(filepath);
+        if (file == null) {
+          throw new IORejectionException("EINVAL", "EINVAL: appenders support local files only, open '" + filepath + "'");
+        }
+        Appender appender = new Appender(
+          file,
+          options.hasKey("bufferBytes") ? options.getInt("bufferBytes") : 64 * 1024,
+          options.hasKey("flushIntervalMs") ? (long) options.getDouble("flushIntervalMs") : 1000,
+          Appender.fsyncModeFromName(options.hasKey("fsync") ? options.getString("fsync") : null),
+          options.hasKey("rotateBytes") ? (long) options.getDouble("rotateBytes") : 0,
+          options.hasKey("maxFiles") ? options.getInt("maxFiles") : 1
+        );
+        appender.open();
+        int appenderId = lastAppenderId.incrementAndGet();
+        synchronized (appenders) {
+          appenders.put(appenderId, appender);
+        }
+        promise.resolve(appenderId);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        reject(promise, filepath, ex);
       }
-    } catch (Exception ex) {
-      ex.printStackTrace();
-      reject(promise, filepath, ex);
-    }
+    });
   }
 
   @ReactMethod
@@ -556,146 +1151,159 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
     double position,
     Promise promise
   ) {
-    try (InputStream inputStream = getInputStream(filepath)) {
-      byte[] buffer = new byte[(int)length];
-      inputStream.skip((int)position);
-      int bytesRead = inputStream.read(buffer, 0, (int)length);
+    ioExecutor.execute(filepath, () -> {
+      Metrics.Timer timer = Metrics.start("read");
+      try (InputStream inputStream = getInputStream(filepath)) {
+        byte[] buffer = new byte[(int)length];
+        inputStream.skip((int)position);
+        int bytesRead = inputStream.read(buffer, 0, (int)length);
 
-      String base64Content = Base64.encodeToString(buffer, 0, bytesRead, Base64.NO_WRAP);
+        String base64Content = Base64.encodeToString(buffer, 0, bytesRead, Base64.NO_WRAP);
 
-      promise.resolve(base64Content);
-    } catch (Exception ex) {
-      ex.printStackTrace();
-      reject(promise, filepath, ex);
-    }
+        Metrics.done(timer, bytesRead);
+        promise.resolve(base64Content);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        Metrics.failed(timer, ex);
+        reject(promise, filepath, ex);
+      }
+    });
   }
 
   @ReactMethod
   public void readDir(String directory, Promise promise) {
-    try {
-      File file = new File(directory);
+    ioExecutor.execute(directory, () -> {
+      Metrics.Timer timer = Metrics.start("readDir");
+      try {
+        File file = new File(directory);
 
-      if (!file.exists()) throw new Exception("Folder does not exist");
+        String[] names = file.list();
+        if (names == null) {
+          if (!file.exists()) throw new Exception("Folder does not exist");
+          throw new IORejectionException("ENOTDIR", "ENOTDIR: not a directory, scandir '" + directory + "'");
+        }
 
-      File[] files = file.listFiles();
+        WritableArray fileMaps = Arguments.createArray();
 
-      WritableArray fileMaps = Arguments.createArray();
+        for (String name : names) {
+          File childFile = new File(file, name);
+          FileAttributes attrs = FileAttributes.get(childFile.getPath());
 
-      for (File childFile : files) {
-        WritableMap fileMap = Arguments.createMap();
+          // The item has been removed since the folder was listed.
+          if (attrs == null) continue;
 
-        fileMap.putDouble("mtime", (double) childFile.lastModified() / 1000);
-        fileMap.putString("name", childFile.getName());
-        fileMap.putString("path", childFile.getAbsolutePath());
-        fileMap.putDouble("size", (double) childFile.length());
-        fileMap.putInt("type", childFile.isDirectory() ? 1 : 0);
+          WritableMap fileMap = Arguments.createMap();
+          fileMap.putString("name", name);
+          fileMap.putString("path", childFile.getAbsolutePath());
+          putFileAttributes(fileMap, attrs);
 
-        fileMaps.pushMap(fileMap);
-      }
+          fileMaps.pushMap(fileMap);
+        }
 
-      promise.resolve(fileMaps);
-    } catch (Exception ex) {
-      ex.printStackTrace();
-      reject(promise, directory, ex);
-    }
+        Metrics.done(timer, 0);
+        promise.resolve(fileMaps);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        Metrics.failed(timer, ex);
+        reject(promise, directory, ex);
+      }
+    });
   }
 
   @ReactMethod
   public void readDirAssets(String directory, Promise promise) {
-    try {
-      AssetManager assetManager = getReactApplicationContext().getAssets();
-      String[] list = assetManager.list(directory);
+    ioExecutor.execute(() -> {
+      try {
+        AssetIndex.Entry dir = getAssetIndex().get(directory);
 
-      WritableArray fileMaps = Arguments.createArray();
-      for (String childFile : list) {
-        WritableMap fileMap = Arguments.createMap();
+        WritableArray fileMaps = Arguments.createArray();
+        if (dir != null && dir.isDirectory()) {
+          for (AssetIndex.Entry child : dir.children.values()) {
+            WritableMap fileMap = Arguments.createMap();
+
+            fileMap.putString("name", child.name);
+            fileMap.putString("path", child.path);
+            fileMap.putDouble("size", (double) child.size);
+            fileMap.putInt("type", child.isDirectory() ? 1 : 0);
 
-        fileMap.putString("name", childFile);
-        String path = directory.isEmpty() ? childFile : String.format("%s/%s", directory, childFile); // don't allow / at the start when directory is ""
-        fileMap.putString("path", path);
-        int length = -1;
-        boolean isDirectory = true;
-        try {
-          AssetFileDescriptor assetFileDescriptor = assetManager.openFd(path);
-          if (assetFileDescriptor != null) {
-            length = (int) assetFileDescriptor.getLength();
-            assetFileDescriptor.close();
-            isDirectory = false;
+            fileMaps.pushMap(fileMap);
           }
-        } catch (IOException ex) {
-          //.. ah.. is a directory or a compressed file?
-          isDirectory = !ex.getMessage().contains("compressed");
         }
-        fileMap.putInt("size", length);
-        fileMap.putInt("type", isDirectory ? 1 : 0); // if 0, probably a folder..
-
-        fileMaps.pushMap(fileMap);
+        promise.resolve(fileMaps);
+      } catch (Exception e) {
+        reject(promise, directory, e);
       }
-      promise.resolve(fileMaps);
-
-    } catch (IOException e) {
-      reject(promise, directory, e);
-    }
+    });
   }
 
   @ReactMethod
   public void readFile(String filepath, Promise promise) {
-    try (InputStream inputStream = getInputStream(filepath)) {
-      byte[] inputData = getInputStreamBytes(inputStream);
-      String base64Content = Base64.encodeToString(inputData, Base64.NO_WRAP);
-
-      promise.resolve(base64Content);
-    } catch (Exception ex) {
-      ex.printStackTrace();
-      reject(promise, filepath, ex);
-    }
+    ioExecutor.execute(filepath, () -> {
+      Metrics.Timer timer = Metrics.start("readFile");
+      try (InputStream inputStream = getInputStream(filepath)) {
+        byte[] inputData = getInputStreamBytes(inputStream);
+        String base64Content = Base64.encodeToString(inputData, Base64.NO_WRAP);
+
+        Metrics.done(timer, inputData.length);
+        promise.resolve(base64Content);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        Metrics.failed(timer, ex);
+        reject(promise, filepath, ex);
+      }
+    });
   }
 
   @ReactMethod
   public void readFileAssets(String filepath, Promise promise) {
-    InputStream stream = null;
-    try {
-      // ensure isn't a directory
-      AssetManager assetManager = getReactApplicationContext().getAssets();
-      stream = assetManager.open(filepath, 0);
-      if (stream == null) {
-        reject(promise, filepath, new Exception("Failed to open file"));
-        return;
-      }
+    ioExecutor.execute(() -> {
+      InputStream stream = null;
+      try {
+        // ensure isn't a directory
+        AssetManager assetManager = getReactApplicationContext().getAssets();
+        stream = assetManager.open(filepath, 0);
+        if (stream == null) {
+          reject(promise, filepath, new Exception("Failed to open file"));
+          return;
+        }
 
-      byte[] buffer = new byte[stream.available()];
-      stream.read(buffer);
-      String base64Content = Base64.encodeToString(buffer, Base64.NO_WRAP);
-      promise.resolve(base64Content);
-    } catch (Exception ex) {
-      ex.printStackTrace();
-      reject(promise, filepath, ex);
-    } finally {
-      closeIgnoringException(stream);
-    }
+        // available() is not reliable for compressed assets,
+        // thus the stream is read till its end.
+        byte[] buffer = getInputStreamBytes(stream);
+        String base64Content = Base64.encodeToString(buffer, Base64.NO_WRAP);
+        promise.resolve(base64Content);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        reject(promise, filepath, ex);
+      } finally {
+        closeIgnoringException(stream);
+      }
+    });
   }
 
   @ReactMethod
   public void readFileRes(String filename, Promise promise) {
-    InputStream stream = null;
-    try {
-      int res = getResIdentifier(filename);
-      stream = getReactApplicationContext().getResources().openRawResource(res);
-      if (stream == null) {
-        reject(promise, filename, new Exception("Failed to open file"));
-        return;
-      }
+    ioExecutor.execute(() -> {
+      InputStream stream = null;
+      try {
+        int res = getResIdentifier(filename);
+        stream = getReactApplicationContext().getResources().openRawResource(res);
+        if (stream == null) {
+          reject(promise, filename, new Exception("Failed to open file"));
+          return;
+        }
 
-      byte[] buffer = new byte[stream.available()];
-      stream.read(buffer);
-      String base64Content = Base64.encodeToString(buffer, Base64.NO_WRAP);
-      promise.resolve(base64Content);
-    } catch (Exception ex) {
-      ex.printStackTrace();
-      reject(promise, filename, ex);
-    } finally {
-      closeIgnoringException(stream);
-    }
+        byte[] buffer = new byte[stream.available()];
+        stream.read(buffer);
+        String base64Content = Base64.encodeToString(buffer, Base64.NO_WRAP);
+        promise.resolve(base64Content);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        reject(promise, filename, ex);
+      } finally {
+        closeIgnoringException(stream);
+      }
+    });
   }
 
   @ReactMethod
@@ -703,6 +1311,12 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
     // NOOP
   }
 
+  @ReactMethod
+  public void resetMetrics(Promise promise) {
+    Metrics.reset();
+    promise.resolve(null);
+  }
+
   @ReactMethod
   public void resumeDownload(double jobId) {
     // TODO: This is currently iOS-only method,
@@ -727,6 +1341,41 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
     );
   }
 
+  @ReactMethod
+  public void setFreeSpaceReserve(double bytes, Promise promise) {
+    DiskSpace.setReserve((long) bytes);
+    promise.resolve(null);
+  }
+
+  @ReactMethod
+  public void setIOPoolSize(double size, Promise promise) {
+    try {
+      ioExecutor.setPoolSize((int)size);
+      promise.resolve(null);
+    } catch (Exception ex) {
+      ex.printStackTrace();
+      reject(promise, null, ex);
+    }
+  }
+
+  @ReactMethod
+  public void setMaxActiveJobs(double max, Promise promise) {
+    try {
+      transfers.setMaxRunning((int)max);
+      promise.resolve(null);
+    } catch (Exception ex) {
+      ex.printStackTrace();
+      reject(promise, null, ex);
+    }
+  }
+
+  @ReactMethod
+  public void setMetricsEnabled(boolean enabled, ReadableMap options, Promise promise) {
+    boolean trace = options.hasKey("trace") && options.getBoolean("trace");
+    Metrics.setEnabled(enabled, trace);
+    promise.resolve(null);
+  }
+
   @ReactMethod
   public void setReadable(
     String filepath,
@@ -734,89 +1383,216 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
     boolean ownerOnly,
     Promise promise
   ) {
-    try {
-      File file = new File(filepath);
+    ioExecutor.execute(filepath, () -> {
+      try {
+        File file = new File(filepath);
 
-      if (!file.exists()) throw new Exception("File does not exist");
+        if (!file.exists()) throw new Exception("File does not exist");
 
-      file.setReadable(readable, ownerOnly);
+        file.setReadable(readable, ownerOnly);
 
-      promise.resolve(true);
-    } catch (Exception ex) {
-      ex.printStackTrace();
-      reject(promise, filepath, ex);
-    }
+        promise.resolve(true);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        reject(promise, filepath, ex);
+      }
+    });
   }
 
   @ReactMethod
   public void stat(String filepath, Promise promise) {
-    try {
-      String originalFilepath = getOriginalFilepath(filepath, true);
-      File file = new File(originalFilepath);
+    ioExecutor.execute(filepath, () -> {
+      Metrics.Timer timer = Metrics.start("stat");
+      try {
+        WritableMap statMap = statInternal(filepath, null);
+        if (statMap == null) throw new Exception("File does not exist");
+        Metrics.done(timer, 0);
+        promise.resolve(statMap);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        Metrics.failed(timer, ex);
+        reject(promise, filepath, ex);
+      }
+    });
+  }
 
-      if (!file.exists()) throw new Exception("File does not exist");
+  @ReactMethod
+  public void statMany(ReadableArray pathsArray, Promise promise) {
+    ioExecutor.execute(() -> {
+      try {
+        String[] paths = new String[pathsArray.size()];
+        ArrayList<Uri> contentUris = new ArrayList<>();
+        for (int i = 0; i < paths.length; ++i) {
+          paths[i] = pathsArray.getString(i);
+          Uri uri = Uri.parse(paths[i]);
+          if ("content".equals(uri.getScheme())) contentUris.add(uri);
+        }
+        Map<String, ContentMetadataCache.Metadata> metadata = contentMetadata.getMany(contentUris);
+
+        WritableArray results = Arguments.createArray();
+        for (String path : paths) {
+          WritableMap statMap = null;
+          try {
+            statMap = statInternal(path, metadata);
+          } catch (Exception ignored) {
+            // Items which cannot be stat-ed are reported as null.
+          }
+          if (statMap == null) results.pushNull();
+          else results.pushMap(statMap);
+        }
+        promise.resolve(results);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        reject(promise, null, ex);
+      }
+    });
+  }
+
+  /**
+   * Stats a file system item, or a content URI.
+   * @param metadata Optional. Pre-fetched metadata of content URIs.
+   * @return Null if the item does not exist.
+   */
+  private WritableMap statInternal(String filepath, Map<String, ContentMetadataCache.Metadata> metadata) throws Exception {
+    Uri uri = getFileUri(filepath, true);
+    ContentMetadataCache.Metadata md = null;
+    String originalFilepath = filepath;
+    if ("content".equals(uri.getScheme())) {
+      md = metadata != null ? metadata.get(filepath) : contentMetadata.get(uri);
+      if (md == null) return null;
+      if (md.originalPath != null) originalFilepath = md.originalPath;
+    }
 
-      WritableMap statMap = Arguments.createMap();
-      statMap.putInt("ctime", (int) (file.lastModified() / 1000));
-      statMap.putInt("mtime", (int) (file.lastModified() / 1000));
-      statMap.putDouble("size", (double) file.length());
-      statMap.putInt("type", file.isDirectory() ? 1 : 0);
-      statMap.putString("originalFilepath", originalFilepath);
+    WritableMap statMap = Arguments.createMap();
+    FileAttributes attrs = FileAttributes.get(originalFilepath);
+    if (attrs != null) {
+      putFileAttributes(statMap, attrs);
+    } else if (md != null) {
+      // The provider does not expose a readable file path,
+      // thus the item is described by its metadata.
+      double mtime = md.mtime < 0 ? 0 : md.mtime / 1000.0;
+      statMap.putDouble("ctime", mtime);
+      statMap.putDouble("mtime", mtime);
+      statMap.putDouble("size", (double) md.size);
+      statMap.putInt("type", 0);
+    } else {
+      return null;
+    }
+    if (md != null) {
+      if (md.displayName != null) statMap.putString("name", md.displayName);
+      if (md.mimeType != null) statMap.putString("mimeType", md.mimeType);
+    }
+    statMap.putString("originalFilepath", originalFilepath);
+    return statMap;
+  }
 
-      promise.resolve(statMap);
-    } catch (Exception ex) {
-      ex.printStackTrace();
-      reject(promise, filepath, ex);
+  @ReactMethod
+  public void stopCopy(double jobId) {
+    FileCopier copier;
+    synchronized (copiers) {
+      copier = copiers.get((int)jobId);
+    }
+    if (copier != null) {
+      copier.stop();
     }
   }
 
   @ReactMethod
   public void stopDownload(double jobId) {
-    Downloader downloader = this.downloaders.get((int)jobId);
-    if (downloader != null) {
-      downloader.stop();
-    }
+    transfers.stop((int)jobId);
   }
 
   @ReactMethod
   public void stopUpload(double jobId) {
-    Uploader uploader = this.uploaders.get((int)jobId);
-
-    if (uploader != null) {
-      uploader.stop();
-    }
+    transfers.stop((int)jobId);
   }
 
   @ReactMethod
   public void touch(String filepath, ReadableMap options, Promise promise) {
-    try {
-      File file = new File(filepath);
+    ioExecutor.execute(filepath, () -> {
+      try {
+        File file = new File(filepath);
 
-      long mtime = (long)options.getDouble("mtime");
-      // TODO: setLastModified() returns "true" on success, "false" otherwise,
-      // thus instead of resolving with its result, we should throw if result is
-      // false.
-      promise.resolve(file.setLastModified((long) mtime));
-    } catch (Exception ex) {
-      ex.printStackTrace();
-      reject(promise, filepath, ex);
-    }
+        long mtime = (long)options.getDouble("mtime");
+        // TODO: setLastModified() returns "true" on success, "false" otherwise,
+        // thus instead of resolving with its result, we should throw if result is
+        // false.
+        promise.resolve(file.setLastModified((long) mtime));
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        reject(promise, filepath, ex);
+      }
+    });
   }
 
   @ReactMethod
-  public void unlink(String filepath, Promise promise) {
-    try {
-      File file = new File(filepath);
+  public void unlink(String filepath, ReadableMap options, Promise promise) {
+    ioExecutor.execute(filepath, () -> {
+      Metrics.Timer timer = Metrics.start("unlink");
+      try {
+        File file = new File(filepath);
 
-      if (!file.exists()) throw new Exception("File does not exist");
+        if (!file.exists()) throw new Exception("File does not exist");
 
-      DeleteRecursive(file);
+        boolean background = options.hasKey("background") && options.getBoolean("background");
+        if (!background || !trash.moveToTrash(file)) Trash.deleteTree(file);
 
-      promise.resolve(null);
-    } catch (Exception ex) {
-      ex.printStackTrace();
-      reject(promise, filepath, ex);
+        Metrics.done(timer, 0);
+        promise.resolve(null);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        Metrics.failed(timer, ex);
+        reject(promise, filepath, ex);
+      }
+    });
+  }
+
+  @ReactMethod
+  public void unwatch(double watchId) {
+    FileWatcher watcher;
+    synchronized (watchers) {
+      watcher = watchers.get((int)watchId);
+      watchers.remove((int)watchId);
     }
+    if (watcher != null) watcher.stop();
+  }
+
+  @ReactMethod
+  public void unzip(final String zipPath, final String destDir, ReadableMap options, final Promise promise) {
+    final int jobId = getJobId(options);
+    final FileCopier copier = new FileCopier(null, 0);
+    registerFileCopier(jobId, copier);
+    final FolderCopier.OnProgress onProgress = createFolderProgressListener(jobId, options);
+    final int progressInterval = getProgressInterval(options);
+    final int concurrency = options.hasKey("concurrency") ? options.getInt("concurrency") : Unzipper.DEFAULT_CONCURRENCY;
+
+    ioExecutor.execute(zipPath, destDir, () -> {
+      Metrics.Timer timer = Metrics.start("unzip");
+      try {
+        Unzipper unzipper = new Unzipper(copier, onProgress, progressInterval);
+        File zip = getLocalFile(zipPath);
+        FolderCopier.Result res;
+
+        // Random access is only possible for regular files; anything else
+        // is read as a stream, entry by entry.
+        if (zip != null && concurrency > 1) {
+          if (!zip.isFile()) {
+            throw new IORejectionException("ENOENT", "ENOENT: no such file, open '" + zipPath + "'");
+          }
+          res = unzipper.unzip(zip, new File(destDir), concurrency);
+        } else {
+          res = unzipper.unzip(getInputStream(zipPath), new File(destDir));
+        }
+        Metrics.done(timer, res.bytes);
+        promise.resolve(folderCopyResultToMap(res));
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        Metrics.failed(timer, ex);
+        reject(promise, zipPath, ex);
+      } finally {
+        removeFileCopier(jobId);
+      }
+    });
   }
 
   @ReactMethod
@@ -831,6 +1607,7 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
       boolean binaryStreamOnly = options.getBoolean("binaryStreamOnly");
       boolean hasBeginCallback = options.getBoolean("hasBeginCallback");
       boolean hasProgressCallback = options.getBoolean("hasProgressCallback");
+      final Metrics.Timer timer = Metrics.startAsync("uploadFiles");
 
       ArrayList<ReadableMap> fileList = new ArrayList<>();
       UploadParams params = new UploadParams();
@@ -845,7 +1622,9 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
       params.binaryStreamOnly = binaryStreamOnly;
       params.onUploadComplete = new UploadParams.onUploadComplete() {
         public void onUploadComplete(UploadResult res) {
+          transfers.complete(jobId);
           if (res.exception == null) {
+            Metrics.done(timer, res.bytesSent);
             WritableMap infoMap = Arguments.createMap();
 
             infoMap.putInt("jobId", jobId);
@@ -854,6 +1633,7 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
             infoMap.putString("body",res.body);
             promise.resolve(infoMap);
           } else {
+            Metrics.failed(timer, res.exception);
             reject(promise, options.getString("toUrl"), res.exception);
           }
         }
@@ -885,17 +1665,151 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
         };
       }
 
-      Uploader uploader = new Uploader();
-
-      uploader.execute(params);
-
-      this.uploaders.put(jobId, uploader);
+      final Uploader uploader = new Uploader();
+      transfers.submit(jobId, TransferRegistry.UPLOAD, url.toString(), uploader, () -> uploader.execute(params));
     } catch (Exception ex) {
       ex.printStackTrace();
       reject(promise, options.getString("toUrl"), ex);
     }
   }
 
+  @ReactMethod
+  public void walk(String directory, ReadableMap options, Promise promise) {
+    ioExecutor.execute(directory, () -> {
+      try {
+        int maxDepth = options.hasKey("maxDepth") ? options.getInt("maxDepth") : -1;
+        int pageSize = options.hasKey("pageSize") ? options.getInt("pageSize") : 256;
+        String filter = options.hasKey("filter") && !options.isNull("filter") ? options.getString("filter") : null;
+        String filterFlags = options.hasKey("filterFlags") && !options.isNull("filterFlags") ? options.getString("filterFlags") : null;
+
+        DirectoryWalker walker = new DirectoryWalker(
+          new File(directory),
+          maxDepth,
+          pageSize,
+          filter == null ? null : DirectoryWalker.compileFilter(filter, filterFlags)
+        );
+        int cursorId = lastWalkCursorId.incrementAndGet();
+        synchronized (walkers) {
+          walkers.put(cursorId, walker);
+        }
+        resolveWalkPage(cursorId, walker, promise);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        reject(promise, directory, ex);
+      }
+    });
+  }
+
+  @ReactMethod
+  public void walkClose(double cursorId) {
+    DirectoryWalker walker = removeWalker((int)cursorId);
+    if (walker != null) {
+      ioExecutor.execute("walk:" + (int)cursorId, () -> walker.close());
+    }
+  }
+
+  @ReactMethod
+  public void walkNext(double cursorId, Promise promise) {
+    ioExecutor.execute("walk:" + (int)cursorId, () -> {
+      DirectoryWalker walker;
+      synchronized (walkers) {
+        walker = walkers.get((int)cursorId);
+      }
+      try {
+        if (walker == null) {
+          throw new IORejectionException("EINVAL", "EINVAL: no active walk with cursor ID " + (int)cursorId);
+        }
+        resolveWalkPage((int)cursorId, walker, promise);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        reject(promise, null, ex);
+      }
+    });
+  }
+
+  @ReactMethod
+  public void watch(String path, ReadableMap options, Promise promise) {
+    ioExecutor.execute(path, () -> {
+      try {
+        boolean recursive = options.hasKey("recursive") && options.getBoolean("recursive");
+        long debounceMs = options.hasKey("debounceMs") ? (long) options.getDouble("debounceMs") : 100;
+        int events = FileWatcher.ALL;
+        if (options.hasKey("events") && !options.isNull("events")) {
+          ReadableArray names = options.getArray("events");
+          events = 0;
+          for (int i = 0; i < names.size(); ++i) {
+            int event = FileWatcher.fromEventName(names.getString(i));
+            if (event == 0) {
+              throw new IORejectionException("EINVAL", "EINVAL: unknown event '" + names.getString(i) + "'");
+            }
+            events |= event;
+          }
+        }
+
+        final int watchId = options.getInt("watchId");
+        FileWatcher watcher = new FileWatcher(new File(path), recursive, events, debounceMs, changes -> {
+          WritableArray changesArray = Arguments.createArray();
+          for (Map.Entry<String, Integer> change : changes.entrySet()) {
+            WritableArray eventsArray = Arguments.createArray();
+            for (String name : FileWatcher.toEventNames(change.getValue())) eventsArray.pushString(name);
+
+            WritableMap changeMap = Arguments.createMap();
+            changeMap.putString("path", change.getKey());
+            changeMap.putArray("events", eventsArray);
+            changesArray.pushMap(changeMap);
+          }
+
+          WritableMap data = Arguments.createMap();
+          data.putInt("watchId", watchId);
+          data.putArray("changes", changesArray);
+          sendEvent(getReactApplicationContext(), "FileChange", data);
+        });
+        watcher.start();
+        synchronized (watchers) {
+          watchers.put(watchId, watcher);
+        }
+        promise.resolve(null);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        reject(promise, path, ex);
+      }
+    });
+  }
+
+  @ReactMethod
+  public void zip(final String srcDir, final String destZip, ReadableMap options, final Promise promise) {
+    final int jobId = getJobId(options);
+    final FileCopier copier = new FileCopier(null, 0);
+    registerFileCopier(jobId, copier);
+    final FolderCopier.OnProgress onProgress = createFolderProgressListener(jobId, options);
+    final int progressInterval = getProgressInterval(options);
+
+    ioExecutor.execute(srcDir, destZip, () -> {
+      Metrics.Timer timer = Metrics.start("zip");
+      try {
+        Zipper zipper = new Zipper(
+          copier,
+          onProgress,
+          progressInterval,
+          options.hasKey("level") ? options.getInt("level") : Deflater.DEFAULT_COMPRESSION
+        );
+        File from = new File(srcDir);
+        if (!from.isDirectory()) {
+          throw new IORejectionException("ENOTDIR", "ENOTDIR: not a directory, open '" + srcDir + "'");
+        }
+        FolderCopier.Result res = zipper.zip(from, getOutputStream(destZip, false), getLocalFile(destZip));
+        Metrics.done(timer, res.bytes);
+        promise.resolve(folderCopyResultToMap(res));
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        Metrics.failed(timer, ex);
+        reject(promise, srcDir, ex);
+      } finally {
+        removeFileCopier(jobId);
+      }
+    });
+  }
+
   // TODO: position arg should be double.
   @ReactMethod
   public void write(
@@ -904,68 +1818,338 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
     double position,
     Promise promise
   ) {
-    OutputStream outputStream = null;
-    RandomAccessFile file = null;
-    try {
-      byte[] bytes = Base64.decode(base64Content, Base64.DEFAULT);
+    ioExecutor.execute(filepath, () -> {
+      Metrics.Timer timer = Metrics.start("write");
+      OutputStream outputStream = null;
+      RandomAccessFile file = null;
+      try {
+        byte[] bytes = Base64.decode(base64Content, Base64.DEFAULT);
 
-      if (position < 0) {
-        outputStream = getOutputStream(filepath, true);
-        outputStream.write(bytes);
-      } else {
-        file = new RandomAccessFile(filepath, "rw");
-        file.seek((long)position);
-        file.write(bytes);
-      }
+        if (position < 0) {
+          outputStream = getOutputStream(filepath, true);
+          outputStream.write(bytes);
+        } else {
+          file = new RandomAccessFile(filepath, "rw");
+          file.seek((long)position);
+          file.write(bytes);
+        }
 
-      promise.resolve(null);
-    } catch (Exception ex) {
-      ex.printStackTrace();
-      reject(promise, filepath, ex);
-    } finally {
-      closeIgnoringException(outputStream);
-      closeIgnoringException(file);
-    }
+        Metrics.done(timer, bytes.length);
+        promise.resolve(null);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        Metrics.failed(timer, ex);
+        reject(promise, filepath, ex);
+      } finally {
+        closeIgnoringException(outputStream);
+        closeIgnoringException(file);
+      }
+    });
   }
 
   @ReactMethod
   public void writeFile(String filepath, String base64Content, ReadableMap options, Promise promise) {
-    try (OutputStream outputStream = getOutputStream(filepath, false)) {
-      byte[] bytes = Base64.decode(base64Content, Base64.DEFAULT);
-      outputStream.write(bytes);
+    ioExecutor.execute(filepath, () -> {
+      Metrics.Timer timer = Metrics.start("writeFile");
+      try {
+        byte[] bytes = Base64.decode(base64Content, Base64.DEFAULT);
 
-      promise.resolve(null);
+        // The space is checked before the existing file is truncated.
+        File file = getLocalFile(filepath);
+        if (file != null) DiskSpace.ensure(file, bytes.length);
+
+        try (OutputStream outputStream = getOutputStream(filepath, false)) {
+          outputStream.write(bytes);
+        }
+
+        Metrics.done(timer, bytes.length);
+        promise.resolve(null);
+      } catch (Exception ex) {
+        ex.printStackTrace();
+        Metrics.failed(timer, ex);
+        reject(promise, filepath, ex);
+      }
+    });
+  }
+
+  /**
+   * Copies the file at filepath into destPath using given copier. Plain files
+   * are copied directly between file channels, anything else (content URIs)
+   * goes through streams opened by the content resolver.
+   * @return The number of bytes copied.
+   */
+  private long copyFileInternal(String filepath, String destPath, FileCopier copier) throws Exception {
+    File from = getLocalFile(filepath);
+    File into = getLocalFile(destPath);
+    try {
+      if (from != null && into != null) {
+        return copier.copy(from, into);
+      } else {
+        try (
+          InputStream in = getInputStream(filepath);
+          OutputStream out = getOutputStream(destPath, false)
+        ) {
+          return copier.copy(in, out, from != null ? from.length() : -1);
+        }
+      }
     } catch (Exception ex) {
-      ex.printStackTrace();
-      reject(promise, filepath, ex);
+      // Aborted copying should not leave a partial file behind.
+      if (copier.isAborted() && into != null) into.delete();
+      throw ex;
     }
   }
 
-  private class CopyFileTask extends AsyncTask<String, Void, Exception> {
-    protected Exception doInBackground(String... paths) {
-      InputStream in = null;
-      OutputStream out = null;
-      try {
-        String filepath = paths[0];
-        String destPath = paths[1];
+  /**
+   * Creates a file copier for copyFile() or moveFile() call with the given
+   * options. If jobId is given it registers the copier, so it can be stopped
+   * by stopCopy(), and if requested it emits "CopyProgress" events.
+   */
+  private FileCopier createFileCopier(final int jobId, ReadableMap options) {
+    FileCopier.OnProgress onProgress = null;
+    int progressInterval = 0;
+    if (jobId >= 0 && options.hasKey("hasProgressCallback") && options.getBoolean("hasProgressCallback")) {
+      if (options.hasKey("progressInterval")) progressInterval = options.getInt("progressInterval");
+      onProgress = new FileCopier.OnProgress() {
+        public void onProgress(long bytesCopied, long totalBytes) {
+          WritableMap data = Arguments.createMap();
+
+          data.putInt("jobId", jobId);
+          data.putDouble("bytesCopied", (double)bytesCopied);
+          data.putDouble("totalBytes", (double)totalBytes);
+
+          sendEvent(getReactApplicationContext(), "CopyProgress", data);
+        }
+      };
+    }
+    FileCopier copier = new FileCopier(onProgress, progressInterval);
+    registerFileCopier(jobId, copier);
+    return copier;
+  }
+
+  /**
+   * Creates the listener which emits "CopyFolderProgress" events,
+   * if progress reporting was requested by the options.
+   */
+  private FolderCopier.OnProgress createFolderProgressListener(final int jobId, ReadableMap options) {
+    if (jobId < 0 || !options.hasKey("hasProgressCallback") || !options.getBoolean("hasProgressCallback")) {
+      return null;
+    }
+    return new FolderCopier.OnProgress() {
+      public void onProgress(int filesCopied, int totalFiles, long bytesCopied, long totalBytes) {
+        WritableMap data = Arguments.createMap();
+
+        data.putInt("jobId", jobId);
+        data.putInt("filesCopied", filesCopied);
+        data.putInt("totalFiles", totalFiles);
+        data.putDouble("bytesCopied", (double)bytesCopied);
+        data.putDouble("totalBytes", (double)totalBytes);
 
-        in = getInputStream(filepath);
-        out = getOutputStream(destPath, false);
+        sendEvent(getReactApplicationContext(), "CopyFolderProgress", data);
+      }
+    };
+  }
 
-        byte[] buffer = new byte[1024];
-        int length;
-        while ((length = in.read(buffer)) > 0) {
-          out.write(buffer, 0, length);
-          Thread.yield();
+  private AssetIndex getAssetIndex() {
+    AssetIndex index = assetIndex;
+    if (index == null) {
+      synchronized (this) {
+        index = assetIndex;
+        if (index == null) {
+          index = AssetIndex.build(getReactApplicationContext());
+          assetIndex = index;
         }
-        return null;
-      } catch (Exception ex) {
-        return ex;
-      } finally {
-        closeIgnoringException(in);
-        closeIgnoringException(out);
       }
     }
+    return index;
+  }
+
+  /**
+   * Creates the journal entry for a downloadFile() call with "persist" option,
+   * or takes the pending one for a call with "restoreId" option, and sets up
+   * the download params to checkpoint it, and to resume it from the last
+   * checkpoint.
+   * @return The journaled job, or null if the download is not persisted.
+   */
+  private JobJournal.Job openJournaledJob(ReadableMap options, File file, DownloadParams params) throws Exception {
+    String restoreId = options.hasKey("restoreId") ? options.getString("restoreId") : null;
+    boolean persist = options.hasKey("persist") && options.getBoolean("persist");
+    if (restoreId == null && !persist) return null;
+    if (file == null) throw notJournalable();
+
+    final JobJournal.Job job;
+    if (restoreId != null) {
+      job = jobJournal.get(restoreId);
+      if (job == null) {
+        throw new IORejectionException("ENOENT", "ENOENT: no pending download job '" + restoreId + "'");
+      }
+
+      // The file may have less data than the last checkpoint, if it was
+      // modified meanwhile; and without a validator it is not possible to
+      // check that the remote file is the same, thus it is fetched again.
+      String validator = job.getValidator();
+      if (validator != null && file.isFile()) {
+        params.resumeFrom = Math.min(job.bytesWritten, file.length());
+        params.resumeValidator = validator;
+      }
+    } else {
+      HashMap<String, String> headers = new HashMap<>();
+      ReadableMap headersMap = options.getMap("headers");
+      ReadableMapKeySetIterator iterator = headersMap.keySetIterator();
+      while (iterator.hasNextKey()) {
+        String key = iterator.nextKey();
+        headers.put(key, headersMap.getString(key));
+      }
+      job = jobJournal.create(options.getString("fromUrl"), options.getString("toFile"), headers);
+    }
+
+    synchronized (runningJournaledJobs) {
+      if (!runningJournaledJobs.add(job.id)) {
+        throw new IORejectionException("EBUSY", "EBUSY: download job '" + job.id + "' is already running");
+      }
+    }
+
+    params.onCheckpoint = new DownloadParams.OnCheckpoint() {
+      public void onCheckpoint(long bytesCommitted, long contentLength, Map<String, String> headers) throws Exception {
+        job.bytesWritten = bytesCommitted;
+        job.contentLength = contentLength;
+        job.etag = null;
+        job.lastModified = null;
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+          // Weak ETags can't be used in If-Range header.
+          if ("ETag".equalsIgnoreCase(header.getKey()) && !header.getValue().startsWith("W/")) {
+            job.etag = header.getValue();
+          } else if ("Last-Modified".equalsIgnoreCase(header.getKey())) {
+            job.lastModified = header.getValue();
+          }
+        }
+        jobJournal.save(job);
+      }
+    };
+    return job;
+  }
+
+  /**
+   * Sets mirrors and the retry policy of a download from the "mirrors"
+   * and "retry" options of downloadFile(). By default, each source is
+   * tried once.
+   */
+  private static void setRetryPolicy(ReadableMap options, DownloadParams params) throws Exception {
+    if (options.hasKey("mirrors")) {
+      ReadableArray mirrors = options.getArray("mirrors");
+      for (int i = 0; i < mirrors.size(); ++i) params.mirrors.add(new URL(mirrors.getString(i)));
+    }
+    params.maxAttempts = 1 + params.mirrors.size();
+
+    ReadableMap retry = options.hasKey("retry") ? options.getMap("retry") : null;
+    if (retry == null) return;
+    if (retry.hasKey("maxAttempts")) params.maxAttempts = Math.max(1, retry.getInt("maxAttempts"));
+    if (retry.hasKey("delay")) params.retryDelay = Math.max(0, retry.getInt("delay"));
+    if (retry.hasKey("maxDelay")) params.maxRetryDelay = Math.max(params.retryDelay, retry.getInt("maxDelay"));
+    if (retry.hasKey("stallSpeed")) params.stallSpeed = (long) retry.getDouble("stallSpeed");
+    if (retry.hasKey("stallWindow")) params.stallWindow = Math.max(1, retry.getInt("stallWindow"));
+    if (retry.hasKey("hedgeAfter")) params.hedgeAfter = retry.getInt("hedgeAfter");
+  }
+
+  /**
+   * Releases a journaled job which failed to start; a job created
+   * for the failed call is also dropped from the journal.
+   */
+  private void releaseJournaledJob(JobJournal.Job job, boolean created) {
+    synchronized (runningJournaledJobs) {
+      runningJournaledJobs.remove(job.id);
+    }
+    if (created) jobJournal.remove(job.id);
+  }
+
+  private static IORejectionException notJournalable() {
+    return new IORejectionException("EINVAL", "EINVAL: only downloads into local files can be persisted");
+  }
+
+  /**
+   * Creates a pending MediaStore entry, as described by the "mediaStore"
+   * option of downloadFile(). The entry stays hidden from other apps until
+   * it is marked as not pending.
+   */
+  private Uri insertPendingMediaItem(ReadableMap item) throws IORejectionException {
+    if (android.os.Build.VERSION.SDK_INT < android.os.Build.VERSION_CODES.Q) {
+      throw new IORejectionException("ENOTSUP", "ENOTSUP: MediaStore destinations require Android 10 or above");
+    }
+    String collection = item.getString("collection");
+    Uri collectionUri;
+    if ("audio".equals(collection)) collectionUri = MediaStore.Audio.Media.EXTERNAL_CONTENT_URI;
+    else if ("downloads".equals(collection)) collectionUri = MediaStore.Downloads.EXTERNAL_CONTENT_URI;
+    else if ("images".equals(collection)) collectionUri = MediaStore.Images.Media.EXTERNAL_CONTENT_URI;
+    else if ("video".equals(collection)) collectionUri = MediaStore.Video.Media.EXTERNAL_CONTENT_URI;
+    else throw new IORejectionException("EINVAL", "EINVAL: unknown MediaStore collection '" + collection + "'");
+
+    ContentValues values = new ContentValues();
+    values.put(MediaStore.MediaColumns.DISPLAY_NAME, item.getString("displayName"));
+    if (item.hasKey("mimeType")) values.put(MediaStore.MediaColumns.MIME_TYPE, item.getString("mimeType"));
+    if (item.hasKey("relativePath")) values.put(MediaStore.MediaColumns.RELATIVE_PATH, item.getString("relativePath"));
+    values.put(MediaStore.MediaColumns.IS_PENDING, 1);
+
+    Uri uri = getReactApplicationContext().getContentResolver().insert(collectionUri, values);
+    if (uri == null) {
+      throw new IORejectionException("EIO", "EIO: failed to create a MediaStore entry in '" + collection + "' collection");
+    }
+    return uri;
+  }
+
+  /**
+   * Marks a MediaStore entry owned by the app as pending, or not; it does
+   * nothing for other content URIs, and on Android versions before 10.
+   */
+  private void setMediaItemPending(Uri uri, boolean pending) {
+    if (android.os.Build.VERSION.SDK_INT < android.os.Build.VERSION_CODES.Q
+      || !MediaStore.AUTHORITY.equals(uri.getAuthority())) return;
+    ContentValues values = new ContentValues();
+    values.put(MediaStore.MediaColumns.IS_PENDING, pending ? 1 : 0);
+    try {
+      getReactApplicationContext().getContentResolver().update(uri, values, null, null);
+    } catch (Exception e) {
+      // The entry is not owned by the app; then it is just written as is.
+      Log.w(Errors.LOGTAG, "Failed to update pending state of '" + uri + "'", e);
+    }
+  }
+
+  private void deleteMediaItem(Uri uri) {
+    try {
+      getReactApplicationContext().getContentResolver().delete(uri, null, null);
+    } catch (Exception e) {
+      Log.w(Errors.LOGTAG, "Failed to delete '" + uri + "'", e);
+    }
+  }
+
+  private static WritableMap folderCopyResultToMap(FolderCopier.Result res) {
+    WritableMap result = Arguments.createMap();
+    result.putInt("directories", res.directories);
+    result.putInt("files", res.files);
+    result.putDouble("bytes", (double)res.bytes);
+    return result;
+  }
+
+  private static int getProgressInterval(ReadableMap options) {
+    if (options == null || !options.hasKey("progressInterval")) return 0;
+    return options.getInt("progressInterval");
+  }
+
+  private void registerFileCopier(int jobId, FileCopier copier) {
+    if (jobId < 0) return;
+    synchronized (copiers) {
+      copiers.put(jobId, copier);
+    }
+  }
+
+  private void removeFileCopier(int jobId) {
+    if (jobId < 0) return;
+    synchronized (copiers) {
+      copiers.remove(jobId);
+    }
+  }
+
+  private static int getJobId(ReadableMap options) {
+    if (options == null || !options.hasKey("jobId")) return -1;
+    return options.getInt("jobId");
   }
 
   /**
@@ -980,12 +2164,7 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
     OutputStream out = null;
     try {
       out = getOutputStream(destination, false);
-
-      byte[] buffer = new byte[1024 * 10]; // 10k buffer
-      int read;
-      while ((read = in.read(buffer)) != -1) {
-        out.write(buffer, 0, read);
-      }
+      new FileCopier(null, 0).copy(in, out, -1);
 
       // Success!
       promise.resolve(null);
@@ -997,14 +2176,85 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
     }
   }
 
-  private void DeleteRecursive(File fileOrDirectory) {
-    if (fileOrDirectory.isDirectory()) {
-      for (File child : fileOrDirectory.listFiles()) {
-        DeleteRecursive(child);
+  private DirectoryWalker removeWalker(int cursorId) {
+    synchronized (walkers) {
+      DirectoryWalker walker = walkers.get(cursorId);
+      walkers.remove(cursorId);
+      return walker;
+    }
+  }
+
+  private static WritableMap diskUsageToMap(DiskUsage.Node node) {
+    WritableMap map = Arguments.createMap();
+    map.putString("name", node.name);
+    map.putDouble("bytes", (double) node.bytes);
+    map.putInt("files", node.files);
+    map.putInt("directories", node.directories);
+    if (node.children != null) {
+      WritableArray children = Arguments.createArray();
+      for (DiskUsage.Node child : node.children) {
+        children.pushMap(diskUsageToMap(child));
       }
+      map.putArray("children", children);
     }
+    return map;
+  }
 
-    fileOrDirectory.delete();
+  /**
+   * Writes the given file attributes into the map, in the format expected
+   * by stat(), readDir(), and walk() on JS side.
+   */
+  private static void putFileAttributes(WritableMap map, FileAttributes attrs) {
+    map.putDouble("ctime", attrs.ctime);
+    map.putDouble("mtime", attrs.mtime);
+    map.putDouble("size", (double) attrs.size);
+    map.putInt("type", attrs.isDirectory ? 1 : 0);
+    map.putInt("mode", attrs.mode);
+    map.putDouble("inode", (double) attrs.inode);
+    map.putBoolean("symlink", attrs.isSymbolicLink);
+  }
+
+  /**
+   * Resolves the promise with the next page of items from the walker.
+   * Once the walk is done, the walker is closed and unregistered.
+   */
+  private void resolveWalkPage(int cursorId, DirectoryWalker walker, Promise promise) throws Exception {
+    WritableArray items = Arguments.createArray();
+    try {
+      for (DirectoryWalker.Item item : walker.next()) {
+        WritableMap fileMap = Arguments.createMap();
+
+        fileMap.putString("name", item.file.getName());
+        fileMap.putString("path", item.file.getAbsolutePath());
+        putFileAttributes(fileMap, item.attrs);
+        fileMap.putInt("depth", item.depth);
+
+        items.pushMap(fileMap);
+      }
+    } catch (Exception ex) {
+      removeWalker(cursorId);
+      walker.close();
+      throw ex;
+    }
+
+    boolean done = walker.isDone();
+    if (done) removeWalker(cursorId);
+
+    WritableMap page = Arguments.createMap();
+    page.putInt("cursorId", cursorId);
+    page.putArray("items", items);
+    page.putBoolean("done", done);
+    promise.resolve(page);
+  }
+
+  /**
+   * Returns File for the given path, if it points to a regular file system
+   * item (i.e. it has no scheme, or file:// scheme); null otherwise.
+   */
+  private File getLocalFile(String filepath) throws IORejectionException {
+    Uri uri = getFileUri(filepath, false);
+    if ("file".equals(uri.getScheme())) return new File(uri.getPath());
+    return null;
   }
 
   private Uri getFileUri(String filepath, boolean isDirectoryAllowed) throws IORejectionException {
@@ -1035,37 +2285,12 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
   }
 
   private static byte[] getInputStreamBytes(InputStream inputStream) throws IOException {
-    byte[] bytesResult;
-    int bufferSize = 1024;
-    byte[] buffer = new byte[bufferSize];
-    try (ByteArrayOutputStream byteBuffer = new ByteArrayOutputStream()) {
-      int len;
-      while ((len = inputStream.read(buffer)) != -1) {
-        byteBuffer.write(buffer, 0, len);
-      }
-      bytesResult = byteBuffer.toByteArray();
-    }
-    return bytesResult;
-  }
-
-  private String getOriginalFilepath(String filepath, boolean isDirectoryAllowed) throws IORejectionException {
-    Uri uri = getFileUri(filepath, isDirectoryAllowed);
-    String originalFilepath = filepath;
-    if (uri.getScheme().equals("content")) {
-      try {
-        Cursor cursor = getReactApplicationContext().getContentResolver().query(uri, null, null, null, null);
-        if (cursor.moveToFirst()) {
-          originalFilepath = cursor.getString(cursor.getColumnIndexOrThrow(MediaStore.Images.Media.DATA));
-        }
-        cursor.close();
-      } catch (IllegalArgumentException ignored) {
-      }
-    }
-    return originalFilepath;
+    return FileCopier.readAll(inputStream, 1024);
   }
 
   private OutputStream getOutputStream(String filepath, boolean append) throws IORejectionException {
     Uri uri = getFileUri(filepath, false);
+    if ("content".equals(uri.getScheme())) contentMetadata.invalidate(uri);
     OutputStream stream;
     try {
       stream = getReactApplicationContext().getContentResolver().openOutputStream(uri, append ? "wa" : getWriteAccessByAPILevel());
@@ -1100,6 +2325,10 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
       promise.reject(ioRejectionException.getCode(), ioRejectionException.getMessage());
       return;
     }
+    if (ex instanceof IOException && DiskSpace.isNoSpace((IOException) ex)) {
+      promise.reject("ENOSPC", "ENOSPC: no space left on device, " + ex.getMessage() + (filepath == null ? "" : ", write '" + filepath + "'"));
+      return;
+    }
 
     promise.reject(null, ex.getMessage());
   }
@@ -1108,10 +2337,6 @@ public class ReactNativeFsModule extends ReactNativeFsSpec {
     promise.reject("ENOENT", "ENOENT: no such file or directory, open '" + filepath + "'");
   }
 
-  private void rejectFileIsDirectory(Promise promise) {
-    promise.reject("EISDIR", "EISDIR: illegal operation on a directory, read");
-  }
-
   private void sendEvent(ReactContext reactContext, String eventName, WritableMap params) {
     RCTDeviceEventEmitter emitter =
       getReactApplicationContext()
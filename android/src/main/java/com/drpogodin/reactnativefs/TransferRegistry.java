@@ -0,0 +1,191 @@
+package com.drpogodin.reactnativefs;
+
+import android.util.SparseArray;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Keeps track of downloads and uploads from their submission until they
+ * complete, and optionally limits the number of transfers running at once.
+ *
+ * Jobs are removed from the registry as soon as they complete, thus finished
+ * transfers (with their params, callbacks, and JS promises) do not stay
+ * reachable. Jobs submitted above the limit are queued, and started in their
+ * submission order as the running ones complete.
+ */
+class TransferRegistry {
+  static final String DOWNLOAD = "download";
+  static final String UPLOAD = "upload";
+
+  static final String QUEUED = "queued";
+  static final String RUNNING = "running";
+
+  /**
+   * The registry side of a transfer.
+   */
+  interface Transfer {
+    void stop();
+
+    /**
+     * @return The number of bytes transferred so far, including those
+     *  transferred by earlier runs of a resumed transfer.
+     */
+    long getBytesTransferred();
+
+    /**
+     * @return The number of bytes transferred by earlier runs of a resumed
+     *  transfer, before this run has started.
+     */
+    long getInitialBytes();
+
+    /**
+     * @return The total size of the transfer, or -1 if not known (yet).
+     */
+    long getTotalBytes();
+  }
+
+  static class Job {
+    final int id;
+    final String type;
+    final String url;
+    final Transfer transfer;
+    final Runnable start;
+    final long queuedAt = System.currentTimeMillis();
+
+    // 0 while the job is queued.
+    volatile long startedAt = 0;
+
+    Job(int id, String type, String url, Transfer transfer, Runnable start) {
+      this.id = id;
+      this.type = type;
+      this.url = url;
+      this.transfer = transfer;
+      this.start = start;
+    }
+
+    String getState() {
+      return startedAt == 0 ? QUEUED : RUNNING;
+    }
+
+    /**
+     * @return The average speed of the current run [bytes/s].
+     */
+    double getSpeed(long now) {
+      if (startedAt == 0 || now <= startedAt) return 0;
+      long bytes = transfer.getBytesTransferred() - transfer.getInitialBytes();
+      return 1000.0 * Math.max(0, bytes) / (now - startedAt);
+    }
+  }
+
+  private final SparseArray<Job> jobs = new SparseArray<>();
+  private final ArrayDeque<Job> queue = new ArrayDeque<>();
+  private final Executor starter;
+  private int maxRunning = Integer.MAX_VALUE;
+  private int numRunning = 0;
+
+  /**
+   * @param starter Starts queued jobs once the limit allows it. complete()
+   *  is called from threads of finishing transfers, which should not be
+   *  borrowed to start other ones.
+   */
+  TransferRegistry(Executor starter) {
+    this.starter = starter;
+  }
+
+  /**
+   * Registers a job, and starts it right away, or queues it if the limit
+   * of running jobs is reached. complete() must be called once the job
+   * completes, in any way.
+   * @param start Starts the transfer, outside of the registry lock.
+   */
+  void submit(int id, String type, String url, Transfer transfer, Runnable start) {
+    Job job = new Job(id, type, url, transfer, start);
+    synchronized (this) {
+      jobs.put(id, job);
+      if (numRunning >= maxRunning) {
+        queue.add(job);
+        return;
+      }
+      ++numRunning;
+      job.startedAt = System.currentTimeMillis();
+    }
+    start.run();
+  }
+
+  /**
+   * Unregisters a completed job, and starts queued ones in its place.
+   */
+  void complete(int id) {
+    synchronized (this) {
+      Job job = jobs.get(id);
+      if (job == null) return;
+      jobs.remove(id);
+      if (job.startedAt != 0) --numRunning;
+      else queue.remove(job);
+    }
+    startQueued();
+  }
+
+  /**
+   * Stops the job. A queued job is started right away, to fail as aborted
+   * and settle its promise, rather than to wait for its turn.
+   */
+  void stop(int id) {
+    Job job;
+    boolean dequeued;
+    synchronized (this) {
+      job = jobs.get(id);
+      if (job == null) return;
+      dequeued = queue.remove(job);
+      if (dequeued) {
+        ++numRunning;
+        job.startedAt = System.currentTimeMillis();
+      }
+    }
+    job.transfer.stop();
+    if (dequeued) job.start.run();
+  }
+
+  /**
+   * @return The transfer of the job, or null if there is no such job,
+   *  or it has completed.
+   */
+  synchronized Transfer get(int id) {
+    Job job = jobs.get(id);
+    return job == null ? null : job.transfer;
+  }
+
+  void setMaxRunning(int max) {
+    if (max < 1) throw new IllegalArgumentException("The maximum number of running transfers must be positive");
+    synchronized (this) {
+      maxRunning = max;
+    }
+    startQueued();
+  }
+
+  /**
+   * @return All registered jobs, ordered by their submission.
+   */
+  synchronized ArrayList<Job> list() {
+    ArrayList<Job> res = new ArrayList<>(jobs.size());
+    for (int i = 0; i < jobs.size(); ++i) res.add(jobs.valueAt(i));
+    // SparseArray is ordered by keys, which are assigned in the submission
+    // order by the JS side.
+    return res;
+  }
+
+  private void startQueued() {
+    ArrayList<Job> toStart = new ArrayList<>();
+    synchronized (this) {
+      while (numRunning < maxRunning && !queue.isEmpty()) {
+        Job job = queue.poll();
+        ++numRunning;
+        job.startedAt = System.currentTimeMillis();
+        toStart.add(job);
+      }
+    }
+    for (Job job : toStart) starter.execute(job.start);
+  }
+}
@@ -0,0 +1,198 @@
+package com.drpogodin.reactnativefs;
+
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.OsConstants;
+import android.util.Log;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Removes file system items in background.
+ *
+ * An item to remove is first renamed into a hidden trash folder on the same
+ * file system, which is an atomic O(1) operation, then the trash content is
+ * deleted by low-priority worker threads. Items left in the trash because of
+ * the app termination are removed when the module is created next time.
+ */
+class Trash {
+  static final String TRASH_FOLDER_NAME = ".rnfs-trash";
+
+  private static final int NUM_WORKERS = 2;
+
+  private final ArrayList<File> trashFolders = new ArrayList<>();
+  private final AtomicInteger counter = new AtomicInteger();
+  private final ThreadPoolExecutor workers;
+
+  /**
+   * @param roots Folders to create trash folders in, one per file system
+   *  where the items can be removed from.
+   */
+  Trash(File... roots) {
+    for (File root : roots) {
+      if (root != null) trashFolders.add(new File(root, TRASH_FOLDER_NAME));
+    }
+    workers = new ThreadPoolExecutor(
+      NUM_WORKERS,
+      NUM_WORKERS,
+      30,
+      TimeUnit.SECONDS,
+      new LinkedBlockingQueue<Runnable>(),
+      new ThreadFactory() {
+        private final AtomicInteger threadCounter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+          Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+              android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_BACKGROUND);
+              runnable.run();
+            }
+          }, "RNFS-Trash-" + threadCounter.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }
+      }
+    );
+    workers.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Moves the given item into a trash folder, and schedules its deletion.
+   * @return False if the item cannot be moved into any trash folder
+   *  (e.g. it resides on another file system); in that case the caller
+   *  should delete it in a regular way.
+   */
+  boolean moveToTrash(File item) {
+    String name = System.currentTimeMillis() + "-" + counter.incrementAndGet();
+    for (File folder : trashFolders) {
+      if (!folder.isDirectory() && !folder.mkdirs()) continue;
+      File target = new File(folder, name);
+      if (item.renameTo(target)) {
+        scheduleDeletion(target);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Schedules deletion of everything left in the trash folders.
+   */
+  void sweep() {
+    workers.execute(new Runnable() {
+      @Override
+      public void run() {
+        for (File folder : trashFolders) {
+          File[] items = folder.listFiles();
+          if (items == null) continue;
+          for (File item : items) scheduleDeletion(item);
+        }
+      }
+    });
+  }
+
+  void shutdown() {
+    workers.shutdown();
+  }
+
+  private void scheduleDeletion(final File item) {
+    // Top-level children are deleted as separate tasks,
+    // so that the workers share the job.
+    File[] children = isDirectory(item) ? item.listFiles() : null;
+    if (children != null) {
+      final AtomicInteger remaining = new AtomicInteger(children.length);
+      if (children.length == 0) workers.execute(new DeleteTask(item, null, null));
+      for (File child : children) {
+        workers.execute(new DeleteTask(child, item, remaining));
+      }
+    } else {
+      workers.execute(new DeleteTask(item, null, null));
+    }
+  }
+
+  /**
+   * Deletes a file, or a folder with all its content. It does not follow
+   * symbolic links, and it does not use recursion, so it works for trees
+   * of any depth.
+   * @return True if everything has been deleted.
+   */
+  static boolean deleteTree(File root) {
+    boolean success = true;
+    ArrayDeque<File> stack = new ArrayDeque<>();
+
+    // Folders are pushed twice: first time to expand their content,
+    // second time (marked by the "expanded" stack) to delete them,
+    // once their content is gone.
+    ArrayDeque<File> expanded = new ArrayDeque<>();
+    stack.push(root);
+    while (!stack.isEmpty()) {
+      File file = stack.pop();
+      if (!expanded.isEmpty() && expanded.peek() == file) {
+        expanded.pop();
+        success &= file.delete();
+        continue;
+      }
+      if (isDirectory(file)) {
+        File[] children = file.listFiles();
+        if (children != null && children.length > 0) {
+          stack.push(file);
+          expanded.push(file);
+          for (File child : children) stack.push(child);
+          continue;
+        }
+      }
+      success &= file.delete();
+    }
+    return success;
+  }
+
+  /**
+   * Checks whether the given item is a folder, without following
+   * symbolic links.
+   */
+  private static boolean isDirectory(File file) {
+    try {
+      return OsConstants.S_ISDIR(Os.lstat(file.getPath()).st_mode);
+    } catch (ErrnoException e) {
+      return false;
+    }
+  }
+
+  private class DeleteTask implements Runnable {
+    private final File item;
+    private final File parent;
+    private final AtomicInteger remaining;
+
+    /**
+     * @param item The item to delete.
+     * @param parent Optional. The folder to delete once all its children,
+     *  counted by "remaining", are gone.
+     */
+    DeleteTask(File item, File parent, AtomicInteger remaining) {
+      this.item = item;
+      this.parent = parent;
+      this.remaining = remaining;
+    }
+
+    @Override
+    public void run() {
+      try {
+        if (!deleteTree(item)) {
+          Log.w(Errors.LOGTAG, "Failed to delete '" + item.getPath() + "' from trash");
+        }
+        if (parent != null && remaining.decrementAndGet() == 0) parent.delete();
+      } catch (Exception e) {
+        Log.e(Errors.LOGTAG, "Failed to delete '" + item.getPath() + "' from trash", e);
+      }
+    }
+  }
+}
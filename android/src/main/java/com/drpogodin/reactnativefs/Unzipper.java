@@ -0,0 +1,245 @@
+package com.drpogodin.reactnativefs;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Extracts ZIP archives into folders.
+ *
+ * Archives in regular files are read with random-access ZipFile: the entry
+ * list is taken from the archive central directory, and the entries are
+ * inflated concurrently by several workers, each with its own ZipFile
+ * instance, so that they do not contend for the same file handle. Archives
+ * which can only be read as streams (e.g. content:// URIs), or extraction
+ * with the concurrency of 1, are handled by ZipInputStream, entry by entry.
+ * Either way, entry data are streamed through pooled buffers.
+ */
+class Unzipper {
+  static final int DEFAULT_CONCURRENCY = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+  private final FileCopier copier;
+  private final FolderCopier.OnProgress onProgress;
+  private final int progressInterval;
+
+  private final ArrayList<String> names = new ArrayList<>();
+  private final ArrayList<File> targets = new ArrayList<>();
+  private final AtomicInteger nextEntry = new AtomicInteger();
+  private final AtomicInteger filesExtracted = new AtomicInteger();
+  private final AtomicLong bytesExtracted = new AtomicLong();
+  private long totalBytes = 0;
+  private long lastProgressEmitTimestamp = 0;
+  private volatile Exception error;
+
+  private File root;
+  private final HashSet<String> folders = new HashSet<>();
+
+  /**
+   * @param copier File copier used to stream entry data; it should not
+   *  have its own progress listener. Stopping it aborts the extraction.
+   * @param onProgress Optional progress listener. It gets -1 as totalBytes
+   *  if the total size is not known in advance (streamed archives).
+   * @param progressInterval The minimal interval [ms] between progress
+   *  notifications.
+   */
+  Unzipper(FileCopier copier, FolderCopier.OnProgress onProgress, int progressInterval) {
+    this.copier = copier;
+    this.onProgress = onProgress;
+    this.progressInterval = progressInterval;
+  }
+
+  /**
+   * Extracts the archive file into the given folder, creating it if
+   * necessary. Existing files are overwritten.
+   * @param concurrency The number of entries inflated concurrently.
+   */
+  FolderCopier.Result unzip(File zip, File into, int concurrency) throws Exception {
+    setRoot(into);
+
+    // Archives may contain several entries with the same name (or names
+    // resolving to the same target); only the last of them is extracted,
+    // as it would overwrite the others anyway, and concurrent workers must
+    // not write into the same file.
+    LinkedHashMap<String, ZipEntry> entriesByTarget = new LinkedHashMap<>();
+    try (ZipFile zipFile = new ZipFile(zip)) {
+      Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        checkAborted();
+        ZipEntry entry = entries.nextElement();
+        File target = getTarget(entry.getName());
+        if (entry.isDirectory()) {
+          createFolder(target);
+        } else {
+          createFolder(target.getParentFile());
+          entriesByTarget.put(target.getPath(), entry);
+        }
+      }
+    }
+    for (Map.Entry<String, ZipEntry> item : entriesByTarget.entrySet()) {
+      ZipEntry entry = item.getValue();
+      names.add(entry.getName());
+      targets.add(new File(item.getKey()));
+      if (totalBytes >= 0) totalBytes = entry.getSize() < 0 ? -1 : totalBytes + entry.getSize();
+    }
+
+    DiskSpace.ensure(root, totalBytes);
+
+    int numWorkers = Math.max(1, Math.min(concurrency, names.size()));
+    if (numWorkers == 1) {
+      if (!names.isEmpty()) new Worker(zip).run();
+    } else {
+      ArrayList<ForkJoinTask<?>> tasks = new ArrayList<>(numWorkers);
+      for (int i = 0; i < numWorkers; ++i) {
+        tasks.add(FolderCopier.getPool().submit(new Worker(zip)));
+      }
+      for (ForkJoinTask<?> task : tasks) task.join();
+    }
+    if (error != null) throw error;
+
+    return getResult();
+  }
+
+  /**
+   * Extracts the archive read from the stream entry by entry, and closes
+   * the stream.
+   */
+  FolderCopier.Result unzip(InputStream in, File into) throws Exception {
+    setRoot(into);
+    totalBytes = -1;
+
+    // Entries with the same target are extracted in turn, the last one
+    // overwrites the others, but the file, and its size, are only counted
+    // once, as when extracted from an archive file.
+    HashMap<String, Long> extracted = new HashMap<>();
+    try (ZipInputStream zip = new ZipInputStream(in)) {
+      ZipEntry entry;
+      while ((entry = zip.getNextEntry()) != null) {
+        checkAborted();
+        File target = getTarget(entry.getName());
+        if (entry.isDirectory()) {
+          createFolder(target);
+        } else {
+          createFolder(target.getParentFile());
+          boolean isNew = !extracted.containsKey(target.getPath());
+          if (isNew) names.add(entry.getName());
+          long bytes;
+          try (OutputStream out = new FileOutputStream(target)) {
+            bytes = copier.copy(zip, out, -1);
+          }
+          Long overwritten = extracted.put(target.getPath(), bytes);
+          bytesExtracted.addAndGet(overwritten == null ? bytes : bytes - overwritten);
+          if (isNew) filesExtracted.incrementAndGet();
+          reportProgress(false);
+        }
+      }
+    }
+    return getResult();
+  }
+
+  private void setRoot(File into) throws IOException {
+    root = into.getCanonicalFile();
+    createFolder(root);
+  }
+
+  /**
+   * Resolves the extraction target of an entry, and rejects entries which
+   * would be extracted outside of the destination folder.
+   */
+  private File getTarget(String name) throws IORejectionException {
+    // The check is lexical, to avoid resolving canonical paths per entry;
+    // names are relative to the root even if they start with a slash.
+    for (String segment : name.split("[/\\\\]")) {
+      if ("..".equals(segment)) {
+        throw new IORejectionException("EINVAL", "EINVAL: archive entry '" + name + "' points outside of the destination folder");
+      }
+    }
+    return new File(root, name);
+  }
+
+  private void createFolder(File folder) throws IOException {
+    String path = folder.getPath();
+    if (folders.contains(path)) return;
+    if (!folder.isDirectory() && !folder.mkdirs()) {
+      throw new IOException("Directory '" + path + "' could not be created");
+    }
+    folders.add(path);
+  }
+
+  private void checkAborted() throws IORejectionException {
+    if (copier.isAborted()) {
+      throw new IORejectionException("ECANCELED", "ECANCELED: extraction has been aborted");
+    }
+  }
+
+  private FolderCopier.Result getResult() {
+    FolderCopier.Result result = new FolderCopier.Result();
+    result.directories = folders.size();
+    result.files = names.size();
+    result.bytes = bytesExtracted.get();
+    reportProgress(true);
+    return result;
+  }
+
+  private void reportProgress(boolean isFinal) {
+    if (onProgress == null) return;
+    synchronized (this) {
+      long timestamp = System.currentTimeMillis();
+      if (!isFinal && timestamp - lastProgressEmitTimestamp < progressInterval) return;
+      lastProgressEmitTimestamp = timestamp;
+    }
+    long bytes = bytesExtracted.get();
+    int files = filesExtracted.get();
+    onProgress.onProgress(files, isFinal || totalBytes < 0 ? files : names.size(), bytes, isFinal ? bytes : totalBytes);
+  }
+
+  /**
+   * Takes the next entries from the shared list, and extracts them until
+   * none remains.
+   */
+  private class Worker implements Runnable {
+    private final File zip;
+
+    Worker(File zip) {
+      this.zip = zip;
+    }
+
+    @Override
+    public void run() {
+      try (ZipFile zipFile = new ZipFile(zip)) {
+        int i;
+        while (error == null && (i = nextEntry.getAndIncrement()) < names.size()) {
+          ZipEntry entry = zipFile.getEntry(names.get(i));
+          try (
+            InputStream in = zipFile.getInputStream(entry);
+            OutputStream out = new FileOutputStream(targets.get(i))
+          ) {
+            bytesExtracted.addAndGet(copier.copy(in, out, -1));
+          }
+          filesExtracted.incrementAndGet();
+          reportProgress(false);
+        }
+      } catch (Exception e) {
+        // Keeps the first error only, as the following ones are most probably
+        // caused by the abort below.
+        synchronized (Unzipper.this) {
+          if (error == null) error = e;
+        }
+        copier.stop();
+      }
+    }
+  }
+}
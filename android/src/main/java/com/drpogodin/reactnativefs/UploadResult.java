@@ -7,4 +7,5 @@ public class UploadResult {
     public WritableMap headers;
     public Exception exception;
     public String body;
+    public long bytesSent;
 }
@@ -13,21 +13,23 @@ import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
-import java.nio.channels.Channels;
-import java.nio.channels.FileChannel;
-import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-public class Uploader extends AsyncTask<UploadParams, int[], UploadResult> {
+public class Uploader extends AsyncTask<UploadParams, int[], UploadResult> implements TransferRegistry.Transfer {
     private UploadParams mParams;
     private UploadResult res;
     private AtomicBoolean mAbort = new AtomicBoolean(false);
 
+    // Progress of the upload, for the transfer registry.
+    private volatile long bytesTransferred = 0;
+    private volatile long totalBytes = -1;
+
     @Override
     protected UploadResult doInBackground(UploadParams... uploadParams) {
         mParams = uploadParams[0];
@@ -50,20 +52,14 @@ public class Uploader extends AsyncTask<UploadParams, int[], UploadResult> {
     private void upload(UploadParams params, UploadResult result) throws Exception {
         HttpURLConnection connection = null;
         DataOutputStream request = null;
-        String crlf = "\r\n";
-        String twoHyphens = "--";
-        String boundary = "*****";
-        String tail = crlf + twoHyphens + boundary + twoHyphens + crlf;
-        String metaData = "", stringData = "";
-        String[] fileHeader;
-        int statusCode, byteSentTotal;
-        int fileCount = 0;
-        long totalFileLength = 0;
+        int statusCode;
         BufferedInputStream responseStream = null;
         BufferedReader responseStreamReader = null;
         String name, filename, filetype;
         try {
-            Object[] files = params.files.toArray();
+            // An upload stopped while it was queued.
+            if (mAbort.get()) throw new Exception("Upload has been aborted");
+
             boolean binaryStreamOnly = params.binaryStreamOnly;
 
             connection = (HttpURLConnection) params.src.openConnection();
@@ -71,7 +67,7 @@ public class Uploader extends AsyncTask<UploadParams, int[], UploadResult> {
             ReadableMapKeySetIterator headerIterator = params.headers.keySetIterator();
             connection.setRequestMethod(params.method);
             if (!binaryStreamOnly) {
-                connection.setRequestProperty("Content-Type", "multipart/form-data;boundary=" + boundary);
+                connection.setRequestProperty("Content-Type", "multipart/form-data;boundary=" + MultipartBody.BOUNDARY);
             }
             while (headerIterator.hasNextKey()) {
                 String key = headerIterator.nextKey();
@@ -79,15 +75,14 @@ public class Uploader extends AsyncTask<UploadParams, int[], UploadResult> {
                 connection.setRequestProperty(key, value);
             }
 
+            Map<String, String> fields = new LinkedHashMap<>();
             ReadableMapKeySetIterator fieldsIterator = params.fields.keySetIterator();
-
             while (fieldsIterator.hasNextKey()) {
                 String key = fieldsIterator.nextKey();
-                String value = params.fields.getString(key);
-                metaData += twoHyphens + boundary + crlf + "Content-Disposition: form-data; name=\"" + key + "\"" + crlf + crlf + value +crlf;
+                fields.put(key, params.fields.getString(key));
             }
-            stringData += metaData;
-            fileHeader = new String[files.length];
+
+            List<MultipartBody.Part> parts = new ArrayList<>(params.files.size());
             for (ReadableMap map : params.files) {
                 try {
                     name = map.getString("name");
@@ -98,80 +93,30 @@ public class Uploader extends AsyncTask<UploadParams, int[], UploadResult> {
                     filename = map.getString("filename");
                     filetype = getMimeType(map.getString("filepath"));
                 }
-                File file = new File(map.getString("filepath"));
-                long fileLength = file.length();
-                totalFileLength += fileLength;
-                if (!binaryStreamOnly) {
-                    String fileHeaderType = twoHyphens + boundary + crlf +
-                            "Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + filename + "\"" + crlf +
-                            "Content-Type: " + filetype + crlf;
-                    ;
-                    if (files.length - 1 == fileCount){
-                        totalFileLength += tail.length();
-                    }
-
-                    String fileLengthHeader = "Content-length: " + fileLength + crlf;
-                    fileHeader[fileCount] = fileHeaderType + fileLengthHeader + crlf;
-                    stringData += fileHeaderType + fileLengthHeader + crlf;
-                }
-                fileCount++;
+                parts.add(new MultipartBody.Part(name, filename, filetype, new File(map.getString("filepath"))));
             }
-            fileCount = 0;
+
+            MultipartBody body = new MultipartBody(fields, parts, binaryStreamOnly);
+            final long totalFileLength = body.getFilesLength();
+            totalBytes = totalFileLength;
             if (mParams.onUploadBegin != null) {
                 mParams.onUploadBegin.onUploadBegin();
             }
             if (!binaryStreamOnly) {
-                long requestLength = totalFileLength;
-                requestLength += stringData.length() + files.length * crlf.length();
+                long requestLength = body.getLength();
                 connection.setRequestProperty("Content-length", "" +(int) requestLength);
                 connection.setFixedLengthStreamingMode((int)requestLength);
             }
             connection.connect();
 
             request = new DataOutputStream(connection.getOutputStream());
-            WritableByteChannel requestChannel = Channels.newChannel(request);
-
-            if (!binaryStreamOnly) {
-                request.writeBytes(metaData);
-            }
-
-            byteSentTotal = 0;
-
-            for (ReadableMap map : params.files) {
-                if (!binaryStreamOnly) {
-                    request.writeBytes(fileHeader[fileCount]);
+            body.writeTo(request, mAbort, bytesSent -> {
+                res.bytesSent = bytesSent;
+                bytesTransferred = bytesSent;
+                if (mParams.onUploadProgress != null) {
+                    mParams.onUploadProgress.onUploadProgress((int) totalFileLength, (int) bytesSent);
                 }
-
-                File file = new File(map.getString("filepath"));
-
-                long fileLength = file.length();
-                long bufferSize = (long) Math.ceil(fileLength / 100.f);
-                long bytesRead = 0;
-
-                FileInputStream fileStream = new FileInputStream(file);
-                FileChannel fileChannel = fileStream.getChannel();
-
-                while (bytesRead < fileLength) {
-                    long transferredBytes = fileChannel.transferTo(bytesRead, bufferSize, requestChannel);
-                    bytesRead += transferredBytes;
-
-                    if (mParams.onUploadProgress != null) {
-                        byteSentTotal += transferredBytes;
-                        mParams.onUploadProgress.onUploadProgress((int) totalFileLength, byteSentTotal);
-                    }
-                }
-
-                if (!binaryStreamOnly) {
-                    request.writeBytes(crlf);
-                }
-
-                fileCount++;
-                fileStream.close();
-            }
-
-            if (!binaryStreamOnly) {
-                request.writeBytes(tail);
-            }
+            });
             request.flush();
             request.close();
 
@@ -219,7 +164,19 @@ public class Uploader extends AsyncTask<UploadParams, int[], UploadResult> {
         return type;
     }
 
-    protected void stop() {
+    public void stop() {
         mAbort.set(true);
     }
+
+    public long getBytesTransferred() {
+        return bytesTransferred;
+    }
+
+    public long getInitialBytes() {
+        return 0;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
 }
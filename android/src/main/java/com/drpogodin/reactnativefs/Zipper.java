@@ -0,0 +1,163 @@
+package com.drpogodin.reactnativefs;
+
+import android.system.OsConstants;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Packs content of a folder into a ZIP archive.
+ *
+ * File data are streamed into the archive through pooled buffers, thus
+ * the memory use does not depend on the file sizes. The archiving can be
+ * aborted with the FileCopier passed in.
+ */
+class Zipper {
+  private final FileCopier copier;
+  private final FolderCopier.OnProgress onProgress;
+  private final int progressInterval;
+  private final int level;
+
+  private final ArrayList<File> files = new ArrayList<>();
+  private final ArrayList<String> names = new ArrayList<>();
+  private final ArrayList<String> folderNames = new ArrayList<>();
+  private long totalBytes = 0;
+  private long lastProgressEmitTimestamp = 0;
+
+  /**
+   * @param copier Its abort flag is checked while archiving; it should not
+   *  have its own progress listener.
+   * @param onProgress Optional progress listener.
+   * @param progressInterval The minimal interval [ms] between progress
+   *  notifications.
+   * @param level Compression level, 0-9, or Deflater.DEFAULT_COMPRESSION.
+   */
+  Zipper(FileCopier copier, FolderCopier.OnProgress onProgress, int progressInterval, int level) throws IORejectionException {
+    if (level != Deflater.DEFAULT_COMPRESSION && (level < 0 || level > 9)) {
+      throw new IORejectionException("EINVAL", "EINVAL: invalid compression level " + level);
+    }
+    this.copier = copier;
+    this.onProgress = onProgress;
+    this.progressInterval = progressInterval;
+    this.level = level;
+  }
+
+  /**
+   * Packs the content of "from" folder into the given stream, and closes it.
+   * @param exclude Optional. The file to leave out of the archive, i.e.
+   *  the archive itself, if it is written inside the source folder.
+   */
+  FolderCopier.Result zip(File from, OutputStream into, File exclude) throws Exception {
+    try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(into, FileCopier.BUFFER_SIZE))) {
+      if (!from.isDirectory()) {
+        throw new IORejectionException("ENOTDIR", "ENOTDIR: not a directory, open '" + from.getPath() + "'");
+      }
+      zip.setLevel(level);
+
+      FolderCopier.Result result = new FolderCopier.Result();
+      result.directories = collect(from, exclude == null ? null : exclude.getCanonicalFile());
+      result.files = files.size();
+
+      for (String name : folderNames) {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.closeEntry();
+      }
+
+      byte[] buffer = FileCopier.acquireBuffer();
+      try {
+        for (int i = 0; i < files.size(); ++i) {
+          File file = files.get(i);
+          ZipEntry entry = new ZipEntry(names.get(i));
+          entry.setTime(file.lastModified());
+          zip.putNextEntry(entry);
+          try (InputStream in = new FileInputStream(file)) {
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+              checkAborted();
+              zip.write(buffer, 0, count);
+              result.bytes += count;
+              reportProgress(i, result.bytes, false);
+            }
+          }
+          zip.closeEntry();
+        }
+      } finally {
+        FileCopier.releaseBuffer(buffer);
+      }
+
+      reportProgress(files.size(), result.bytes, true);
+      return result;
+    }
+  }
+
+  /**
+   * Walks the source tree, collecting the files and folders to pack.
+   * @return The number of folders, including the root one.
+   */
+  private int collect(File root, File exclude) throws IOException, IORejectionException {
+    int count = 0;
+    ArrayDeque<File> queue = new ArrayDeque<>();
+    ArrayDeque<String> prefixes = new ArrayDeque<>();
+    queue.add(root);
+    prefixes.add("");
+    while (!queue.isEmpty()) {
+      checkAborted();
+      File folder = queue.poll();
+      String prefix = prefixes.poll();
+      ++count;
+
+      File[] children = folder.listFiles();
+      if (children == null) continue;
+      for (File child : children) {
+        FileAttributes attrs = FileAttributes.get(child.getPath(), false);
+        if (attrs == null) continue;
+        String name = prefix + child.getName();
+        if (attrs.isDirectory) {
+          folderNames.add(name + "/");
+          queue.add(child);
+          prefixes.add(name + "/");
+        } else if (attrs.isSymbolicLink) {
+          // Symbolic links are archived as the files they point to;
+          // links to folders are skipped to avoid loops, and dangling
+          // links are skipped as well.
+          FileAttributes target = FileAttributes.get(child.getPath());
+          if (target != null && !target.isDirectory && !OsConstants.S_ISLNK(target.mode)) addFile(child, name, target.size, exclude);
+        } else {
+          addFile(child, name, attrs.size, exclude);
+        }
+      }
+    }
+    return count;
+  }
+
+  private void addFile(File file, String name, long size, File exclude) throws IOException {
+    if (exclude != null && exclude.getName().equals(file.getName())
+      && exclude.equals(file.getCanonicalFile())) return;
+    files.add(file);
+    names.add(name);
+    totalBytes += size;
+  }
+
+  private void checkAborted() throws IORejectionException {
+    if (copier.isAborted()) {
+      throw new IORejectionException("ECANCELED", "ECANCELED: archiving has been aborted");
+    }
+  }
+
+  private void reportProgress(int filesZipped, long bytesZipped, boolean isFinal) {
+    if (onProgress == null) return;
+    long timestamp = System.currentTimeMillis();
+    if (!isFinal && timestamp - lastProgressEmitTimestamp < progressInterval) return;
+    lastProgressEmitTimestamp = timestamp;
+    onProgress.onProgress(filesZipped, files.size(), bytesZipped, isFinal ? bytesZipped : totalBytes);
+  }
+}
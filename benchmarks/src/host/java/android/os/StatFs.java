@@ -0,0 +1,18 @@
+package android.os;
+
+import java.io.File;
+
+/**
+ * Host stand-in of android.os.StatFs.
+ */
+public class StatFs {
+  private final File path;
+
+  public StatFs(String path) {
+    this.path = new File(path);
+  }
+
+  public long getAvailableBytes() {
+    return path.getUsableSpace();
+  }
+}
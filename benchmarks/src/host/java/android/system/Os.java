@@ -0,0 +1,16 @@
+package android.system;
+
+import java.io.FileDescriptor;
+
+/**
+ * Host stand-in of android.system.Os. The JVM has no portable fallocate(),
+ * thus the preallocation is reported as not supported, and files just grow
+ * as they are written.
+ */
+public final class Os {
+  private Os() {}
+
+  public static void posix_fallocate(FileDescriptor fd, long offset, long length) throws ErrnoException {
+    throw new ErrnoException("posix_fallocate", OsConstants.EOPNOTSUPP);
+  }
+}
@@ -0,0 +1,11 @@
+package android.system;
+
+/**
+ * Host stand-in of android.system.OsConstants, with Linux values.
+ */
+public final class OsConstants {
+  private OsConstants() {}
+
+  public static final int ENOSPC = 28;
+  public static final int EOPNOTSUPP = 95;
+}
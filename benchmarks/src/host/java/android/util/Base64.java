@@ -0,0 +1,33 @@
+package android.util;
+
+/**
+ * Host stand-in of android.util.Base64, backed by java.util.Base64. It covers
+ * the flags used by the module: DEFAULT (76-character lines on encoding;
+ * line breaks and other non-alphabet characters skipped on decoding),
+ * and NO_WRAP. The codec differs from the Android one, thus benchmarks using
+ * it measure the surrounding code, rather than the Android codec itself.
+ */
+public final class Base64 {
+  public static final int DEFAULT = 0;
+  public static final int NO_WRAP = 2;
+
+  private Base64() {}
+
+  public static byte[] decode(String str, int flags) {
+    return java.util.Base64.getMimeDecoder().decode(str);
+  }
+
+  public static String encodeToString(byte[] input, int flags) {
+    return encodeToString(input, 0, input.length, flags);
+  }
+
+  public static String encodeToString(byte[] input, int offset, int len, int flags) {
+    java.util.Base64.Encoder encoder = (flags & NO_WRAP) != 0
+      ? java.util.Base64.getEncoder()
+      : java.util.Base64.getMimeEncoder(76, new byte[]{'\n'});
+    if (offset != 0 || len != input.length) {
+      input = java.util.Arrays.copyOfRange(input, offset, offset + len);
+    }
+    return encoder.encodeToString(input);
+  }
+}
@@ -0,0 +1,19 @@
+package android.util;
+
+/**
+ * Host stand-in of android.util.Log, it prints to the standard error.
+ */
+public final class Log {
+  private Log() {}
+
+  public static int d(String tag, String msg) {
+    System.err.println(tag + ": " + msg);
+    return 0;
+  }
+
+  public static int e(String tag, String msg, Throwable tr) {
+    System.err.println(tag + ": " + msg);
+    if (tr != null) tr.printStackTrace();
+    return 0;
+  }
+}
@@ -0,0 +1,8 @@
+package com.facebook.react.bridge;
+
+/**
+ * Host stand-in of the React Native Promise, referenced by Errors.
+ */
+public interface Promise {
+  void reject(String code, String message, Throwable throwable);
+}
@@ -0,0 +1,85 @@
+package com.drpogodin.reactnativefs;
+
+import android.util.Base64;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The Base64 paths of readFile() and writeFile(): reading a whole file into
+ * memory by chunks of different sizes (readFile() uses 1 KB ones), and
+ * encoding it; and decoding the content and writing it into a file.
+ * The host Base64 codec stands in for the Android one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class Base64Benchmark {
+  @Param({"4096", "262144", "4194304"})
+  public int size;
+
+  @State(Scope.Benchmark)
+  public static class Buffer {
+    @Param({"1024", "65536", "262144"})
+    public int bufferSize;
+  }
+
+  private File dir;
+  private File source;
+  private File target;
+  private String content;
+
+  @Setup
+  public void setup() throws IOException {
+    dir = Files.createTempDirectory("rnfs-bench").toFile();
+    source = new File(dir, "source");
+    target = new File(dir, "target");
+    byte[] data = new byte[size];
+    new Random(42).nextBytes(data);
+    try (OutputStream out = new FileOutputStream(source)) {
+      out.write(data);
+    }
+    content = Base64.encodeToString(data, Base64.NO_WRAP);
+  }
+
+  @TearDown
+  public void tearDown() {
+    source.delete();
+    target.delete();
+    dir.delete();
+  }
+
+  @Benchmark
+  public String readFile(Buffer buffer) throws Exception {
+    try (InputStream in = new FileInputStream(source)) {
+      byte[] data = FileCopier.readAll(in, buffer.bufferSize);
+      return Base64.encodeToString(data, Base64.NO_WRAP);
+    }
+  }
+
+  @Benchmark
+  public int writeFile() throws Exception {
+    byte[] bytes = Base64.decode(content, Base64.DEFAULT);
+    try (OutputStream out = new FileOutputStream(target)) {
+      out.write(bytes);
+    }
+    return bytes.length;
+  }
+}
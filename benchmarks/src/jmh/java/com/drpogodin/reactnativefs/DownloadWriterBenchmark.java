@@ -0,0 +1,80 @@
+package com.drpogodin.reactnativefs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The download write loop of DownloadWriter, with read buffers of different
+ * sizes (downloads use 64 KB ones), and progress notified for each chunk,
+ * as by default. The response body comes from memory, through the same 8 KB
+ * buffered stream downloads read the connection with.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DownloadWriterBenchmark {
+  @Param({"262144", "16777216"})
+  public int size;
+
+  @Param({"8192", "65536", "262144"})
+  public int bufferSize;
+
+  private final AtomicBoolean abort = new AtomicBoolean(false);
+  private byte[] data;
+  private File dir;
+  private File target;
+
+  @Setup
+  public void setup() throws IOException {
+    data = new byte[size];
+    new Random(42).nextBytes(data);
+    dir = Files.createTempDirectory("rnfs-bench").toFile();
+    target = new File(dir, "target");
+  }
+
+  @TearDown
+  public void tearDown() {
+    target.delete();
+    dir.delete();
+  }
+
+  @Benchmark
+  public long write(final Blackhole blackhole) throws Exception {
+    DownloadWriter writer = new DownloadWriter(bufferSize);
+    writer.progress = true;
+    try (
+      BufferedInputStream in = new BufferedInputStream(new ByteArrayInputStream(data), 8 * 1024);
+      FileOutputStream out = new FileOutputStream(target)
+    ) {
+      return writer.write(in, out, target, 0, size, abort, new DownloadWriter.Listener() {
+        public void onWritten(long total) {
+          blackhole.consume(total);
+        }
+
+        public void onProgress(long total) {
+          blackhole.consume(total);
+        }
+
+        public void onCheckpoint(long total) {}
+      });
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.drpogodin.reactnativefs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copying of a single file by FileCopier: file-to-file copies, done with
+ * FileChannel.transferTo(), and stream copies through buffers of different
+ * sizes (the default 256 KB ones are pooled), used for content:// URIs and
+ * other non-file sources.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FileCopierBenchmark {
+  @Param({"4096", "262144", "4194304", "16777216"})
+  public int size;
+
+  @State(Scope.Benchmark)
+  public static class Buffer {
+    @Param({"8192", "65536", "262144", "1048576"})
+    public int bufferSize;
+  }
+
+  private File dir;
+  private File source;
+  private File target;
+
+  @Setup
+  public void setup() throws IOException {
+    dir = Files.createTempDirectory("rnfs-bench").toFile();
+    source = new File(dir, "source");
+    target = new File(dir, "target");
+    byte[] data = new byte[size];
+    new Random(42).nextBytes(data);
+    try (OutputStream out = new FileOutputStream(source)) {
+      out.write(data);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    source.delete();
+    target.delete();
+    dir.delete();
+  }
+
+  @Benchmark
+  public long copyFile() throws Exception {
+    return new FileCopier(null, 0).copy(source, target);
+  }
+
+  @Benchmark
+  public long copyStream(Buffer buffer) throws Exception {
+    try (
+      InputStream in = new FileInputStream(source);
+      OutputStream out = new FileOutputStream(target)
+    ) {
+      return new FileCopier(null, 0, buffer.bufferSize).copy(in, out, size);
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package com.drpogodin.reactnativefs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copying of a folder with many small files by FolderCopier, which copies
+ * them concurrently on its fork/join pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FolderCopierBenchmark {
+  @Param({"256"})
+  public int numFiles;
+
+  @Param({"4096", "65536"})
+  public int fileSize;
+
+  private File dir;
+  private File source;
+  private File target;
+
+  @Setup
+  public void setup() throws IOException {
+    dir = Files.createTempDirectory("rnfs-bench").toFile();
+    source = new File(dir, "source");
+    target = new File(dir, "target");
+    source.mkdirs();
+    byte[] data = new byte[fileSize];
+    new Random(42).nextBytes(data);
+    for (int i = 0; i < numFiles; ++i) {
+      File folder = new File(source, "folder-" + (i % 8));
+      folder.mkdirs();
+      try (OutputStream out = new FileOutputStream(new File(folder, "file-" + i))) {
+        out.write(data);
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    delete(dir);
+  }
+
+  @Benchmark
+  public long copyFolder() throws Exception {
+    FolderCopier copier = new FolderCopier(new FileCopier(null, 0), null, 0);
+    return copier.copy(source, target).bytes;
+  }
+
+  private static void delete(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) delete(child);
+    }
+    file.delete();
+  }
+}
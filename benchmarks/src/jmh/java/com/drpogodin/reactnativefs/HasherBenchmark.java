@@ -0,0 +1,56 @@
+package com.drpogodin.reactnativefs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashing of in-memory data by Hasher, i.e. the digest computation cost,
+ * without the file system.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HasherBenchmark {
+  @Param({"4096", "262144", "4194304"})
+  public int size;
+
+  @Param({"md5", "sha1", "sha256", "crc32", "xxhash64"})
+  public String algorithm;
+
+  private byte[] data;
+
+  @Setup
+  public void setup() {
+    data = new byte[size];
+    new Random(42).nextBytes(data);
+  }
+
+  @Benchmark
+  public Map<String, String> hash() throws Exception {
+    Hasher hasher = new Hasher(algorithm);
+    hasher.update(new ByteArrayInputStream(data), 0, -1);
+    return hasher.digest();
+  }
+
+  /**
+   * Computes the algorithm together with md5 in a single pass, as
+   * hashWithOptions() does, to compare against two separate hash() calls.
+   */
+  @Benchmark
+  public Map<String, String> hashWithMd5() throws Exception {
+    Hasher hasher = new Hasher("md5", algorithm);
+    hasher.update(new ByteArrayInputStream(data), 0, -1);
+    return hasher.digest();
+  }
+}
@@ -0,0 +1,90 @@
+package com.drpogodin.reactnativefs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatch overhead of IOExecutor: batches of short tasks bound to a single
+ * path (fully serialized), to distinct paths (spread over the stripes),
+ * and to pairs of paths (as copies are).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IOExecutorBenchmark {
+  private static final int BATCH = 1000;
+
+  // The amount of work done by each task, in JMH CPU tokens.
+  private static final long TASK_TOKENS = 100;
+
+  @Param({"2", "4"})
+  public int poolSize;
+
+  private IOExecutor executor;
+  private String[] paths;
+
+  @Setup
+  public void setup() {
+    executor = new IOExecutor("RNFS-Bench", poolSize);
+    paths = new String[BATCH];
+    for (int i = 0; i < BATCH; ++i) paths[i] = "/data/file-" + i;
+  }
+
+  @TearDown
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public void samePath() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(BATCH);
+    for (int i = 0; i < BATCH; ++i) executor.execute(paths[0], task(latch));
+    latch.await();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public void distinctPaths() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(BATCH);
+    for (int i = 0; i < BATCH; ++i) executor.execute(paths[i], task(latch));
+    latch.await();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public void pathPairs() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(BATCH);
+    for (int i = 0; i < BATCH; ++i) {
+      executor.execute(paths[i], paths[(i + 1) % BATCH], task(latch));
+    }
+    latch.await();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public void unordered() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(BATCH);
+    for (int i = 0; i < BATCH; ++i) executor.execute(task(latch));
+    latch.await();
+  }
+
+  private static Runnable task(CountDownLatch latch) {
+    return () -> {
+      Blackhole.consumeCPU(TASK_TOKENS);
+      latch.countDown();
+    };
+  }
+}
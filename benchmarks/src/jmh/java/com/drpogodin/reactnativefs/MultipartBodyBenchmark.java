@@ -0,0 +1,89 @@
+package com.drpogodin.reactnativefs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Construction of upload request bodies by MultipartBody: the part headers,
+ * and the file content moved into the request by FileChannel.transferTo().
+ * The request is a sink discarding the data, thus the numbers show the cost
+ * of the body construction, without the network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MultipartBodyBenchmark {
+  @Param({"1", "16"})
+  public int numFiles;
+
+  @Param({"65536", "4194304"})
+  public int fileSize;
+
+  private static final OutputStream SINK = new OutputStream() {
+    @Override
+    public void write(int b) {}
+
+    @Override
+    public void write(byte[] b, int off, int len) {}
+  };
+
+  private final AtomicBoolean abort = new AtomicBoolean(false);
+  private File dir;
+  private Map<String, String> fields;
+  private List<MultipartBody.Part> parts;
+
+  @Setup
+  public void setup() throws IOException {
+    dir = Files.createTempDirectory("rnfs-bench").toFile();
+    fields = new LinkedHashMap<>();
+    fields.put("description", "Benchmark upload");
+    fields.put("owner", "benchmark");
+
+    Random random = new Random(42);
+    byte[] data = new byte[fileSize];
+    parts = new ArrayList<>(numFiles);
+    for (int i = 0; i < numFiles; ++i) {
+      File file = new File(dir, "file-" + i + ".bin");
+      random.nextBytes(data);
+      try (OutputStream out = new FileOutputStream(file)) {
+        out.write(data);
+      }
+      parts.add(new MultipartBody.Part("file-" + i, file.getName(), "application/octet-stream", file));
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    for (MultipartBody.Part part : parts) part.file.delete();
+    dir.delete();
+  }
+
+  @Benchmark
+  public long writeTo(Blackhole blackhole) throws Exception {
+    MultipartBody body = new MultipartBody(fields, parts, false);
+    body.writeTo(new DataOutputStream(SINK), abort, blackhole::consume);
+    return body.getLength();
+  }
+}
@@ -4,6 +4,7 @@ import { Alert, Button, SafeAreaView, ScrollView } from 'react-native';
 
 import { pickFile, read } from '@dr.pogodin/react-native-fs';
 
+import Benchmarks from './Benchmarks';
 import TestBaseMethods from './TestBaseMethods';
 import TestConstants from './TestConstants';
 import { start, stop } from './testServer';
@@ -34,6 +35,7 @@ export default function App() {
           }}
           title="pickFile()"
         />
+        <Benchmarks />
       </ScrollView>
     </SafeAreaView>
   );
@@ -0,0 +1,530 @@
+import React from 'react';
+import { Button, Text, View } from 'react-native';
+
+import {
+  copyFile,
+  copyFolder,
+  downloadFile,
+  du,
+  exists,
+  getMetrics,
+  hash,
+  hashMany,
+  mkdir,
+  readdir,
+  readDir,
+  readFile,
+  resetMetrics,
+  setMetricsEnabled,
+  TemporaryDirectoryPath,
+  unlink,
+  unzip,
+  uploadFiles,
+  writeFile,
+  zip,
+} from '@dr.pogodin/react-native-fs';
+
+import { FILE_DIR, waitServer } from './testServer';
+
+import styles from './styles';
+
+// Benchmarks are not run automatically, as some of them take long time;
+// each one is started by its button, and reports its timings once done.
+
+type BenchmarkT = () => Promise<string>;
+
+const ROOT = `${TemporaryDirectoryPath}/benchmarks`;
+
+/**
+ * Measures the time [ms] taken by the given async function.
+ */
+async function time(fn: () => Promise<unknown>): Promise<number> {
+  const start = Date.now();
+  await fn();
+  return Date.now() - start;
+}
+
+async function reset(path: string) {
+  if (await exists(path)) await unlink(path);
+}
+
+/**
+ * Creates a tree of `numDirs` folders with `filesPerDir` small files each,
+ * unless it has been created by a previous run.
+ */
+async function createSmallFilesTree(
+  path: string,
+  numDirs: number,
+  filesPerDir: number,
+) {
+  if (await exists(`${path}/${numDirs - 1}/${filesPerDir - 1}.txt`)) return;
+  const content = 'x'.repeat(1024);
+  for (let i = 0; i < numDirs; ++i) {
+    await mkdir(`${path}/${i}`);
+    const writes = [];
+    for (let j = 0; j < filesPerDir; ++j) {
+      writes.push(writeFile(`${path}/${i}/${j}.txt`, content));
+    }
+    await Promise.all(writes);
+  }
+}
+
+/**
+ * Creates a folder with `numFiles` empty files,
+ * unless it has been created by a previous run.
+ */
+async function createFlatFolder(path: string, numFiles: number) {
+  if (await exists(`${path}/${numFiles - 1}.txt`)) return;
+  await mkdir(path);
+  const BATCH_SIZE = 500;
+  for (let i = 0; i < numFiles; i += BATCH_SIZE) {
+    const writes = [];
+    for (let j = i; j < Math.min(i + BATCH_SIZE, numFiles); ++j) {
+      writes.push(writeFile(`${path}/${j}.txt`, ''));
+    }
+    await Promise.all(writes);
+  }
+}
+
+/**
+ * Creates a folder with `numFiles` files of `sizeMb` megabytes each,
+ * unless it has been created by a previous run.
+ */
+async function createLargeFiles(
+  path: string,
+  numFiles: number,
+  sizeMb: number,
+) {
+  if (await exists(`${path}/${numFiles - 1}.txt`)) return;
+  await mkdir(path);
+  const content = 'Lorem ipsum dolor sit amet. '.repeat((sizeMb << 20) / 28);
+  for (let i = 0; i < numFiles; ++i) {
+    await writeFile(`${path}/${i}.txt`, content);
+  }
+}
+
+/**
+ * Zips the given folder (once), then extracts it with a single-threaded
+ * ZipInputStream (concurrency 1), and with parallel ZipFile extraction.
+ */
+async function compareUnzip(src: string): Promise<string> {
+  const archive = `${src}.zip`;
+  const dest = `${src}-unzipped`;
+  await reset(archive);
+  const zipTime = await time(() => zip(src, archive));
+
+  await reset(dest);
+  const streamTime = await time(() =>
+    unzip(archive, dest, { concurrency: 1 }),
+  );
+
+  await reset(dest);
+  const parallelTime = await time(() => unzip(archive, dest));
+
+  await reset(dest);
+  return `zip(): ${zipTime} ms; unzip() with ZipInputStream: ${streamTime} ms; unzip() in parallel: ${parallelTime} ms`;
+}
+
+/**
+ * Runs `fn(i)` for i in [0; numCalls) with at most `concurrency` calls
+ * in flight at any time.
+ */
+async function runConcurrently(
+  numCalls: number,
+  concurrency: number,
+  fn: (i: number) => Promise<unknown>,
+) {
+  let next = 0;
+  const workers = [];
+  for (let w = 0; w < concurrency; ++w) {
+    workers.push(
+      (async () => {
+        while (next < numCalls) await fn(next++);
+      })(),
+    );
+  }
+  await Promise.all(workers);
+}
+
+/**
+ * Formats native-side latencies and throughput of the given methods, from
+ * the metrics collected since the last resetMetrics() call. Unlike timings
+ * measured in JS, these do not include the bridge and Base64 overheads.
+ */
+async function formatMetrics(methods: string[]): Promise<string> {
+  const { operations } = await getMetrics();
+  return methods
+    .map((name) => {
+      const op = operations[name];
+      if (!op) return `${name}(): no calls`;
+      const mbs = (op.throughput / (1 << 20)).toFixed(1);
+      return `${name}(): p50 ${op.p50Ms} ms, p95 ${op.p95Ms} ms, ${mbs} MB/s`;
+    })
+    .join('; ');
+}
+
+/**
+ * Writes, reads, hashes, and copies `numFiles` files of the given size,
+ * with the given concurrency, and reports JS-side and native timings.
+ */
+async function benchmarkIOCore(
+  sizeKb: number,
+  numFiles: number,
+  concurrency: number,
+): Promise<string> {
+  const path = `${ROOT}/io-core`;
+  await reset(path);
+  await mkdir(path);
+  const content = 'x'.repeat(sizeKb << 10);
+  const file = (i: number) => `${path}/${i}.txt`;
+
+  await setMetricsEnabled(true);
+  await resetMetrics();
+  try {
+    const jsTime = await time(async () => {
+      await runConcurrently(numFiles, concurrency, (i) =>
+        writeFile(file(i), content),
+      );
+      await runConcurrently(numFiles, concurrency, (i) => readFile(file(i)));
+      await runConcurrently(numFiles, concurrency, (i) =>
+        hash(file(i), 'sha256'),
+      );
+      await runConcurrently(numFiles, concurrency, (i) =>
+        copyFile(file(i), `${file(i)}.copy`),
+      );
+    });
+    const native = await formatMetrics([
+      'writeFile',
+      'readFile',
+      'hash',
+      'copyFile',
+    ]);
+    return `${sizeKb} KB x ${numFiles}, concurrency ${concurrency}: ${jsTime} ms total; ${native}`;
+  } finally {
+    await setMetricsEnabled(false);
+    await reset(path);
+  }
+}
+
+type TransferOptionsT = {
+  sizeMb: number;
+  numJobs: number;
+  concurrency: number;
+
+  // The progress callback interval [ms]; undefined for no progress callback.
+  progressInterval?: number;
+};
+
+/**
+ * Downloads `numJobs` files of the given size from the local test server,
+ * then uploads them back into its WebDAV folder, and reports throughput
+ * and median time-to-first-byte of downloads.
+ */
+async function benchmarkTransfers({
+  sizeMb,
+  numJobs,
+  concurrency,
+  progressInterval,
+}: TransferOptionsT): Promise<string> {
+  const server = await waitServer();
+  const name = `transfer-${sizeMb}mb.txt`;
+  const served = `${FILE_DIR}/${name}`;
+  if (!(await exists(served))) {
+    await writeFile(served, 'x'.repeat(sizeMb << 20));
+  }
+  const dest = `${ROOT}/transfers`;
+  await reset(dest);
+  await mkdir(dest);
+
+  const progress = progressInterval === undefined ? undefined : () => {};
+  const ttfbs: number[] = [];
+
+  await setMetricsEnabled(true);
+  await resetMetrics();
+  try {
+    const downloadTime = await time(() =>
+      runConcurrently(numJobs, concurrency, async (i) => {
+        const start = Date.now();
+        const { promise } = downloadFile({
+          fromUrl: `${server.origin}/${name}`,
+          toFile: `${dest}/${i}.txt`,
+          begin: () => ttfbs.push(Date.now() - start),
+          progress,
+          progressInterval,
+        });
+        const res = await promise;
+        if (res.statusCode !== 200) throw Error(`HTTP ${res.statusCode}`);
+      }),
+    );
+    const uploadTime = await time(() =>
+      runConcurrently(numJobs, concurrency, async (i) => {
+        const { promise } = uploadFiles({
+          toUrl: `${server.origin}/dav/${name}-${i}`,
+          method: 'PUT',
+          binaryStreamOnly: true,
+          files: [
+            { name: 'file', filename: `${i}.txt`, filepath: `${dest}/${i}.txt` },
+          ],
+          progress,
+        });
+        await promise;
+      }),
+    );
+
+    ttfbs.sort((a, b) => a - b);
+    const ttfb = ttfbs[Math.floor(ttfbs.length / 2)];
+    const mbs = (ms: number) => ((sizeMb * numJobs * 1000) / ms).toFixed(1);
+    const native = await formatMetrics(['downloadFile', 'uploadFiles']);
+    return `${sizeMb} MB x ${numJobs}, concurrency ${concurrency}, progress ${progressInterval ?? 'off'}: download ${mbs(downloadTime)} MB/s, TTFB p50 ${ttfb} ms; upload ${mbs(uploadTime)} MB/s; ${native}`;
+  } finally {
+    await setMetricsEnabled(false);
+    await reset(dest);
+    for (let i = 0; i < numJobs; ++i) {
+      await reset(`${FILE_DIR}/dav/${name}-${i}`);
+    }
+  }
+}
+
+type ProcessSampleT = {
+  threads: number; // The number of threads
+  fds: number; // The number of open file descriptors
+  cpuMs: number; // The CPU time used so far, user and system [ms]
+};
+
+// The clock tick of /proc/self/stat times, USER_HZ is 100 on Android.
+const MS_PER_CLOCK_TICK = 10;
+
+/**
+ * Samples the resources of the app process from /proc (Android only).
+ */
+async function sampleProcess(): Promise<ProcessSampleT> {
+  const status = await readFile('/proc/self/status');
+  const threads = Number(/^Threads:\s+(\d+)/m.exec(status)?.[1]);
+
+  // Names only, as descriptors may be closed while the folder is listed.
+  // The listing itself holds an open descriptor, the same one each time.
+  const fds = (await readdir('/proc/self/fd')).length;
+
+  // The fields following the command name, which is in parentheses, and
+  // may contain spaces; utime and stime are fields 14 and 15 of the line.
+  const stat = await readFile('/proc/self/stat');
+  const fields = stat.slice(stat.lastIndexOf(')') + 2).split(' ');
+  const ticks = Number(fields[11]) + Number(fields[12]);
+
+  return { threads, fds, cpuMs: ticks * MS_PER_CLOCK_TICK };
+}
+
+/**
+ * Runs many small downloads against the local test server, and checks that
+ * all of them complete, and none is left active natively. Leaked jobs, or
+ * resources not released by them, show up as active jobs in getMetrics(),
+ * as thread or file descriptor counts growing from quarter to quarter of
+ * the run, or as a growing latency or CPU time per quarter.
+ */
+async function soakDownloads(
+  numJobs: number,
+  concurrency: number,
+): Promise<string> {
+  const server = await waitServer();
+  const name = 'soak.txt';
+  await writeFile(`${FILE_DIR}/${name}`, 'x'.repeat(16 << 10));
+  const dest = `${ROOT}/soak`;
+  await reset(dest);
+  await mkdir(dest);
+
+  await setMetricsEnabled(true);
+  await resetMetrics();
+  try {
+    let failed = 0;
+    const quarterTimes: number[] = [];
+    const samples = [await sampleProcess()];
+    const QUARTER = Math.ceil(numJobs / 4);
+    for (let q = 0; q < numJobs; q += QUARTER) {
+      const n = Math.min(QUARTER, numJobs - q);
+      quarterTimes.push(
+        await time(() =>
+          runConcurrently(n, concurrency, async (i) => {
+            const path = `${dest}/${q + i}.txt`;
+            try {
+              await downloadFile({
+                fromUrl: `${server.origin}/${name}`,
+                toFile: path,
+              }).promise;
+              await unlink(path);
+            } catch {
+              ++failed;
+            }
+          }),
+        ),
+      );
+      samples.push(await sampleProcess());
+    }
+    const { operations } = await getMetrics();
+    const active = operations.downloadFile?.active ?? 0;
+    const threads = samples.map((x) => x.threads).join(' / ');
+    const fds = samples.map((x) => x.fds).join(' / ');
+    const cpuTimes = samples
+      .slice(1)
+      .map((x, i) => x.cpuMs - samples[i]!.cpuMs)
+      .join(' / ');
+    return `${numJobs} downloads, concurrency ${concurrency}: ${failed} failed, ${active} still active; time per quarter: ${quarterTimes.join(' / ')} ms; CPU time per quarter: ${cpuTimes} ms; threads: ${threads}; open fds: ${fds} (at start, and after each quarter); ${await formatMetrics(['downloadFile'])}`;
+  } finally {
+    await setMetricsEnabled(false);
+    await reset(dest);
+  }
+}
+
+/**
+ * Copies a folder from JS, one readDir() / copyFile() call per item,
+ * as it was done before native copyFolder() was available on Android.
+ */
+async function copyFolderJs(from: string, into: string): Promise<void> {
+  await mkdir(into);
+  const items = await readDir(from);
+  await Promise.all(
+    items.map((item) =>
+      item.isDirectory()
+        ? copyFolderJs(item.path, `${into}/${item.name}`)
+        : copyFile(item.path, `${into}/${item.name}`),
+    ),
+  );
+}
+
+/**
+ * Computes the total size of files in a folder from JS, by recursive
+ * readDir() calls.
+ */
+async function duJs(path: string): Promise<number> {
+  const items = await readDir(path);
+  const sizes = await Promise.all(
+    items.map((item) =>
+      item.isDirectory() ? duJs(item.path) : Promise.resolve(item.size),
+    ),
+  );
+  return sizes.reduce((sum, size) => sum + size, 0);
+}
+
+const benchmarks: { [name: string]: BenchmarkT } = {
+  'copyFolder() - 10k small files': async () => {
+    const src = `${ROOT}/small-files`;
+    const dest = `${ROOT}/small-files-copy`;
+    await createSmallFilesTree(src, 100, 100);
+
+    await reset(dest);
+    const jsTime = await time(() => copyFolderJs(src, dest));
+
+    await reset(dest);
+    const nativeTime = await time(() => copyFolder(src, dest));
+
+    await reset(dest);
+    return `readDir() + copyFile(): ${jsTime} ms; copyFolder(): ${nativeTime} ms`;
+  },
+  'du() - 10k small files': async () => {
+    const path = `${ROOT}/small-files`;
+    await createSmallFilesTree(path, 100, 100);
+    const jsTime = await time(() => duJs(path));
+    const nativeTime = await time(() => du(path));
+    return `readDir() recursion: ${jsTime} ms; du(): ${nativeTime} ms`;
+  },
+  'hashMany() - 10k small files': async () => {
+    const path = `${ROOT}/small-files`;
+    await createSmallFilesTree(path, 100, 100);
+    const paths: string[] = [];
+    for (let i = 0; i < 100; ++i) {
+      for (let j = 0; j < 100; ++j) paths.push(`${path}/${i}/${j}.txt`);
+    }
+    const jsTime = await time(async () => {
+      for (const item of paths) await hash(item, 'sha256');
+    });
+    const nativeTime = await time(() => hashMany(paths, 'sha256'));
+    return `hash() one by one: ${jsTime} ms; hashMany(): ${nativeTime} ms`;
+  },
+  'I/O core - file sizes x concurrency': async () => {
+    const res = [];
+    for (const { sizeKb, numFiles } of [
+      { sizeKb: 4, numFiles: 256 },
+      { sizeKb: 256, numFiles: 64 },
+      { sizeKb: 4096, numFiles: 8 },
+    ]) {
+      for (const concurrency of [1, 4]) {
+        res.push(await benchmarkIOCore(sizeKb, numFiles, concurrency));
+      }
+    }
+    return res.join('\n');
+  },
+  'downloadFile() / uploadFiles() - local server': async () => {
+    const res = [];
+    for (const { sizeMb, numJobs } of [
+      { sizeMb: 1, numJobs: 16 },
+      { sizeMb: 16, numJobs: 4 },
+    ]) {
+      for (const concurrency of [1, 4]) {
+        for (const progressInterval of [undefined, 0, 250]) {
+          res.push(
+            await benchmarkTransfers({
+              sizeMb,
+              numJobs,
+              concurrency,
+              progressInterval,
+            }),
+          );
+        }
+      }
+    }
+    return res.join('\n');
+  },
+  'downloadFile() soak - 5k jobs': () => soakDownloads(5000, 8),
+  'readDir() - 10k entries': async () => {
+    const path = `${ROOT}/flat-folder`;
+    await createFlatFolder(path, 10000);
+
+    // The first run warms up the file system caches.
+    await readDir(path);
+    const RUNS = 5;
+    const totalTime = await time(async () => {
+      for (let i = 0; i < RUNS; ++i) await readDir(path);
+    });
+    return `readDir(): ${(totalTime / RUNS).toFixed(1)} ms per call`;
+  },
+  'zip() / unzip() - 10k small files': async () => {
+    const src = `${ROOT}/small-files`;
+    await createSmallFilesTree(src, 100, 100);
+    return compareUnzip(src);
+  },
+  'zip() / unzip() - 8 x 16 MB files': async () => {
+    const src = `${ROOT}/large-files`;
+    await createLargeFiles(src, 8, 16);
+    return compareUnzip(src);
+  },
+};
+
+function Benchmark({ name, run }: { name: string; run: BenchmarkT }) {
+  const [result, setResult] = React.useState<string>('');
+  return (
+    <View>
+      <Button
+        onPress={async () => {
+          setResult('running...');
+          try {
+            setResult(await run());
+          } catch (e: any) {
+            setResult(`error: ${e.message}`);
+          }
+        }}
+        title={name}
+      />
+      {result ? <Text>{result}</Text> : null}
+    </View>
+  );
+}
+
+export default function Benchmarks() {
+  return (
+    <View>
+      <Text style={styles.title}>Benchmarks</Text>
+      {Object.entries(benchmarks).map(([name, run]) => (
+        <Benchmark key={name} name={name} run={run} />
+      ))}
+    </View>
+  );
+}
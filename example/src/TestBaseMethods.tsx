@@ -3,15 +3,29 @@ import React from 'react';
 import { Platform, Text, View } from 'react-native';
 
 import {
+  append,
+  cacheClear,
+  cacheConfigure,
+  cacheGet,
+  cachePut,
+  cacheRemove,
+  cacheStats,
+  closeAppender,
   copyFile,
   copyFileAssets,
   copyFolder,
   downloadFile,
+  du,
+  type DuResultT,
   exists,
   existsAssets,
+  type FileChangeT,
+  getAssetManifest,
   getFSInfo,
+  hashMany,
   mkdir,
   moveFile,
+  openAppender,
   read,
   readdir,
   readDir,
@@ -19,10 +33,20 @@ import {
   readFile,
   readFileAssets,
   stat,
+  statMany,
+  stopCopy,
   TemporaryDirectoryPath,
   unlink,
+  unwatch,
+  unzip,
   uploadFiles,
+  walk,
+  type WalkOptionsT,
+  type WalkResItemT,
+  watch,
+  type WatchEventT,
   writeFile,
+  zip,
 } from '@dr.pogodin/react-native-fs';
 
 import TestCase, { type StatusOrEvaluator } from './TestCase';
@@ -40,6 +64,55 @@ function logCharCodes(datum: string) {
 
 const SEP = Platform.OS === 'windows' ? '\\' : '/';
 
+// File type bits of UNIX file modes.
+const S_IFMT = 0o170000;
+const S_IFDIR = 0o040000;
+const S_IFREG = 0o100000;
+
+/**
+ * Checks the Android-specific attributes reported by readDir() and stat()
+ * for a regular file or folder (not a symbolic link) of the given type.
+ */
+function hasAndroidAttributes(
+  item: {
+    inode?: number;
+    mode?: number;
+    isSymbolicLink?: () => boolean;
+  },
+  type: number,
+): boolean {
+  return (
+    typeof item.inode === 'number' &&
+    item.inode > 0 &&
+    typeof item.mode === 'number' &&
+    (item.mode & S_IFMT) === type &&
+    typeof item.isSymbolicLink === 'function' &&
+    !item.isSymbolicLink()
+  );
+}
+
+/**
+ * Polls the condition, for effects of background work (e.g. eviction of
+ * disk cache entries), up to ~2 s; resolves to true once it holds.
+ */
+async function waitFor(condition: () => Promise<boolean>): Promise<boolean> {
+  for (let i = 0; i < 100; ++i) {
+    if (await condition()) return true;
+    await new Promise((resolve) => setTimeout(resolve, 20));
+  }
+  return false;
+}
+
+// ZIP archive with entries "a.txt" ("A"), "folder/b.txt" ("first"),
+// and "folder//b.txt" ("second"), the last two with the same target.
+const ZIP_WITH_DUPLICATES =
+  'UEsDBBQAAAAAAAAAIViLntnTAQAAAAEAAAAFAAAAYS50eHRBUEsDBBQAAAAAAAAAIVhX7nGSBQAAAAUAAAAMAAAAZm9sZGVyL2IudHh0Zmlyc3RQSwMEFAAAAAAAAAAhWGkRH7YGAAAABgAAAA0AAABmb2xkZXIvL2IudHh0c2Vjb25kUEsBAhQDFAAAAAAAAAAhWIue2dMBAAAAAQAAAAUAAAAAAAAAAAAAAIABAAAAAGEudHh0UEsBAhQDFAAAAAAAAAAhWFfucZIFAAAABQAAAAwAAAAAAAAAAAAAAIABJAAAAGZvbGRlci9iLnR4dFBLAQIUAxQAAAAAAAAAIVhpER+2BgAAAAYAAAANAAAAAAAAAAAAAACAAVMAAABmb2xkZXIvL2IudHh0UEsFBgAAAAADAAMAqAAAAIQAAAAAAA==';
+
+// ZIP archive with entries "ok.txt", and "../evil.txt" pointing outside
+// the destination folder.
+const ZIP_WITH_SLIP =
+  'UEsDBBQAAAAAAAAAIVhH3dx5AgAAAAIAAAAGAAAAb2sudHh0b2tQSwMEFAAAAAAAAAAhWFIx+40EAAAABAAAAAsAAAAuLi9ldmlsLnR4dGV2aWxQSwECFAMUAAAAAAAAACFYR93ceQIAAAACAAAABgAAAAAAAAAAAAAAgAEAAAAAb2sudHh0UEsBAhQDFAAAAAAAAAAhWFIx+40EAAAABAAAAAsAAAAAAAAAAAAAAIABJgAAAC4uL2V2aWwudHh0UEsFBgAAAAACAAIAbQAAAFMAAAAAAA==';
+
 const UPLOAD_FILES_CONTROL_ANDROID = `--*****
 Content-Disposition: form-data; name="upload-files-source-file"; filename="upload-files-source-file.txt"
 Content-Type: null
@@ -79,6 +152,134 @@ const UPLOAD_FILES_CONTROL = Platform.select({
 });
 
 const tests: { [name: string]: StatusOrEvaluator } = {
+  'cacheConfigure() and cacheStats()': async () => {
+    // The disk cache is Android-only.
+    if (Platform.OS !== 'android') return 'pass';
+    try {
+      const path = `${TemporaryDirectoryPath}/cache-limits-test`;
+      try {
+        await unlink(path);
+      } catch {}
+      await mkdir(path);
+      const defaults = await cacheStats();
+      await cacheClear();
+      await cacheConfigure({ maxBytes: 1024 * 1024, maxEntries: 3 });
+      for (const key of ['a', 'b', 'c', 'd']) {
+        await writeFile(`${path}/${key}.txt`, key.repeat(10));
+      }
+
+      await cachePut('a', `${path}/a.txt`);
+      await cachePut('b', `${path}/b.txt`);
+      await cachePut('c', `${path}/c.txt`);
+      let res: unknown = await cacheStats();
+      if (
+        !isEqual(res, {
+          bytes: 30,
+          entries: 3,
+          maxBytes: 1024 * 1024,
+          maxEntries: 3,
+        })
+      ) {
+        return 'fail';
+      }
+
+      // With "a" accessed, "b" is the least recently used entry, and it is
+      // evicted once the fourth entry exceeds the maxEntries limit.
+      if (!(await cacheGet('a'))) return 'fail';
+      await cachePut('d', `${path}/d.txt`);
+      if (
+        !(await waitFor(async () => (await cacheStats()).entries === 3)) ||
+        (await cacheGet('b')) !== null ||
+        !(await cacheGet('c')) ||
+        !(await cacheGet('a')) ||
+        !(await cacheGet('d'))
+      ) {
+        return 'fail';
+      }
+
+      // Now "c" is the least recently used entry, and it is evicted once
+      // the cache exceeds the lowered maxBytes limit.
+      await cacheConfigure({ maxBytes: 25, maxEntries: 0 });
+      if (!(await waitFor(async () => (await cacheStats()).bytes <= 25))) {
+        return 'fail';
+      }
+      res = await cacheStats();
+      if (
+        !isEqual(res, { bytes: 20, entries: 2, maxBytes: 25, maxEntries: 0 }) ||
+        (await cacheGet('c')) !== null ||
+        (await readFile((await cacheGet('a'))!)) !== 'a'.repeat(10) ||
+        (await readFile((await cacheGet('d'))!)) !== 'd'.repeat(10)
+      ) {
+        return 'fail';
+      }
+
+      await cacheClear();
+      res = await cacheStats();
+      if (!isMatch(res as object, { bytes: 0, entries: 0 })) return 'fail';
+
+      await cacheConfigure({
+        maxBytes: defaults.maxBytes,
+        maxEntries: defaults.maxEntries,
+      });
+      return 'pass';
+    } catch {
+      return 'fail';
+    }
+  },
+  'cachePut(), cacheGet(), and cacheRemove()': async () => {
+    // The disk cache is Android-only.
+    if (Platform.OS !== 'android') return 'pass';
+    try {
+      const path = `${TemporaryDirectoryPath}/cache-put-test`;
+      try {
+        await unlink(path);
+      } catch {}
+      await mkdir(path);
+      await writeFile(`${path}/source.txt`, 'Cached content');
+
+      await cacheRemove('cache-put-test');
+
+      // A copied source stays in place.
+      const cached = await cachePut('cache-put-test', `${path}/source.txt`);
+      if (
+        (await cacheGet('cache-put-test')) !== cached ||
+        (await readFile(cached)) !== 'Cached content' ||
+        !(await exists(`${path}/source.txt`))
+      ) {
+        return 'fail';
+      }
+
+      // A moved source is gone, and the entry is replaced.
+      await writeFile(`${path}/source.txt`, 'New content');
+      const moved = await cachePut('cache-put-test', `${path}/source.txt`, {
+        move: true,
+      });
+      if (
+        moved !== cached ||
+        (await readFile(moved)) !== 'New content' ||
+        (await exists(`${path}/source.txt`))
+      ) {
+        return 'fail';
+      }
+
+      // Entries are committed from temporary files, none of which are left
+      // behind.
+      const tmp = `${cached.slice(0, cached.lastIndexOf('/'))}/tmp`;
+      if ((await readdir(tmp)).length) return 'fail';
+
+      if (
+        !(await cacheRemove('cache-put-test')) ||
+        (await cacheRemove('cache-put-test')) ||
+        (await cacheGet('cache-put-test')) !== null ||
+        (await exists(cached))
+      ) {
+        return 'fail';
+      }
+      return 'pass';
+    } catch {
+      return 'fail';
+    }
+  },
   'copyFile()': async () => {
     // TODO: It should be also tested and documented:
     // -  How does it behave if the target item exists? Does it throw or
@@ -154,10 +355,19 @@ const tests: { [name: string]: StatusOrEvaluator } = {
 
       // Can it copy a folder with its content?
       try {
-        await copyFolder(`${path}/folder`, `${path}/dest`);
-        // TODO: For platforms that allow to copy folders, we should do more
-        // checks here, similar to moveFile() checks.
-        return ['android'].includes(Platform.OS) ? 'fail' : 'pass';
+        const res = await copyFolder(`${path}/folder`, `${path}/dest`);
+        if (Platform.OS === 'android') {
+          if (
+            !isEqual(res, { directories: 1, files: 1, bytes: 21 }) ||
+            (await readFile(`${path}/dest/another-test-file.txt`)) !==
+              'Another dummy content'
+          ) {
+            return 'fail';
+          }
+        }
+        // TODO: For other platforms that allow to copy folders, we should do
+        // more checks here, similar to moveFile() checks.
+        return 'pass';
       } catch (e: any) {
         if (Platform.OS === 'windows') {
           if (
@@ -228,6 +438,146 @@ const tests: { [name: string]: StatusOrEvaluator } = {
       return 'fail';
     }
   },
+  'downloadFile() with cacheKey': async () => {
+    // The disk cache is Android-only.
+    if (Platform.OS !== 'android') return 'pass';
+    const url =
+      'https://raw.githubusercontent.com/birdofpreyru/react-native-fs/master/example/assets/test/good-utf8.txt';
+    const good = 'GÖÖÐ\n';
+    try {
+      await cacheRemove('download-file-02');
+      const res = await downloadFile({
+        cacheKey: 'download-file-02',
+        fromUrl: url,
+      }).promise;
+      if (
+        res.bytesWritten !== 8 ||
+        res.statusCode !== 200 ||
+        !res.path ||
+        (await cacheGet('download-file-02')) !== res.path ||
+        (await readFile(res.path)) !== good
+      ) {
+        return 'fail';
+      }
+
+      // Failed downloads are not committed, and their temporary files
+      // are removed.
+      await cacheRemove('download-file-03');
+      const missing = await downloadFile({
+        cacheKey: 'download-file-03',
+        fromUrl: `${url}.missing`,
+      }).promise;
+      const tmp = `${res.path.slice(0, res.path.lastIndexOf('/'))}/tmp`;
+      if (
+        missing.statusCode !== 404 ||
+        (await cacheGet('download-file-03')) !== null ||
+        (await readdir(tmp)).length
+      ) {
+        return 'fail';
+      }
+      return 'pass';
+    } catch {
+      return 'fail';
+    }
+  },
+  'du()': async () => {
+    // du() is Android-only.
+    if (Platform.OS !== 'android') return 'pass';
+    try {
+      const path = `${TemporaryDirectoryPath}/du-test`;
+      try {
+        await unlink(path);
+      } catch {}
+      await mkdir(`${path}/sub/deep`);
+      await writeFile(`${path}/a.txt`, 'AAAAA');
+      await writeFile(`${path}/sub/b.txt`, 'BBB');
+      await writeFile(`${path}/sub/deep/c.txt`, 'CC');
+
+      // The order of children is not specified, thus they are sorted
+      // by names for comparisons.
+      const sorted = (res: DuResultT): DuResultT =>
+        res.children
+          ? {
+              ...res,
+              children: res.children
+                .map(sorted)
+                .sort((a, b) => a.name.localeCompare(b.name)),
+            }
+          : res;
+
+      const a = { name: 'a.txt', bytes: 5, files: 1, directories: 0 };
+      const b = { name: 'b.txt', bytes: 3, files: 1, directories: 0 };
+      const c = { name: 'c.txt', bytes: 2, files: 1, directories: 0 };
+      const totals = { name: 'du-test', bytes: 10, files: 3, directories: 3 };
+
+      // By default, the breakdown is down to direct children of the root.
+      let res = await du(path);
+      if (
+        !isEqual(sorted(res), {
+          ...totals,
+          children: [a, { name: 'sub', bytes: 5, files: 2, directories: 2 }],
+        })
+      ) {
+        return 'fail';
+      }
+
+      res = await du(path, { maxDepth: 0 });
+      if (!isEqual(res, totals)) return 'fail';
+
+      res = await du(path, { maxDepth: -1 });
+      if (
+        !isEqual(sorted(res), {
+          ...totals,
+          children: [
+            a,
+            {
+              name: 'sub',
+              bytes: 5,
+              files: 2,
+              directories: 2,
+              children: [
+                b,
+                {
+                  name: 'deep',
+                  bytes: 2,
+                  files: 1,
+                  directories: 1,
+                  children: [c],
+                },
+              ],
+            },
+          ],
+        })
+      ) {
+        return 'fail';
+      }
+
+      res = await du(path, { maxDepth: 0, fsInfo: true });
+      if (
+        !isMatch(res, totals) ||
+        typeof res.totalSpace !== 'number' ||
+        typeof res.freeSpace !== 'number' ||
+        res.freeSpace > res.totalSpace
+      ) {
+        return 'fail';
+      }
+
+      // A file is measured as a single item.
+      res = await du(`${path}/a.txt`);
+      if (!isEqual(res, a)) return 'fail';
+
+      try {
+        await du(`${path}/non-existing`);
+        return 'fail';
+      } catch (e: any) {
+        if (e.code !== 'ENOENT') return 'fail';
+      }
+
+      return 'pass';
+    } catch {
+      return 'fail';
+    }
+  },
   'exists()': async () => {
     const path = `${TemporaryDirectoryPath}/test-exists-file`;
     try {
@@ -246,6 +596,65 @@ const tests: { [name: string]: StatusOrEvaluator } = {
     try {
       if (!(await existsAssets('test/good-utf8.txt'))) return 'fail';
       if (await existsAssets('test/non-existing.txt')) return 'fail';
+
+      // Folders exist as well, but not paths below files.
+      if (!(await existsAssets('test'))) return 'fail';
+      if (await existsAssets('non-existing-folder/good-utf8.txt')) {
+        return 'fail';
+      }
+      if (await existsAssets('test/good-utf8.txt/child')) return 'fail';
+      return 'pass';
+    } catch {
+      return 'fail';
+    }
+  },
+  'getAssetManifest()': async () => {
+    try {
+      const manifest = await getAssetManifest();
+
+      // The folder goes before its content, and it has no size.
+      const folder = manifest.findIndex((item) => item.path === 'test');
+      if (
+        folder < 0 ||
+        !manifest[folder]!.isDirectory() ||
+        manifest[folder]!.isFile() ||
+        manifest[folder]!.size !== -1
+      ) {
+        return 'fail';
+      }
+
+      const files = manifest
+        .slice(folder + 1)
+        .filter((item) => item.path.startsWith('test/'))
+        .map((item) => ({
+          path: item.path,
+          size: item.size,
+          isFile: item.isFile(),
+          isDirectory: item.isDirectory(),
+        }));
+      if (
+        !isEqual(files, [
+          {
+            path: 'test/good-latin1.txt',
+            size: 5,
+            isFile: true,
+            isDirectory: false,
+          },
+          {
+            path: 'test/good-utf8.txt',
+            size: 8,
+            isFile: true,
+            isDirectory: false,
+          },
+        ])
+      ) {
+        return 'fail';
+      }
+
+      if (manifest.some((item) => typeof item.compressed !== 'boolean')) {
+        return 'fail';
+      }
+
       return 'pass';
     } catch {
       return 'fail';
@@ -275,6 +684,66 @@ const tests: { [name: string]: StatusOrEvaluator } = {
       return 'fail';
     }
   },
+  'hashMany()': async () => {
+    // hashMany() is Android-only.
+    if (Platform.OS !== 'android') return 'pass';
+    try {
+      const path = `${TemporaryDirectoryPath}/hash-many-test`;
+      try {
+        await unlink(path);
+      } catch {}
+      await mkdir(path);
+      await writeFile(`${path}/a.txt`, 'File A');
+      await writeFile(`${path}/b.txt`, 'File B');
+      await writeFile(`${path}/c.txt`, 'File C');
+      const paths = [`${path}/a.txt`, `${path}/b.txt`, `${path}/c.txt`];
+      const good = {
+        [paths[0]!]: '409113af37ca03db453ee3e793fcf64d',
+        [paths[1]!]: 'c4ccbdf7efe5e2844ad758b10d25ed07',
+        [paths[2]!]: '5d0faad6dfc45c7aeeac1e5bd2a5657c',
+      };
+
+      // The same digests are computed with the default and sequential
+      // concurrency.
+      for (const concurrency of [undefined, 1]) {
+        const res = await hashMany(paths, 'md5', { concurrency });
+        if (!isEqual(res, good)) return 'fail';
+      }
+
+      // Progress callbacks report the digests computed so far.
+      const reported: { [path: string]: string } = {};
+      let lastHashed = 0;
+      let ordered = true;
+      const res = await hashMany(paths, 'md5', {
+        progress: ({ digests, hashed, total }) => {
+          Object.assign(reported, digests);
+          if (total !== 3 || hashed < lastHashed) ordered = false;
+          lastHashed = hashed;
+        },
+        progressInterval: 0,
+      });
+      if (
+        !isEqual(res, good) ||
+        !ordered ||
+        !lastHashed ||
+        !Object.keys(reported).length ||
+        !isMatch(good, reported)
+      ) {
+        return 'fail';
+      }
+
+      try {
+        await hashMany([...paths, `${path}/non-existing.txt`], 'md5');
+        return 'fail';
+      } catch (e: any) {
+        if (e.code !== 'ENOENT') return 'fail';
+      }
+
+      return 'pass';
+    } catch {
+      return 'fail';
+    }
+  },
   'mkdir()': async () => {
     const pathA = `${TemporaryDirectoryPath}/test-mkdir-path`;
     const pathB = `${pathA}/inner/path`;
@@ -342,6 +811,102 @@ const tests: { [name: string]: StatusOrEvaluator } = {
       return 'fail';
     }
   },
+  'openAppender(), append(), and closeAppender()': async () => {
+    // Appenders are Android-only.
+    if (Platform.OS !== 'android') return 'pass';
+    try {
+      const path = `${TemporaryDirectoryPath}/appender-test`;
+      try {
+        await unlink(path);
+      } catch {}
+      await mkdir(path);
+
+      // Records are appended to the existing content, in the call order,
+      // and are all written once the appender is closed.
+      await writeFile(`${path}/log.txt`, 'Start\n');
+      let id = await openAppender(`${path}/log.txt`);
+      const lines = [...Array(100)].map((_, i) => `Line ${i}\n`);
+      await Promise.all(lines.map((line) => append(id, line)));
+      await closeAppender(id);
+      if ((await readFile(`${path}/log.txt`)) !== `Start\n${lines.join('')}`) {
+        return 'fail';
+      }
+      try {
+        await append(id, 'Closed\n');
+        return 'fail';
+      } catch (e: any) {
+        if (e.code !== 'EBADF') return 'fail';
+      }
+
+      // With "always" fsync, records are in the file once append() resolves,
+      // and malformed Base64 content is rejected without breaking the file.
+      id = await openAppender(`${path}/sync.txt`, { fsync: 'always' });
+      await append(id, 'First\n');
+      if ((await readFile(`${path}/sync.txt`)) !== 'First\n') return 'fail';
+      try {
+        await append(id, '%%%', 'base64');
+        return 'fail';
+      } catch {}
+      await append(id, 'Second\n');
+      if ((await readFile(`${path}/sync.txt`)) !== 'First\nSecond\n') {
+        return 'fail';
+      }
+      await closeAppender(id);
+
+      // Buffered records are written once the flush interval is over.
+      id = await openAppender(`${path}/interval.txt`, {
+        flushIntervalMs: 100,
+        fsync: 'never',
+      });
+      await append(id, 'Record\n');
+      if (
+        !(await waitFor(
+          async () => (await readFile(`${path}/interval.txt`)) === 'Record\n',
+        ))
+      ) {
+        return 'fail';
+      }
+      await closeAppender(id);
+
+      // Files are rotated once they reach rotateBytes, keeping at most
+      // maxFiles rotated ones.
+      id = await openAppender(`${path}/rotated.txt`, {
+        fsync: 'always',
+        maxFiles: 2,
+        rotateBytes: 10,
+      });
+      for (const record of ['aaaaaaaaa\n', 'bbbbbbbbb\n', 'ccccccccc\n']) {
+        await append(id, record);
+      }
+      await append(id, 'd\n');
+      await closeAppender(id);
+      if (
+        (await readFile(`${path}/rotated.txt`)) !== 'd\n' ||
+        (await readFile(`${path}/rotated.txt.1`)) !== 'ccccccccc\n' ||
+        (await readFile(`${path}/rotated.txt.2`)) !== 'bbbbbbbbb\n' ||
+        (await exists(`${path}/rotated.txt.3`))
+      ) {
+        return 'fail';
+      }
+
+      try {
+        await openAppender(path);
+        return 'fail';
+      } catch (e: any) {
+        if (e.code !== 'EISDIR') return 'fail';
+      }
+      try {
+        await openAppender(`${path}/log.txt`, { fsync: 'bogus' as 'never' });
+        return 'fail';
+      } catch (e: any) {
+        if (e.code !== 'EINVAL') return 'fail';
+      }
+
+      return 'pass';
+    } catch {
+      return 'fail';
+    }
+  },
   'read()': async () => {
     try {
       const good = 'GÖÖÐ\n';
@@ -410,10 +975,9 @@ const tests: { [name: string]: StatusOrEvaluator } = {
       let item = dir[0];
       if (
         !item ||
-        (Platform.OS === 'android'
-          ? item.ctime !== null
-          : item.ctime!.valueOf() < now - 1000 ||
-            item.ctime!.valueOf() > now + 1000) ||
+        !(item.ctime instanceof Date) ||
+        item.ctime.valueOf() < now - 1000 ||
+        item.ctime.valueOf() > now + 1000 ||
         (Platform.OS !== 'windows' && item.isDirectory()) ||
         (Platform.OS !== 'windows' && !item.isFile()) ||
         !(item.mtime instanceof Date) ||
@@ -422,7 +986,8 @@ const tests: { [name: string]: StatusOrEvaluator } = {
         item.name !== 'file-a.txt' ||
         item.path !== `${path}${SEP}file-a.txt` ||
         // TODO: This can be platform dependent.
-        item.size !== 11
+        item.size !== 11 ||
+        (Platform.OS === 'android' && !hasAndroidAttributes(item, S_IFREG))
       ) {
         return 'fail';
       }
@@ -431,10 +996,9 @@ const tests: { [name: string]: StatusOrEvaluator } = {
       item = dir[1];
       if (
         !item ||
-        (Platform.OS === 'android'
-          ? item.ctime !== null
-          : item.ctime!.valueOf() < now - 1000 ||
-            item.ctime!.valueOf() > now + 1000) ||
+        !(item.ctime instanceof Date) ||
+        item.ctime.valueOf() < now - 1000 ||
+        item.ctime.valueOf() > now + 1000 ||
         (Platform.OS !== 'windows' && item.isDirectory()) ||
         (Platform.OS !== 'windows' && !item.isFile()) ||
         !(item.mtime instanceof Date) ||
@@ -443,7 +1007,8 @@ const tests: { [name: string]: StatusOrEvaluator } = {
         item.name !== 'file-b.txt' ||
         item.path !== `${path}${SEP}file-b.txt` ||
         // TODO: This can be platform dependent.
-        item.size !== 18
+        item.size !== 18 ||
+        (Platform.OS === 'android' && !hasAndroidAttributes(item, S_IFREG))
       ) {
         return 'fail';
       }
@@ -452,10 +1017,9 @@ const tests: { [name: string]: StatusOrEvaluator } = {
       item = dir[2];
       if (
         !item ||
-        (Platform.OS === 'android'
-          ? item.ctime !== null
-          : item.ctime!.valueOf() < now - 1000 ||
-            item.ctime!.valueOf() > now + 1000) ||
+        !(item.ctime instanceof Date) ||
+        item.ctime.valueOf() < now - 1000 ||
+        item.ctime.valueOf() > now + 1000 ||
         (Platform.OS !== 'windows' && !item.isDirectory()) ||
         (Platform.OS !== 'windows' && item.isFile()) ||
         !(item.mtime instanceof Date) ||
@@ -472,7 +1036,16 @@ const tests: { [name: string]: StatusOrEvaluator } = {
             android: 4096,
             windows: 0,
             default: 64,
-          })
+          }) ||
+        (Platform.OS === 'android' && !hasAndroidAttributes(item, S_IFDIR))
+      ) {
+        return 'fail';
+      }
+
+      // Each item has its own inode.
+      if (
+        Platform.OS === 'android' &&
+        new Set(dir.map((i) => i.inode)).size !== dir.length
       ) {
         return 'fail';
       }
@@ -502,12 +1075,12 @@ const tests: { [name: string]: StatusOrEvaluator } = {
           {
             name: 'good-latin1.txt',
             path: 'test/good-latin1.txt',
-            size: -1,
+            size: 5,
           },
           {
             name: 'good-utf8.txt',
             path: 'test/good-utf8.txt',
-            size: -1,
+            size: 8,
           },
         ])
       ) {
@@ -526,8 +1099,8 @@ const tests: { [name: string]: StatusOrEvaluator } = {
     /*  TODO: This would be the ideal test, but because isDirectory and isFile
         are functions, making this isEqual check falsy. We'll hovewer probably
         drop these functions in future, and thus use this test then. Also,
-        note that currently it does not return ctime, mtime, size values
-        for assets. Should we fix something here?
+        note that currently it does not return ctime, mtime values for
+        assets. Should we fix something here?
     if (
       !isEqual(await readDirAssets('test'), [
         {
@@ -537,7 +1110,7 @@ const tests: { [name: string]: StatusOrEvaluator } = {
           mtime: null,
           name: 'good-latin1.txt',
           path: 'test/good-latin1.txt',
-          size: 0,
+          size: 5,
         },
         {
           ctime: null,
@@ -546,7 +1119,7 @@ const tests: { [name: string]: StatusOrEvaluator } = {
           mtime: null,
           name: 'good-utf8.txt',
           path: 'test/good-utf8.txt',
-          size: 0,
+          size: 8,
         },
       ])
     ) {
@@ -616,14 +1189,13 @@ const tests: { [name: string]: StatusOrEvaluator } = {
         res.ctime.valueOf() > now + 1000 ||
         (Platform.OS !== 'windows' && !res.isDirectory()) ||
         res.isFile() ||
-        // NOTE: mode is documented, but not actually returned, at least on
-        // Android. We'll deal with it later.
-        res.mode !==
-          Platform.select({
-            android: undefined,
-            windows: undefined,
-            default: 493,
-          }) ||
+        (Platform.OS === 'android'
+          ? !hasAndroidAttributes(res, S_IFDIR)
+          : res.mode !==
+            Platform.select({
+              windows: undefined,
+              default: 493,
+            })) ||
         res.mtime.valueOf() < now - 1000 ||
         res.mtime.valueOf() > now + 1000 ||
         // TODO: Check this works as documented for Android Contentt URIs.
@@ -651,14 +1223,13 @@ const tests: { [name: string]: StatusOrEvaluator } = {
         res.ctime.valueOf() > now + 1000 ||
         res.isDirectory() ||
         (Platform.OS !== 'windows' && !res.isFile()) ||
-        // NOTE: mode is documented, but not actually returned, at least on
-        // Android. We'll deal with it later.
-        res.mode !==
-          Platform.select({
-            android: undefined,
-            default: 420,
-            windows: undefined,
-          }) ||
+        (Platform.OS === 'android'
+          ? !hasAndroidAttributes(res, S_IFREG)
+          : res.mode !==
+            Platform.select({
+              default: 420,
+              windows: undefined,
+            })) ||
         res.mtime.valueOf() < now - 1000 ||
         res.mtime.valueOf() > now + 1000 ||
         // TODO: Check this works as documented for Android Contentt URIs.
@@ -718,6 +1289,53 @@ const tests: { [name: string]: StatusOrEvaluator } = {
       return 'fail';
     }
   },
+  'statMany()': async () => {
+    // statMany() is Android-only.
+    if (Platform.OS !== 'android') return 'pass';
+    try {
+      const path = `${TemporaryDirectoryPath}/stat-many-test`;
+      try {
+        await unlink(path);
+      } catch {}
+      await mkdir(`${path}/folder`);
+      await writeFile(`${path}/file.txt`, 'Dummy content');
+
+      const paths = [
+        `${path}/file.txt`,
+        `${path}/non-existing.txt`,
+        `${path}/folder`,
+      ];
+      const res = await statMany(paths);
+      if (res.length !== 3 || res[1] !== null) return 'fail';
+
+      // Items are the same as stat() results for the same paths.
+      for (const index of [0, 2]) {
+        const item = res[index];
+        const good = await stat(paths[index]!);
+        if (
+          !item ||
+          item.path !== paths[index] ||
+          item.name !== good.name ||
+          item.size !== good.size ||
+          item.mode !== good.mode ||
+          item.inode !== good.inode ||
+          item.mtime.valueOf() !== good.mtime.valueOf() ||
+          item.isFile() !== good.isFile() ||
+          item.isDirectory() !== good.isDirectory()
+        ) {
+          return 'fail';
+        }
+      }
+      if (!res[0]!.isFile() || res[0]!.size !== 13 || !res[2]!.isDirectory()) {
+        return 'fail';
+      }
+
+      if ((await statMany([])).length) return 'fail';
+      return 'pass';
+    } catch {
+      return 'fail';
+    }
+  },
   'unlink()': async () => {
     try {
       const dirPath = `${TemporaryDirectoryPath}/test-unlink-dir`;
@@ -779,6 +1397,266 @@ const tests: { [name: string]: StatusOrEvaluator } = {
       return 'fail';
     }
   },
+  'walk()': async () => {
+    // walk() is Android-only.
+    if (Platform.OS !== 'android') return 'pass';
+    try {
+      const path = `${TemporaryDirectoryPath}/walk-test`;
+      try {
+        await unlink(path);
+      } catch {}
+      await mkdir(`${path}/sub/deep`);
+      await writeFile(`${path}/a.txt`, 'A');
+      await writeFile(`${path}/b.log`, 'B');
+      await writeFile(`${path}/sub/c.txt`, 'C');
+      await writeFile(`${path}/sub/deep/d.txt`, 'D');
+
+      const collect = async (options: WalkOptionsT) => {
+        const items: WalkResItemT[] = [];
+        for await (const page of walk(path, options)) {
+          if (!page.length || page.length > (options.pageSize ?? 256)) {
+            throw Error('Bad page size');
+          }
+          items.push(...page);
+        }
+        return items;
+      };
+      const toDepthMap = (items: WalkResItemT[]) =>
+        Object.fromEntries(items.map((item) => [item.name, item.depth]));
+
+      // All items, in pages of 2, each folder before its content.
+      let items = await collect({ pageSize: 2 });
+      const names = items.map((item) => item.name);
+      if (
+        !isEqual(toDepthMap(items), {
+          'a.txt': 1,
+          'b.log': 1,
+          sub: 1,
+          'c.txt': 2,
+          deep: 2,
+          'd.txt': 3,
+        }) ||
+        names.indexOf('sub') > names.indexOf('c.txt') ||
+        names.indexOf('deep') > names.indexOf('d.txt') ||
+        items.find((item) => item.name === 'deep')?.path !==
+          `${path}/sub/deep` ||
+        !items.find((item) => item.name === 'sub')?.isDirectory() ||
+        !items.find((item) => item.name === 'd.txt')?.isFile()
+      ) {
+        return 'fail';
+      }
+
+      items = await collect({ maxDepth: 1 });
+      if (!isEqual(toDepthMap(items), { 'a.txt': 1, 'b.log': 1, sub: 1 })) {
+        return 'fail';
+      }
+
+      // Filters match names only, non-matching folders are still walked.
+      items = await collect({ filter: /\.TXT$/i });
+      if (!isEqual(toDepthMap(items), { 'a.txt': 1, 'c.txt': 2, 'd.txt': 3 })) {
+        return 'fail';
+      }
+      items = await collect({ filter: '^d' });
+      if (!isEqual(toDepthMap(items), { deep: 2, 'd.txt': 3 })) {
+        return 'fail';
+      }
+
+      // An interrupted walk releases its cursor, and does not throw.
+      for await (const page of walk(path, { pageSize: 1 })) {
+        if (page.length !== 1) return 'fail';
+        break;
+      }
+
+      try {
+        await walk(`${path}/a.txt`).next();
+        return 'fail';
+      } catch (e: any) {
+        if (e.code !== 'ENOTDIR') return 'fail';
+      }
+
+      return 'pass';
+    } catch {
+      return 'fail';
+    }
+  },
+  'watch() and unwatch()': async () => {
+    // watch() is Android-only.
+    if (Platform.OS !== 'android') return 'pass';
+    const watchIds: number[] = [];
+    try {
+      const path = `${TemporaryDirectoryPath}/watch-test`;
+      try {
+        await unlink(path);
+      } catch {}
+      await mkdir(path);
+
+      let changes: FileChangeT[] = [];
+      const eventsOf = (file: string) =>
+        changes
+          .filter((change) => change.path === `${path}/${file}`)
+          .flatMap((change) => change.events);
+      const pause = () => new Promise((resolve) => setTimeout(resolve, 300));
+
+      // Events of the same path within the debounce interval are coalesced
+      // into a single change.
+      watchIds.push(
+        await watch(path, (batch) => changes.push(...batch), {
+          debounceMs: 200,
+        }),
+      );
+      await writeFile(`${path}/a.txt`, 'A');
+      if (
+        !(await waitFor(async () => eventsOf('a.txt').includes('modify'))) ||
+        changes.length !== 1 ||
+        !isEqual(changes[0]!.events, ['create', 'modify'])
+      ) {
+        return 'fail';
+      }
+      await unlink(`${path}/a.txt`);
+      if (!(await waitFor(async () => eventsOf('a.txt').includes('delete')))) {
+        return 'fail';
+      }
+
+      // Not watched events are not reported.
+      unwatch(watchIds.pop()!);
+      changes = [];
+      watchIds.push(
+        await watch(path, (batch) => changes.push(...batch), {
+          events: ['delete'],
+        }),
+      );
+      await writeFile(`${path}/b.txt`, 'B');
+      await unlink(`${path}/b.txt`);
+      if (
+        !(await waitFor(async () => eventsOf('b.txt').includes('delete'))) ||
+        !isEqual(eventsOf('b.txt'), ['delete'])
+      ) {
+        return 'fail';
+      }
+
+      // Once unwatched, changes are not reported anymore.
+      unwatch(watchIds.pop()!);
+      changes = [];
+      await writeFile(`${path}/c.txt`, 'C');
+      await unlink(`${path}/c.txt`);
+      await pause();
+      if (changes.length) return 'fail';
+
+      // In the recursive mode, new subfolders are watched as well.
+      watchIds.push(
+        await watch(path, (batch) => changes.push(...batch), {
+          recursive: true,
+        }),
+      );
+      await mkdir(`${path}/sub`);
+      if (!(await waitFor(async () => eventsOf('sub').includes('create')))) {
+        return 'fail';
+      }
+      await writeFile(`${path}/sub/d.txt`, 'D');
+      if (!(await waitFor(async () => eventsOf('sub/d.txt').length > 0))) {
+        return 'fail';
+      }
+
+      try {
+        await watch(path, () => {}, { events: ['unknown' as WatchEventT] });
+        return 'fail';
+      } catch (e: any) {
+        if (e.code !== 'EINVAL') return 'fail';
+      }
+      try {
+        await watch(`${path}/non-existing`, () => {});
+        return 'fail';
+      } catch (e: any) {
+        if (e.code !== 'ENOENT') return 'fail';
+      }
+
+      return 'pass';
+    } catch {
+      return 'fail';
+    } finally {
+      watchIds.forEach(unwatch);
+    }
+  },
+  'zip() and unzip()': async () => {
+    try {
+      const path = `${TemporaryDirectoryPath}/zip-test`;
+      try {
+        await unlink(path);
+      } catch {}
+      await mkdir(`${path}/src/folder`);
+      await writeFile(`${path}/src/file-a.txt`, 'A test file');
+      await writeFile(`${path}/src/folder/file-b.txt`, 'A second test file');
+
+      // Round trip, with parallel and sequential extraction.
+      let res: unknown = await zip(`${path}/src`, `${path}/test.zip`);
+      if (!isEqual(res, { directories: 2, files: 2, bytes: 29 })) {
+        return 'fail';
+      }
+      for (const concurrency of [undefined, 1]) {
+        const dest = `${path}/dest-${concurrency ?? 'default'}`;
+        res = await unzip(`${path}/test.zip`, dest, { concurrency });
+        if (
+          !isEqual(res, { directories: 2, files: 2, bytes: 29 }) ||
+          (await readFile(`${dest}/file-a.txt`)) !== 'A test file' ||
+          (await readFile(`${dest}/folder/file-b.txt`)) !==
+            'A second test file'
+        ) {
+          return 'fail';
+        }
+      }
+
+      // Entries with the same target are extracted once, the last one wins.
+      await writeFile(`${path}/dup.zip`, ZIP_WITH_DUPLICATES, 'base64');
+      for (const concurrency of [undefined, 1]) {
+        const dest = `${path}/dup-${concurrency ?? 'default'}`;
+        res = await unzip(`${path}/dup.zip`, dest, { concurrency });
+        if (
+          !isEqual(res, { directories: 2, files: 2, bytes: 7 }) ||
+          (await readFile(`${dest}/a.txt`)) !== 'A' ||
+          (await readFile(`${dest}/folder/b.txt`)) !== 'second'
+        ) {
+          return 'fail';
+        }
+      }
+
+      // Entries pointing outside the destination are rejected.
+      await writeFile(`${path}/slip.zip`, ZIP_WITH_SLIP, 'base64');
+      for (const concurrency of [undefined, 1]) {
+        try {
+          await unzip(`${path}/slip.zip`, `${path}/slip/dest`, {
+            concurrency,
+          });
+          return 'fail';
+        } catch (e: any) {
+          if (
+            e.code !== 'EINVAL' ||
+            (await exists(`${path}/slip/evil.txt`))
+          ) {
+            return 'fail';
+          }
+        }
+      }
+
+      // Extraction aborted by stopCopy() rejects with ECANCELED.
+      await mkdir(`${path}/many`);
+      for (let i = 0; i < 200; ++i) {
+        await writeFile(`${path}/many/${i}.txt`, 'x'.repeat(1024));
+      }
+      await zip(`${path}/many`, `${path}/many.zip`);
+      try {
+        await unzip(`${path}/many.zip`, `${path}/many-dest`, {
+          begin: (jobId) => stopCopy(jobId),
+        });
+        return 'fail';
+      } catch (e: any) {
+        if (e.code !== 'ECANCELED') return 'fail';
+      }
+
+      return 'pass';
+    } catch {
+      return 'fail';
+    }
+  },
 };
 
 export default function TestBaseMethods() {
@@ -36,6 +36,16 @@ namespace JS {
       NSDictionary *_v;
     };
 
+    struct UnlinkOptionsT {
+      std::optional<bool> background() const {
+        return ((NSNumber*)_v[@"background"]).boolValue;
+      }
+
+      UnlinkOptionsT(NSDictionary *const v) : _v(v) {}
+    private:
+      NSDictionary *_v;
+    };
+
     struct NativeDownloadFileOptionsT {
       double jobId() const { return [_v[@"jobId"] doubleValue]; }
       NSString *fromUrl() const  { return _v[@"fromUrl"]; }
@@ -123,6 +133,12 @@ namespace JS {
   return facebook::react::managedPointer<JS::NativeReactNativeFs::MkdirOptionsT>(json);
 }
 @end
+@implementation RCTCxxConvert (NativeReactNativeFs_UnlinkOptionsT)
++ (RCTManagedPointer *)JS_NativeReactNativeFs_UnlinkOptionsT:(id)json
+{
+  return facebook::react::managedPointer<JS::NativeReactNativeFs::UnlinkOptionsT>(json);
+}
+@end
 @implementation RCTCxxConvert (NativeReactNativeFs_NativeDownloadFileOptionsT)
 + (RCTManagedPointer *)JS_NativeReactNativeFs_NativeDownloadFileOptionsT:(id)json
 {
@@ -220,6 +220,7 @@ RCT_EXPORT_METHOD(write:(NSString *)filepath
 }
 
 RCT_EXPORT_METHOD(unlink:(NSString*)filepath
+                  options:(JS::NativeReactNativeFs::UnlinkOptionsT &)options
                   resolve:(RCTPromiseResolveBlock)resolve
                   reject:(RCTPromiseRejectBlock)reject)
 {
@@ -1081,7 +1082,7 @@ RCT_EXPORT_METHOD(touch:(NSString*)filepath
 }
 
 
-- (void)copyFolder:(NSString *)from into:(NSString *)into resolve:(RCTPromiseResolveBlock)resolve reject:(RCTPromiseRejectBlock)reject { 
+- (void)copyFolder:(NSString *)from into:(NSString *)into options:(JS::NativeReactNativeFs::FileOptionsT &)options resolve:(RCTPromiseResolveBlock)resolve reject:(RCTPromiseRejectBlock)reject { 
   [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"copyFolder()"];
 }
 
@@ -1134,6 +1135,301 @@ RCT_EXPORT_METHOD(touch:(NSString*)filepath
   [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"setReadable()"];
 }
 
+// Android-specific methods, not implemented on iOS.
+
+RCT_EXPORT_METHOD(append:(double)appenderId
+                  b64:(NSString *)b64
+                  resolve:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"append()"];
+}
+
+RCT_EXPORT_METHOD(cacheClear:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"cacheClear()"];
+}
+
+RCT_EXPORT_METHOD(
+#ifdef RCT_NEW_ARCH_ENABLED
+                  cacheConfigure:(JS::NativeReactNativeFs::CacheOptionsT &)options
+#else
+                  cacheConfigure:(NSDictionary*)options
+#endif
+                  resolve:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject
+)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"cacheConfigure()"];
+}
+
+RCT_EXPORT_METHOD(cacheGet:(NSString *)key
+                  resolve:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"cacheGet()"];
+}
+
+RCT_EXPORT_METHOD(
+                  cachePut:(NSString *)key
+                  path:(NSString *)path
+#ifdef RCT_NEW_ARCH_ENABLED
+                  options:(JS::NativeReactNativeFs::CachePutOptionsT &)options
+#else
+                  options:(NSDictionary*)options
+#endif
+                  resolve:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject
+)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"cachePut()"];
+}
+
+RCT_EXPORT_METHOD(cacheRemove:(NSString *)key
+                  resolve:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"cacheRemove()"];
+}
+
+RCT_EXPORT_METHOD(cacheStats:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"cacheStats()"];
+}
+
+RCT_EXPORT_METHOD(closeAppender:(double)appenderId
+                  resolve:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"closeAppender()"];
+}
+
+RCT_EXPORT_METHOD(
+                  copyAssetsFolder:(NSString *)from
+                  into:(NSString *)into
+#ifdef RCT_NEW_ARCH_ENABLED
+                  options:(JS::NativeReactNativeFs::FileOptionsT &)options
+#else
+                  options:(NSDictionary*)options
+#endif
+                  resolve:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject
+)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"copyAssetsFolder()"];
+}
+
+RCT_EXPORT_METHOD(
+                  du:(NSString *)path
+#ifdef RCT_NEW_ARCH_ENABLED
+                  options:(JS::NativeReactNativeFs::DuOptionsT &)options
+#else
+                  options:(NSDictionary*)options
+#endif
+                  resolve:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject
+)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"du()"];
+}
+
+RCT_EXPORT_METHOD(getActiveJobs:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"getActiveJobs()"];
+}
+
+RCT_EXPORT_METHOD(getAssetManifest:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"getAssetManifest()"];
+}
+
+RCT_EXPORT_METHOD(getMetrics:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"getMetrics()"];
+}
+
+RCT_EXPORT_METHOD(getPendingJobs:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"getPendingJobs()"];
+}
+
+RCT_EXPORT_METHOD(
+                  hashMany:(NSArray *)paths
+                  algorithm:(NSString *)algorithm
+#ifdef RCT_NEW_ARCH_ENABLED
+                  options:(JS::NativeReactNativeFs::NativeHashManyOptionsT &)options
+#else
+                  options:(NSDictionary*)options
+#endif
+                  resolve:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject
+)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"hashMany()"];
+}
+
+RCT_EXPORT_METHOD(
+                  hashWithOptions:(NSString *)path
+#ifdef RCT_NEW_ARCH_ENABLED
+                  options:(JS::NativeReactNativeFs::HashOptionsT &)options
+#else
+                  options:(NSDictionary*)options
+#endif
+                  resolve:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject
+)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"hashWithOptions()"];
+}
+
+RCT_EXPORT_METHOD(
+                  openAppender:(NSString *)path
+#ifdef RCT_NEW_ARCH_ENABLED
+                  options:(JS::NativeReactNativeFs::AppenderOptionsT &)options
+#else
+                  options:(NSDictionary*)options
+#endif
+                  resolve:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject
+)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"openAppender()"];
+}
+
+RCT_EXPORT_METHOD(resetMetrics:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"resetMetrics()"];
+}
+
+RCT_EXPORT_METHOD(setFreeSpaceReserve:(double)bytes
+                  resolve:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"setFreeSpaceReserve()"];
+}
+
+RCT_EXPORT_METHOD(setIOPoolSize:(double)size
+                  resolve:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"setIOPoolSize()"];
+}
+
+RCT_EXPORT_METHOD(setMaxActiveJobs:(double)max
+                  resolve:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"setMaxActiveJobs()"];
+}
+
+RCT_EXPORT_METHOD(
+                  setMetricsEnabled:(BOOL)enabled
+#ifdef RCT_NEW_ARCH_ENABLED
+                  options:(JS::NativeReactNativeFs::MetricsOptionsT &)options
+#else
+                  options:(NSDictionary*)options
+#endif
+                  resolve:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject
+)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"setMetricsEnabled()"];
+}
+
+RCT_EXPORT_METHOD(statMany:(NSArray *)paths
+                  resolve:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"statMany()"];
+}
+
+RCT_EXPORT_METHOD(stopCopy:(double)jobId)
+{
+  // Copying is not cancellable on iOS.
+}
+
+RCT_EXPORT_METHOD(unwatch:(double)watchId)
+{
+  // Nothing to stop, as watch() is not implemented on iOS.
+}
+
+RCT_EXPORT_METHOD(
+                  unzip:(NSString *)from
+                  into:(NSString *)into
+#ifdef RCT_NEW_ARCH_ENABLED
+                  options:(JS::NativeReactNativeFs::NativeUnzipOptionsT &)options
+#else
+                  options:(NSDictionary*)options
+#endif
+                  resolve:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject
+)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"unzip()"];
+}
+
+RCT_EXPORT_METHOD(
+                  walk:(NSString *)path
+#ifdef RCT_NEW_ARCH_ENABLED
+                  options:(JS::NativeReactNativeFs::NativeWalkOptionsT &)options
+#else
+                  options:(NSDictionary*)options
+#endif
+                  resolve:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject
+)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"walk()"];
+}
+
+RCT_EXPORT_METHOD(walkClose:(double)cursorId)
+{
+  // Nothing to close, as walk() is not implemented on iOS.
+}
+
+RCT_EXPORT_METHOD(walkNext:(double)cursorId
+                  resolve:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"walkNext()"];
+}
+
+RCT_EXPORT_METHOD(
+                  watch:(NSString *)path
+#ifdef RCT_NEW_ARCH_ENABLED
+                  options:(JS::NativeReactNativeFs::NativeWatchOptionsT &)options
+#else
+                  options:(NSDictionary*)options
+#endif
+                  resolve:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject
+)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"watch()"];
+}
+
+RCT_EXPORT_METHOD(
+                  zip:(NSString *)from
+                  into:(NSString *)into
+#ifdef RCT_NEW_ARCH_ENABLED
+                  options:(JS::NativeReactNativeFs::NativeZipOptionsT &)options
+#else
+                  options:(NSDictionary*)options
+#endif
+                  resolve:(RCTPromiseResolveBlock)resolve
+                  reject:(RCTPromiseRejectBlock)reject
+)
+{
+  [[RNFSException NOT_IMPLEMENTED] reject:reject details:@"zip()"];
+}
+
 - (void)documentPicker:(UIDocumentPickerViewController *)picker
 didPickDocumentsAtURLs:(NSArray<NSURL *> *)urls
 {
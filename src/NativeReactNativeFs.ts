@@ -5,6 +5,80 @@ import { TurboModuleRegistry } from 'react-native';
 // module, however as of its current version RN's Codegen does not seem to handle
 // type imports correctly.
 
+export type ActiveJobT = {
+  jobId: number;
+  type: string; // 'download' or 'upload'
+  url: string;
+  state: string; // 'queued' or 'running'
+  bytesTransferred: number;
+  totalBytes: number; // -1 if not known (yet)
+  speed: number; // The average speed of the job since its start [bytes/s]
+  queuedAt: number; // The time the job was submitted [ms]
+  startedAt?: number; // The time the job was started [ms], unless it is queued
+};
+
+export type AppenderOptionsT = {
+  bufferBytes?: number; // The buffer size [bytes], defaults 64 kB
+  flushIntervalMs?: number; // The maximal time [ms] records stay buffered, defaults 1000
+  fsync?: 'never' | 'interval' | 'always'; // When to fsync the file, defaults 'interval'
+  rotateBytes?: number; // The file size [bytes] triggering rotation, 0 (default) disables it
+  maxFiles?: number; // The number of rotated files to keep, defaults 1
+};
+
+export type CacheOptionsT = {
+  maxBytes?: number; // The maximal total size [bytes] of cached files
+  maxEntries?: number; // The maximal number of entries, 0 for unlimited
+};
+
+export type CachePutOptionsT = {
+  move?: boolean; // Move the file into the cache, rather than copy it
+};
+
+export type CacheStatsT = {
+  bytes: number; // The total size [bytes] of cached files
+  entries: number; // The number of entries
+  maxBytes: number; // The current size limit [bytes]
+  maxEntries: number; // The current entry count limit, 0 for unlimited
+};
+
+export type CopyFolderProgressCallbackResultT = {
+  jobId: number; // The copy job ID, required if one wishes to cancel the copying. See `stopCopy`.
+  filesCopied: number; // The number of files copied so far
+  totalFiles: number; // The total number of files to copy
+  bytesCopied: number; // The number of bytes copied so far
+  totalBytes: number; // The total number of bytes to copy
+};
+
+export type CopyFolderOptionsT = {
+  begin?: (jobId: number) => void; // Called with the job ID once the copying is started. See `stopCopy`.
+  progress?: (res: CopyFolderProgressCallbackResultT) => void;
+  progressInterval?: number; // The minimal interval [ms] between progress callbacks
+};
+
+export type CopyFolderResultT = {
+  directories: number; // The number of folders created, including the target one
+  files: number; // The number of files copied
+  bytes: number; // The number of bytes copied
+};
+
+export type DuOptionsT = {
+  followSymlinks?: boolean; // Measure targets of symbolic links, rather than links themselves
+  maxDepth?: number; // The depth of the per-child breakdown, 0 for the totals only; defaults 1
+  fsInfo?: boolean; // Also report the total and free space of the file system
+};
+
+export type DuResultT = {
+  name: string; // The item name
+  bytes: number; // The total size [bytes] of files
+  files: number; // The total number of files
+  directories: number; // The total number of folders, including the item itself
+  children?: DuResultT[]; // The breakdown by children, down to the requested depth
+
+  // Only at the top level, if requested by the fsInfo option.
+  totalSpace?: number;
+  freeSpace?: number;
+};
+
 export type DownloadBeginCallbackResultT = {
   jobId: number; // The download job ID, required if one wishes to cancel the download. See `stopDownload`.
   statusCode: number; // The HTTP status code
@@ -25,7 +99,13 @@ export type DownloadProgressCallbackResultT = {
 export type NativeDownloadFileOptionsT = {
   jobId: number;
   fromUrl: string; // URL to download file from
-  toFile: string; // Local filesystem path to save the file to
+  toFile: string; // Local filesystem path or content URI to save the file to, ignored if cacheKey or mediaStore is given
+  cacheKey?: string; // Android-only. Disk cache key to save the file under
+  mediaStore?: MediaStoreItemT; // Android-only. MediaStore entry to create and save the file into
+  persist?: boolean; // Android-only. Journal the download, to resume it after the app restart
+  restoreId?: string; // Android-only. ID of the journaled download to resume
+  mirrors?: string[]; // Android-only. Alternative URLs of the file
+  retry?: DownloadRetryOptionsT; // Android-only
   background: boolean; // Continue the download in the background after the app terminates (iOS only)
   backgroundTimeout: number; // Maximum time (in milliseconds) to download an entire resource (iOS only, useful for timing out background downloads)
   cacheable: boolean; // Whether the download can be stored in the shared NSURLCache (iOS only)
@@ -44,9 +124,31 @@ export type PickFileOptionsT = {
   mimeTypes: string[];
 };
 
+export type MediaStoreItemT = {
+  collection: string; // 'audio', 'downloads', 'images', or 'video'
+  displayName: string; // The file name
+  mimeType?: string; // The MIME type, guessed from the file name by default
+  relativePath?: string; // The folder inside the collection, e.g. 'Movies/MyApp'
+};
+
+export type DownloadRetryOptionsT = {
+  maxAttempts?: number; // Defaults 1 + the number of mirrors
+  delay?: number; // The delay [ms] before the first retry, doubled for each next one, defaults 1000
+  maxDelay?: number; // The maximal delay [ms] between retries, defaults 30000
+  stallSpeed?: number; // Attempts slower than this [bytes/s] are failed as stalled, 0 (default) disables the check
+  stallWindow?: number; // The interval [ms] the speed is measured over, defaults 5000
+  hedgeAfter?: number; // Delay [ms] without data before a hedged request is sent, 0 (default) disables hedging
+};
+
 export type DownloadFileOptionsT = {
   fromUrl: string; // URL to download file from
-  toFile: string; // Local filesystem path to save the file to
+  toFile?: string; // Local filesystem path, or (Android-only) content URI to save the file to, required unless cacheKey or mediaStore is given
+  cacheKey?: string; // Android-only. Saves the file into the disk cache under this key, instead of toFile
+  mediaStore?: MediaStoreItemT; // Android-only. Saves the file into a new MediaStore entry, instead of toFile
+  persist?: boolean; // Android-only. Journals the download, to be resumed by restoreJobs() after the app restart
+  coalesce?: boolean | 'ignoreHeaders'; // Joins a download in progress with the same source, destination, and options (and headers), defaults false
+  mirrors?: string[]; // Android-only. Alternative URLs of the file, tried in turn by retries
+  retry?: DownloadRetryOptionsT; // Android-only. Retry policy
   background?: boolean; // Continue the download in the background after the app terminates (iOS only)
   backgroundTimeout?: number; // Maximum time (in milliseconds) to download an entire resource (iOS only, useful for timing out background downloads)
   cacheable?: boolean; // Whether the download can be stored in the shared NSURLCache (iOS only)
@@ -67,16 +169,49 @@ export type DownloadFileOptionsT = {
   resumable?: (res: unknown) => void; // only supported on iOS yet
 };
 
+export type PendingJobT = {
+  id: string; // The journal ID of the download
+  fromUrl: string;
+  toFile: string;
+  headers: StringMapT;
+  bytesWritten: number; // The number of bytes durably written at the last checkpoint
+  contentLength: number; // The total size, or -1 if not known
+  createdAt: number; // The time the download was started first [ms]
+};
+
 export type DownloadResultT = {
   jobId: number; // The download job ID, required if one wishes to cancel the download. See `stopDownload`.
   statusCode: number; // The HTTP status code
   bytesWritten: number; // The number of bytes written to the file
   headers: { [headerName: string]: string }; //Response Headers from the GET request
+  path?: string; // Android-only. The cached file path, for downloads with cacheKey; or the created entry URI, for downloads with mediaStore
 };
 
 export type FileOptionsT = {
   // iOS-specific.
   NSFileProtectionKey?: string;
+
+  // Android-specific, set internally by copyFile(), copyFolder(),
+  // and moveFile().
+  jobId?: number;
+  hasProgressCallback?: boolean;
+  progressInterval?: number;
+};
+
+export type CopyProgressCallbackResultT = {
+  jobId: number; // The copy job ID, required if one wishes to cancel the copying. See `stopCopy`.
+  bytesCopied: number; // The number of bytes copied so far
+  totalBytes: number; // The total number of bytes to copy, -1 if unknown
+};
+
+export type CopyFileOptionsT = {
+  // iOS-specific.
+  NSFileProtectionKey?: string;
+
+  // Android-specific.
+  begin?: (jobId: number) => void; // Called with the job ID once the copying is started. See `stopCopy`.
+  progress?: (res: CopyProgressCallbackResultT) => void;
+  progressInterval?: number; // The minimal interval [ms] between progress callbacks
 };
 
 export type FSInfoResultT = {
@@ -88,12 +223,78 @@ export type FSInfoResultT = {
 
 export type StringMapT = { [key: string]: string };
 
+export type HashOptionsT = {
+  algorithms: string[]; // Algorithms to compute in a single pass over the data
+  offset?: number; // The position [bytes] to start hashing from, defaults 0
+  length?: number; // The maximal number of bytes to hash, defaults to the end of data
+};
+
+export type HashManyProgressCallbackResultT = {
+  jobId: number; // The hashing job ID
+  digests: StringMapT; // Digests computed since the previous callback, keyed by paths
+  hashed: number; // The number of files hashed so far
+  total: number; // The total number of files to hash
+};
+
+export type HashManyOptionsT = {
+  concurrency?: number; // The number of files hashed concurrently
+  progress?: (res: HashManyProgressCallbackResultT) => void;
+  progressInterval?: number; // The minimal interval [ms] between progress callbacks, defaults 250
+};
+
+export type NativeHashManyOptionsT = {
+  jobId: number;
+  concurrency?: number;
+  hasProgressCallback: boolean;
+  progressInterval: number;
+};
+
+export type MetricsOptionsT = {
+  trace?: boolean; // Also wrap measured calls into android.os.Trace sections
+};
+
+export type OperationMetricsT = {
+  calls: number; // The number of completed calls
+  errors: number; // The number of failed calls
+  errorsByCode: { [code: string]: number }; // Failed calls, by error codes
+  bytes: number; // The total size [bytes] of data read, written, or transferred
+  active: number; // The number of calls in progress
+  totalMs: number; // The total time [ms] spent in the calls
+  p50Ms: number; // The median call duration [ms]
+  p95Ms: number; // The 95th percentile of call durations [ms]
+  p99Ms: number; // The 99th percentile of call durations [ms]
+  maxMs: number; // The longest call duration [ms]
+  throughput: number; // Bytes per second of the time spent in the calls
+};
+
+export type MetricsT = {
+  enabled: boolean; // Is the collection enabled?
+  since: number; // The time [ms since epoch] of the last reset
+  durationMs: number; // The time [ms] since the last reset
+  operations: { [name: string]: OperationMetricsT }; // Metrics by methods
+};
+
 export type MkdirOptionsT = {
   // iOS-specific.
   NSURLIsExcludedFromBackupKey?: boolean;
   NSFileProtectionKey?: string;
 };
 
+export type AssetManifestItemT = {
+  path: string; // The asset path, relative to the assets root
+  size: number; // The uncompressed size [bytes], -1 for folders, or if not known
+  compressed: boolean; // Is the asset compressed inside the APK?
+  isDirectory: () => boolean; // Is the item a folder?
+  isFile: () => boolean; // Is the item a file?
+};
+
+export type NativeAssetManifestItemT = {
+  path: string;
+  size: number;
+  compressed: boolean;
+  type: string;
+};
+
 export type ReadDirAssetsResItemT = {
   name: string;
   path: string;
@@ -127,7 +328,12 @@ export type ReadDirResItemT = {
   isFile: () => boolean; // Is the file just a file?
 
   // iOS-specific
-  ctime: Date | null; // The creation date of the file (iOS only)
+  ctime: Date | null; // The creation date of the file (iOS), or the last status change date (Android)
+
+  // Android-specific
+  inode?: number; // The inode number
+  mode?: number; // UNIX file mode
+  isSymbolicLink?: () => boolean; // Is the item a symbolic link? Other fields describe its target, if it exists
 };
 
 // TODO: Essentially here StatResult is similar to ReadDirItem,
@@ -152,6 +358,11 @@ export type StatResultT = {
   isFile: () => boolean; // Is the file just a file?
   isDirectory: () => boolean; // Is the file a directory?
 
+  // Android-specific
+  inode?: number; // The inode number
+  isSymbolicLink?: () => boolean; // Is the item a symbolic link? Other fields describe its target, if it exists
+  mimeType?: string; // MIME type reported by the content provider, for content URIs
+
   // TODO: This is temporary addition,
   // to make the code compile.
   type?: number;
@@ -164,9 +375,14 @@ export type NativeReadDirResItemT = {
   path: string;
   size: number;
   type: string;
+
+  // Android-specific
+  inode?: number;
+  mode?: number;
+  symlink?: boolean;
 };
 
-type NativeStatResultT = {
+export type NativeStatResultT = {
   ctime: number; // Created date
   mtime: number; // Last modified date
   size: number; // Size in bytes
@@ -177,6 +393,68 @@ type NativeStatResultT = {
   // otherwise is the same as path.
   // TODO: This is not implemented on iOS
   originalFilepath: string;
+
+  // Android-specific
+  inode?: number;
+  symlink?: boolean;
+  name?: string;
+  mimeType?: string;
+};
+
+export type WalkOptionsT = {
+  maxDepth?: number; // The maximal depth of returned items, direct children of the root have depth 1
+  pageSize?: number; // The maximal number of items per page
+  filter?: RegExp | string; // If given, only items with matching names are returned
+};
+
+export type WalkResItemT = ReadDirResItemT & {
+  depth: number; // The item depth inside the walked tree, starting from 1
+};
+
+export type NativeWalkOptionsT = {
+  maxDepth: number; // -1 for unlimited depth
+  pageSize: number;
+  filter?: string;
+  filterFlags?: string; // RegExp flags of the filter
+};
+
+export type NativeWalkResItemT = {
+  ctime: number;
+  mtime: number;
+  name: string;
+  path: string;
+  size: number;
+  type: string;
+  inode: number;
+  mode: number;
+  symlink: boolean;
+  depth: number;
+};
+
+export type NativeWalkPageT = {
+  cursorId: number;
+  items: NativeWalkResItemT[];
+  done: boolean;
+};
+
+export type WatchEventT = 'create' | 'modify' | 'delete' | 'attrib';
+
+export type WatchOptionsT = {
+  recursive?: boolean; // Also watch all subfolders, including ones created later
+  events?: WatchEventT[]; // Changes to report, defaults to all of them
+  debounceMs?: number; // The interval [ms] during which changes are coalesced, defaults 100
+};
+
+export type FileChangeT = {
+  path: string; // The changed item path
+  events: WatchEventT[]; // Changes coalesced within the debounce interval
+};
+
+export type NativeWatchOptionsT = {
+  watchId: number;
+  recursive?: boolean;
+  events?: string[];
+  debounceMs?: number;
 };
 
 export type UploadFileItemT = {
@@ -231,6 +509,33 @@ export type UploadResultT = {
   body: string; // The HTTP response body
 };
 
+export type UnzipOptionsT = CopyFolderOptionsT & {
+  concurrency?: number; // The number of entries extracted concurrently
+};
+
+export type NativeUnzipOptionsT = {
+  jobId: number;
+  hasProgressCallback: boolean;
+  progressInterval: number;
+  concurrency?: number;
+};
+
+export type UnlinkOptionsT = {
+  // Android-specific.
+  background?: boolean; // Resolve immediately, and delete the item in background
+};
+
+export type ZipOptionsT = CopyFolderOptionsT & {
+  level?: number; // Compression level, 0 (no compression) to 9 (the best one)
+};
+
+export type NativeZipOptionsT = {
+  jobId: number;
+  hasProgressCallback: boolean;
+  progressInterval: number;
+  level?: number;
+};
+
 type TouchOptions = {
   ctime?: number;
   mtime?: number;
@@ -293,21 +598,81 @@ export interface Spec extends TurboModule {
   stopDownload(jobId: number): void;
   stopUpload(jobId: number): void;
   touch(path: string, options: TouchOptions): Promise<void>;
-  unlink(path: string): Promise<void>;
+  unlink(path: string, options: UnlinkOptionsT): Promise<void>;
   uploadFiles(options: NativeUploadFileOptionsT): Promise<UploadResultT>;
   write(path: string, b64: string, position: number): Promise<void>;
   writeFile(path: string, b64: string, options: FileOptionsT): Promise<void>;
 
   // Android-specific.
+  append(appenderId: number, b64: string): Promise<void>;
+  cacheClear(): Promise<void>;
+  cacheConfigure(options: CacheOptionsT): Promise<void>;
+  cacheGet(key: string): Promise<string | null>;
+  cachePut(
+    key: string,
+    path: string,
+    options: CachePutOptionsT,
+  ): Promise<string>;
+  cacheRemove(key: string): Promise<boolean>;
+  cacheStats(): Promise<CacheStatsT>;
+  closeAppender(appenderId: number): Promise<void>;
+  copyAssetsFolder(
+    from: string,
+    into: string,
+    options: FileOptionsT,
+  ): Promise<CopyFolderResultT>;
   copyFileAssets(from: string, into: string): Promise<void>;
   copyFileRes(from: string, into: string): Promise<void>;
+
+  // The result is DuResultT, which is recursive, and thus is not supported
+  // by Codegen.
+  du(path: string, options: DuOptionsT): Promise<Object>;
+
   existsAssets(path: string): Promise<boolean>;
   existsRes(path: string): Promise<boolean>;
+  getActiveJobs(): Promise<ActiveJobT[]>;
   getAllExternalFilesDirs(): Promise<string[]>;
+  getAssetManifest(): Promise<NativeAssetManifestItemT[]>;
+
+  // The result is MetricsT, which is keyed by method names, and thus is not
+  // supported by Codegen.
+  getMetrics(): Promise<Object>;
+
+  getPendingJobs(): Promise<PendingJobT[]>;
+
+  hashMany(
+    paths: string[],
+    algorithm: string,
+    options: NativeHashManyOptionsT,
+  ): Promise<StringMapT>;
+  hashWithOptions(path: string, options: HashOptionsT): Promise<StringMapT>;
+  openAppender(path: string, options: AppenderOptionsT): Promise<number>;
   readFileAssets(path: string): Promise<string>;
   readFileRes(path: string): Promise<string>;
   readDirAssets(path: string): Promise<NativeReadDirResItemT[]>;
+  resetMetrics(): Promise<void>;
   scanFile(path: string): Promise<string>;
+  setFreeSpaceReserve(bytes: number): Promise<void>;
+  setIOPoolSize(size: number): Promise<void>;
+  setMaxActiveJobs(max: number): Promise<void>;
+  setMetricsEnabled(enabled: boolean, options: MetricsOptionsT): Promise<void>;
+  statMany(paths: string[]): Promise<(NativeStatResultT | null)[]>;
+  stopCopy(jobId: number): void;
+  unwatch(watchId: number): void;
+  unzip(
+    from: string,
+    into: string,
+    options: NativeUnzipOptionsT,
+  ): Promise<CopyFolderResultT>;
+  walk(path: string, options: NativeWalkOptionsT): Promise<NativeWalkPageT>;
+  walkClose(cursorId: number): void;
+  walkNext(cursorId: number): Promise<NativeWalkPageT>;
+  watch(path: string, options: NativeWatchOptionsT): Promise<void>;
+  zip(
+    from: string,
+    into: string,
+    options: NativeZipOptionsT,
+  ): Promise<CopyFolderResultT>;
 
   setReadable(
     filepath: string,
@@ -334,8 +699,12 @@ export interface Spec extends TurboModule {
   pathForGroup(group: string): Promise<string>;
   resumeDownload(jobId: number): void;
 
-  // Windows-specific.
-  copyFolder(from: string, into: string): Promise<void>;
+  // Android & Windows.
+  copyFolder(
+    from: string,
+    into: string,
+    options: FileOptionsT,
+  ): Promise<CopyFolderResultT>;
 }
 
 export default TurboModuleRegistry.getEnforcing<Spec>('ReactNativeFs');
@@ -3,16 +3,40 @@ import { type EmitterSubscription, NativeEventEmitter } from 'react-native';
 import RNFS from './ReactNativeFs';
 
 import {
+  type ActiveJobT,
+  type AppenderOptionsT,
+  type AssetManifestItemT,
+  type CacheOptionsT,
+  type CachePutOptionsT,
+  type CacheStatsT,
+  type CopyFileOptionsT,
+  type CopyFolderOptionsT,
+  type CopyFolderProgressCallbackResultT,
+  type CopyFolderResultT,
+  type CopyProgressCallbackResultT,
   type DownloadBeginCallbackResultT,
   type DownloadFileOptionsT,
   type DownloadProgressCallbackResultT,
   type DownloadResultT,
+  type DownloadRetryOptionsT,
+  type DuOptionsT,
+  type DuResultT,
   type FSInfoResultT,
+  type FileChangeT,
   type FileOptionsT,
+  type HashManyOptionsT,
+  type HashManyProgressCallbackResultT,
+  type HashOptionsT,
+  type MediaStoreItemT,
+  type MetricsOptionsT,
+  type MetricsT,
   type MkdirOptionsT,
   type NativeDownloadFileOptionsT,
+  type OperationMetricsT,
   type NativeReadDirResItemT,
+  type NativeStatResultT,
   type NativeUploadFileOptionsT,
+  type PendingJobT,
   type PickFileOptionsT,
   type ReadDirAssetsResItemT,
   type ReadDirResItemT,
@@ -23,6 +47,13 @@ import {
   type UploadFileItemT,
   type UploadProgressCallbackArgT,
   type UploadResultT,
+  type UnlinkOptionsT,
+  type UnzipOptionsT,
+  type WalkOptionsT,
+  type WalkResItemT,
+  type WatchEventT,
+  type WatchOptionsT,
+  type ZipOptionsT,
 } from './NativeReactNativeFs';
 
 import {
@@ -39,22 +70,31 @@ const nativeEventEmitter = new NativeEventEmitter(RNFS);
 
 let lastJobId = 0;
 
+let lastWatchId = 0;
+const watchSubscriptions = new Map<number, EmitterSubscription>();
+
 // Internal functions.
 
 type ReadDirCommand = (path: string) => Promise<NativeReadDirResItemT[]>;
 
+type NativeItemT = {
+  ctime?: number;
+  mtime: number;
+  name: string;
+  path: string;
+  size: number;
+  type: string;
+  inode?: number;
+  mode?: number;
+  symlink?: boolean;
+};
+
 /**
- * Generic function used by readDir and readDirAssets.
+ * Converts an item received from the native side into ReadDirResItemT.
  */
-async function readDirGeneric(
-  dirpath: string,
-  command: ReadDirCommand,
-): Promise<ReadDirResItemT[]> {
-  const files = await command(normalizeFilePath(dirpath));
-
+function toReadDirResItem(file: NativeItemT): ReadDirResItemT {
   const { FileTypeDirectory, FileTypeRegular } = RNFS.getConstants();
-
-  return files.map((file) => ({
+  const res: ReadDirResItemT = {
     ctime: (file.ctime && new Date((file.ctime as number) * 1000)) || null,
     mtime: (file.mtime && new Date((file.mtime as number) * 1000)) || null,
     name: file.name,
@@ -62,7 +102,226 @@ async function readDirGeneric(
     size: file.size,
     isFile: () => file.type === FileTypeRegular,
     isDirectory: () => file.type === FileTypeDirectory,
-  }));
+  };
+  if (file.symlink !== undefined) {
+    res.inode = file.inode;
+    res.mode = file.mode;
+    res.isSymbolicLink = () => !!file.symlink;
+  }
+  return res;
+}
+
+/**
+ * Generic function used by readDir and readDirAssets.
+ */
+async function readDirGeneric(
+  dirpath: string,
+  command: ReadDirCommand,
+): Promise<ReadDirResItemT[]> {
+  const files = await command(normalizeFilePath(dirpath));
+  return files.map(toReadDirResItem);
+}
+
+type CopyCommand<ResT> = (
+  from: string,
+  into: string,
+  options: FileOptionsT,
+) => Promise<ResT>;
+
+type CopyOptionsT<ProgressT> = {
+  NSFileProtectionKey?: string;
+  begin?: (jobId: number) => void;
+  progress?: (res: ProgressT) => void;
+  progressInterval?: number;
+};
+
+/**
+ * Generic function used by copyFile, copyFolder, and moveFile.
+ */
+async function copyGeneric<ResT, ProgressT extends { jobId: number }>(
+  from: string,
+  into: string,
+  options: CopyOptionsT<ProgressT>,
+  command: CopyCommand<ResT>,
+  progressEvent: string,
+): Promise<ResT> {
+  const { begin, progress, progressInterval, ...rest } = options;
+  const jobId = ++lastJobId;
+
+  let subscription: EmitterSubscription | undefined;
+  if (progress) {
+    subscription = nativeEventEmitter.addListener(progressEvent, (res) => {
+      if (res.jobId === jobId) progress(res);
+    });
+  }
+
+  try {
+    const promise = command(normalizeFilePath(from), normalizeFilePath(into), {
+      ...rest,
+      jobId,
+      hasProgressCallback: !!progress,
+      progressInterval: progressInterval || 0,
+    });
+
+    // Called once the native command is issued, thus stopCopy() calls from
+    // the callback reach the native side after the job is registered.
+    if (begin) begin(jobId);
+
+    return await promise;
+  } finally {
+    if (subscription) subscription.remove();
+  }
+}
+
+type DownloadSubscriberT = {
+  options: DownloadFileOptionsT;
+  resolve: (res: DownloadResultT) => void;
+  reject: (error: Error) => void;
+};
+
+/**
+ * A native download shared by concurrent downloadFile() calls with the same
+ * source, destination, and download options (see "coalesce" option).
+ * It runs under the job ID of the call which started it; the calls joining
+ * it keep their own job IDs, and get the same events and result, under their
+ * IDs.
+ */
+type SharedDownloadT = {
+  nativeJobId: number;
+  subscribers: Map<number, DownloadSubscriberT>;
+  lastBegin?: DownloadBeginCallbackResultT;
+};
+
+// Progress interval [ms] requested for shared downloads started by calls
+// without "progress" callbacks, in case joining calls have them.
+const SHARED_PROGRESS_INTERVAL = 250;
+
+// Shared downloads in progress, by their keys; and by job IDs of all calls
+// subscribed to them.
+const sharedDownloads = new Map<string, SharedDownloadT>();
+const sharedDownloadsByJobId = new Map<number, SharedDownloadT>();
+
+/**
+ * @return The key identifying downloads which may be coalesced with
+ *  the given one, or undefined if it should not be coalesced.
+ */
+function getSharedDownloadKey(
+  options: DownloadFileOptionsT,
+  restoreId?: string,
+): string | undefined {
+  // Each download into MediaStore creates a new entry, and restored jobs
+  // are resumed from their own checkpoints, thus these are never shared.
+  if (!options.coalesce || options.mediaStore || restoreId) return undefined;
+
+  const dest = options.cacheKey
+    ? `cache:${options.cacheKey}`
+    : normalizeFilePath(options.toFile as string);
+  const headers =
+    options.coalesce === 'ignoreHeaders'
+      ? ''
+      : JSON.stringify(Object.entries(options.headers || {}).sort());
+
+  // The shared download runs with the options of the call which started it,
+  // thus only calls with the same options affecting the download are joined.
+  const settings = JSON.stringify([
+    !!options.persist,
+    options.mirrors || [],
+    Object.entries(options.retry || {}).sort(),
+    options.connectionTimeout || 0,
+    options.readTimeout || 0,
+    options.progressDivider || 0,
+    options.progressInterval || 0,
+    !!options.background,
+    options.backgroundTimeout || 0,
+    !!options.cacheable,
+    !!options.discretionary,
+  ]);
+  return `${options.fromUrl}\n${dest}\n${headers}\n${settings}`;
+}
+
+function joinSharedDownload(
+  shared: SharedDownloadT,
+  jobId: number,
+  options: DownloadFileOptionsT,
+): Promise<DownloadResultT> {
+  const promise = new Promise<DownloadResultT>((resolve, reject) => {
+    shared.subscribers.set(jobId, { options, resolve, reject });
+  });
+  sharedDownloadsByJobId.set(jobId, shared);
+
+  // The joining call missed the "begin" event, if the download has started
+  // already; it is replayed once the caller gets the job ID.
+  const { lastBegin } = shared;
+  if (lastBegin && options.begin) {
+    Promise.resolve().then(() => {
+      if (options.begin) options.begin({ ...lastBegin, jobId });
+    });
+  }
+  return promise;
+}
+
+function startSharedDownload(
+  key: string,
+  options: DownloadFileOptionsT,
+  nativeOptions: NativeDownloadFileOptionsT,
+): Promise<DownloadResultT> {
+  const { jobId } = nativeOptions;
+  const shared: SharedDownloadT = {
+    nativeJobId: jobId,
+    subscribers: new Map(),
+  };
+  sharedDownloads.set(key, shared);
+  const promise = joinSharedDownload(shared, jobId, options);
+
+  // The events are requested regardless of callbacks of the starting call,
+  // as joining calls may have them.
+  nativeOptions.hasBeginCallback = true;
+  nativeOptions.hasProgressCallback = true;
+  nativeOptions.hasResumableCallback = true;
+  if (!options.progress && !options.progressInterval) {
+    nativeOptions.progressInterval = SHARED_PROGRESS_INTERVAL;
+  }
+
+  const subscriptions = [
+    nativeEventEmitter.addListener('DownloadBegin', (res) => {
+      if (res.jobId !== jobId) return;
+      shared.lastBegin = res;
+      shared.subscribers.forEach((sub, id) => {
+        if (sub.options.begin) sub.options.begin({ ...res, jobId: id });
+      });
+    }),
+    nativeEventEmitter.addListener('DownloadProgress', (res) => {
+      if (res.jobId !== jobId) return;
+      shared.subscribers.forEach((sub, id) => {
+        if (sub.options.progress) sub.options.progress({ ...res, jobId: id });
+      });
+    }),
+    nativeEventEmitter.addListener('DownloadResumable', (res) => {
+      if (res.jobId !== jobId) return;
+      shared.subscribers.forEach((sub, id) => {
+        if (sub.options.resumable) sub.options.resumable({ ...res, jobId: id });
+      });
+    }),
+  ];
+
+  (async () => {
+    try {
+      const res = await RNFS.downloadFile(nativeOptions);
+      shared.subscribers.forEach((sub, id) => {
+        sub.resolve({ ...res, jobId: id });
+      });
+    } catch (error) {
+      shared.subscribers.forEach((sub) => sub.reject(error as Error));
+    } finally {
+      sharedDownloads.delete(key);
+      shared.subscribers.forEach((_, id) => {
+        sharedDownloadsByJobId.delete(id);
+      });
+      subscriptions.forEach((sub) => sub.remove());
+    }
+  })();
+
+  return promise;
 }
 
 // Common exports.
@@ -79,18 +338,28 @@ export function appendFile(
 export function copyFile(
   from: string,
   into: string,
-  options: FileOptionsT = {},
+  options: CopyFileOptionsT = {},
 ): Promise<void> {
-  return RNFS.copyFile(
-    normalizeFilePath(from),
-    normalizeFilePath(into),
-    options,
-  );
+  return copyGeneric(from, into, options, RNFS.copyFile, 'CopyProgress');
 }
 
 export function downloadFile(options: DownloadFileOptionsT): {
   jobId: number;
   promise: Promise<DownloadResultT>;
+} {
+  return startDownload(options);
+}
+
+/**
+ * Implements downloadFile(), and resumption of journaled downloads
+ * by restoreJobs().
+ */
+function startDownload(
+  options: DownloadFileOptionsT,
+  restoreId?: string,
+): {
+  jobId: number;
+  promise: Promise<DownloadResultT>;
 } {
   if (typeof options !== 'object') {
     throw new Error('downloadFile: Invalid value for argument `options`');
@@ -98,9 +367,21 @@ export function downloadFile(options: DownloadFileOptionsT): {
   if (typeof options.fromUrl !== 'string') {
     throw new Error('downloadFile: Invalid value for property `fromUrl`');
   }
-  if (typeof options.toFile !== 'string') {
+  if (
+    typeof options.toFile !== 'string' &&
+    !options.cacheKey &&
+    !options.mediaStore
+  ) {
     throw new Error('downloadFile: Invalid value for property `toFile`');
   }
+  if (options.mediaStore && (options.toFile || options.cacheKey)) {
+    throw new Error(
+      'downloadFile: `mediaStore` cannot be combined with `toFile`, or `cacheKey`',
+    );
+  }
+  if (options.cacheKey && typeof options.cacheKey !== 'string') {
+    throw new Error('downloadFile: Invalid value for property `cacheKey`');
+  }
   if (options.headers && typeof options.headers !== 'object') {
     throw new Error('downloadFile: Invalid value for property `headers`');
   }
@@ -141,6 +422,44 @@ export function downloadFile(options: DownloadFileOptionsT): {
   }
 
   const jobId = ++lastJobId;
+
+  const sharedKey = getSharedDownloadKey(options, restoreId);
+  const shared = sharedKey && sharedDownloads.get(sharedKey);
+  if (shared) {
+    return { jobId, promise: joinSharedDownload(shared, jobId, options) };
+  }
+
+  var nativeOptions: NativeDownloadFileOptionsT = {
+    jobId: jobId,
+    fromUrl: options.fromUrl,
+    toFile: options.toFile ? normalizeFilePath(options.toFile) : '',
+    background: !!options.background,
+    backgroundTimeout: options.backgroundTimeout || 3600000, // 1 hour
+    cacheable: !!options.cacheable,
+    connectionTimeout: options.connectionTimeout || 5000,
+    discretionary: !!options.discretionary,
+    headers: options.headers || {},
+    progressDivider: options.progressDivider || 0,
+    progressInterval: options.progressInterval || 0,
+    readTimeout: options.readTimeout || 15000,
+    hasBeginCallback: !!options.begin,
+    hasProgressCallback: !!options.progress,
+    hasResumableCallback: !!options.resumable,
+  };
+  if (options.cacheKey) nativeOptions.cacheKey = options.cacheKey;
+  if (options.mediaStore) nativeOptions.mediaStore = options.mediaStore;
+  if (options.persist) nativeOptions.persist = true;
+  if (restoreId) nativeOptions.restoreId = restoreId;
+  if (options.mirrors) nativeOptions.mirrors = options.mirrors;
+  if (options.retry) nativeOptions.retry = options.retry;
+
+  if (sharedKey) {
+    return {
+      jobId,
+      promise: startSharedDownload(sharedKey, options, nativeOptions),
+    };
+  }
+
   const subscriptions: EmitterSubscription[] = [];
 
   if (options.begin) {
@@ -167,23 +486,6 @@ export function downloadFile(options: DownloadFileOptionsT): {
     );
   }
 
-  var nativeOptions: NativeDownloadFileOptionsT = {
-    jobId: jobId,
-    fromUrl: options.fromUrl,
-    toFile: normalizeFilePath(options.toFile),
-    background: !!options.background,
-    backgroundTimeout: options.backgroundTimeout || 3600000, // 1 hour
-    cacheable: !!options.cacheable,
-    connectionTimeout: options.connectionTimeout || 5000,
-    discretionary: !!options.discretionary,
-    headers: options.headers || {},
-    progressDivider: options.progressDivider || 0,
-    progressInterval: options.progressInterval || 0,
-    readTimeout: options.readTimeout || 15000,
-    hasBeginCallback: !!options.begin,
-    hasProgressCallback: !!options.progress,
-    hasResumableCallback: !!options.resumable,
-  };
 
   return {
     jobId,
@@ -216,12 +518,14 @@ export function mkdir(
 export function moveFile(
   filepath: string,
   destPath: string,
-  options: FileOptionsT = {},
+  options: CopyFileOptionsT = {},
 ): Promise<void> {
-  return RNFS.moveFile(
-    normalizeFilePath(filepath),
-    normalizeFilePath(destPath),
+  return copyGeneric(
+    filepath,
+    destPath,
     options,
+    RNFS.moveFile,
+    'CopyProgress',
   );
 }
 
@@ -268,10 +572,17 @@ export async function readdir(dirpath: string): Promise<string[]> {
 
 export async function stat(filepath: string): Promise<StatResultT> {
   const result = await RNFS.stat(normalizeFilePath(filepath));
+  return toStatResult(filepath, result);
+}
 
+/**
+ * Converts a stat result received from the native side into StatResultT.
+ */
+function toStatResult(filepath: string, result: NativeStatResultT): StatResultT {
   const { FileTypeDirectory, FileTypeRegular } = RNFS.getConstants();
 
-  return {
+  const res: StatResultT = {
+    name: result.name,
     path: filepath,
     ctime: new Date(result.ctime * 1000),
     mtime: new Date(result.mtime * 1000),
@@ -281,9 +592,37 @@ export async function stat(filepath: string): Promise<StatResultT> {
     isFile: () => result.type === FileTypeRegular,
     isDirectory: () => result.type === FileTypeDirectory,
   };
+  if (result.symlink !== undefined) {
+    res.inode = result.inode;
+    res.isSymbolicLink = () => !!result.symlink;
+  }
+  if (result.mimeType !== undefined) res.mimeType = result.mimeType;
+  return res;
 }
 
-export const stopDownload: (jobId: number) => void = RNFS.stopDownload;
+export const stopCopy: (jobId: number) => void = RNFS.stopCopy;
+
+export function stopDownload(jobId: number): void {
+  const shared = sharedDownloadsByJobId.get(jobId);
+  if (!shared) {
+    // The call which started a shared download, and has been detached from
+    // it since, has the job ID of the download, which still serves others.
+    const detached = [...sharedDownloads.values()].some(
+      (item) => item.nativeJobId === jobId,
+    );
+    if (!detached) RNFS.stopDownload(jobId);
+    return;
+  }
+
+  // A call subscribed to a shared download is detached from it, and
+  // the download itself is stopped only once no other calls wait for it.
+  const subscriber = shared.subscribers.get(jobId);
+  if (subscriber && shared.subscribers.size > 1) {
+    shared.subscribers.delete(jobId);
+    sharedDownloadsByJobId.delete(jobId);
+    subscriber.reject(new Error('Download has been aborted'));
+  } else RNFS.stopDownload(shared.nativeJobId);
+}
 
 export function touch(
   filepath: string,
@@ -303,8 +642,20 @@ export function touch(
   });
 }
 
-export function unlink(path: string): Promise<void> {
-  return RNFS.unlink(normalizeFilePath(path));
+export function unlink(
+  path: string,
+  options: UnlinkOptionsT = {},
+): Promise<void> {
+  return RNFS.unlink(normalizeFilePath(path), options);
+}
+
+export function unwatch(watchId: number): void {
+  RNFS.unwatch(watchId);
+  const subscription = watchSubscriptions.get(watchId);
+  if (subscription) {
+    subscription.remove();
+    watchSubscriptions.delete(watchId);
+  }
 }
 
 export function uploadFiles(options: UploadFileOptionsT): {
@@ -383,6 +734,56 @@ export function uploadFiles(options: UploadFileOptionsT): {
   };
 }
 
+/**
+ * Walks the folder tree at `path`, yielding its items in pages.
+ */
+export async function* walk(
+  path: string,
+  options: WalkOptionsT = {},
+): AsyncGenerator<WalkResItemT[], void, void> {
+  const { filter } = options;
+  let page = await RNFS.walk(normalizeFilePath(path), {
+    maxDepth: options.maxDepth ?? -1,
+    pageSize: options.pageSize || 256,
+    filter: filter instanceof RegExp ? filter.source : filter,
+    filterFlags: filter instanceof RegExp ? filter.flags : undefined,
+  });
+  try {
+    for (;;) {
+      if (page.items.length) {
+        yield page.items.map((item) => ({
+          ...toReadDirResItem(item),
+          depth: item.depth,
+        }));
+      }
+      if (page.done) return;
+      page = await RNFS.walkNext(page.cursorId);
+    }
+  } finally {
+    // Releases native resources if the iteration was interrupted.
+    if (!page.done) RNFS.walkClose(page.cursorId);
+  }
+}
+
+export async function watch(
+  path: string,
+  onChange: (changes: FileChangeT[]) => void,
+  options: WatchOptionsT = {},
+): Promise<number> {
+  const watchId = ++lastWatchId;
+  const subscription = nativeEventEmitter.addListener('FileChange', (res) => {
+    if (res.watchId === watchId) onChange(res.changes);
+  });
+  try {
+    await RNFS.watch(normalizeFilePath(path), { ...options, watchId });
+  } catch (e) {
+    subscription.remove();
+    throw e;
+  }
+  watchSubscriptions.set(watchId, subscription);
+  return watchId;
+}
+
 export function write(
   filepath: string,
   contents: string,
@@ -413,6 +814,81 @@ export function writeFile(
 
 // Android-specific.
 
+/**
+ * Appends `contents` to the file opened by openAppender().
+ */
+export function append(
+  appenderId: number,
+  contents: string,
+  encodingOrOptions?: EncodingOptions,
+): Promise<void> {
+  const b64 = encode(contents, toEncoding(encodingOrOptions));
+  return RNFS.append(appenderId, b64);
+}
+
+/**
+ * Removes all entries from the disk cache.
+ */
+export function cacheClear(): Promise<void> {
+  return RNFS.cacheClear();
+}
+
+/**
+ * Updates limits of the disk cache; entries exceeding them are evicted
+ * in background, the least recently used first.
+ */
+export function cacheConfigure(options: CacheOptionsT): Promise<void> {
+  return RNFS.cacheConfigure(options);
+}
+
+/**
+ * Resolves to the path of the file cached under `key`, or to null.
+ */
+export function cacheGet(key: string): Promise<string | null> {
+  return RNFS.cacheGet(key);
+}
+
+/**
+ * Stores the file at `path` into the disk cache under `key`,
+ * and resolves to the cached file path.
+ */
+export function cachePut(
+  key: string,
+  path: string,
+  options: CachePutOptionsT = {},
+): Promise<string> {
+  return RNFS.cachePut(key, normalizeFilePath(path), options);
+}
+
+export function cacheRemove(key: string): Promise<boolean> {
+  return RNFS.cacheRemove(key);
+}
+
+export function cacheStats(): Promise<CacheStatsT> {
+  return RNFS.cacheStats();
+}
+
+/**
+ * Flushes the appender buffer, and closes its file.
+ */
+export function closeAppender(appenderId: number): Promise<void> {
+  return RNFS.closeAppender(appenderId);
+}
+
+export function copyAssetsFolder(
+  assetDir: string,
+  destDir: string,
+  options: CopyFolderOptionsT = {},
+): Promise<CopyFolderResultT> {
+  return copyGeneric(
+    assetDir,
+    destDir,
+    options,
+    RNFS.copyAssetsFolder,
+    'CopyFolderProgress',
+  );
+}
+
 export function copyFileAssets(from: string, into: string): Promise<void> {
   return RNFS.copyFileAssets(normalizeFilePath(from), normalizeFilePath(into));
 }
@@ -421,6 +897,13 @@ export function copyFileRes(from: string, into: string): Promise<void> {
   return RNFS.copyFileRes(from, normalizeFilePath(into));
 }
 
+export function du(
+  path: string,
+  options: DuOptionsT = {},
+): Promise<DuResultT> {
+  return RNFS.du(normalizeFilePath(path), options) as Promise<DuResultT>;
+}
+
 export function existsAssets(filepath: string): Promise<boolean> {
   return RNFS.existsAssets(filepath);
 }
@@ -429,11 +912,96 @@ export function existsRes(filename: string): Promise<boolean> {
   return RNFS.existsRes(filename);
 }
 
+export const getActiveJobs: () => Promise<ActiveJobT[]> = RNFS.getActiveJobs;
+
 export const getAllExternalFilesDirs: () => Promise<string[]> =
   RNFS.getAllExternalFilesDirs;
 
-export function hash(filepath: string, algorithm: string): Promise<string> {
-  return RNFS.hash(normalizeFilePath(filepath), algorithm);
+export async function getAssetManifest(): Promise<AssetManifestItemT[]> {
+  const { FileTypeDirectory, FileTypeRegular } = RNFS.getConstants();
+  const items = await RNFS.getAssetManifest();
+  return items.map((item) => ({
+    path: item.path,
+    size: item.size,
+    compressed: item.compressed,
+    isDirectory: () => item.type === FileTypeDirectory,
+    isFile: () => item.type === FileTypeRegular,
+  }));
+}
+
+/**
+ * Resolves to the metrics collected since the last reset, for the methods
+ * called at least once; see setMetricsEnabled().
+ */
+export function getMetrics(): Promise<MetricsT> {
+  return RNFS.getMetrics() as Promise<MetricsT>;
+}
+
+export const getPendingJobs: () => Promise<PendingJobT[]> =
+  RNFS.getPendingJobs;
+
+export function hash(filepath: string, algorithm: string): Promise<string>;
+
+export function hash(
+  filepath: string,
+  options: HashOptionsT,
+): Promise<StringMapT>;
+
+export function hash(
+  filepath: string,
+  algorithmOrOptions: string | HashOptionsT,
+): Promise<string | StringMapT> {
+  const path = normalizeFilePath(filepath);
+  if (typeof algorithmOrOptions === 'string') {
+    return RNFS.hash(path, algorithmOrOptions);
+  }
+  return RNFS.hashWithOptions(path, algorithmOrOptions);
+}
+
+// The default minimal interval [ms] between hashMany() progress callbacks;
+// otherwise a callback is made for each hashed file.
+const HASH_MANY_PROGRESS_INTERVAL = 250;
+
+export async function hashMany(
+  paths: string[],
+  algorithm: string,
+  options: HashManyOptionsT = {},
+): Promise<StringMapT> {
+  const { progress, progressInterval, ...rest } = options;
+  const jobId = ++lastJobId;
+
+  let subscription: EmitterSubscription | undefined;
+  if (progress) {
+    subscription = nativeEventEmitter.addListener(
+      'HashManyProgress',
+      (res: HashManyProgressCallbackResultT) => {
+        if (res.jobId === jobId) progress(res);
+      },
+    );
+  }
+
+  try {
+    return await RNFS.hashMany(paths.map(normalizeFilePath), algorithm, {
+      ...rest,
+      jobId,
+      hasProgressCallback: !!progress,
+      progressInterval: progressInterval ?? HASH_MANY_PROGRESS_INTERVAL,
+    });
+  } finally {
+    if (subscription) subscription.remove();
+  }
+}
+
+/**
+ * Opens the file at `path` for appending with append(), which batches
+ * written records in memory, and writes them to the file in groups.
+ * Resolves to the appender ID.
+ */
+export function openAppender(
+  path: string,
+  options: AppenderOptionsT = {},
+): Promise<number> {
+  return RNFS.openAppender(normalizeFilePath(path), options);
 }
 
 export async function readDirAssets(
@@ -457,8 +1025,61 @@ export function readFileRes(
   return readFileGeneric(filename, encodingOrOptions, RNFS.readFileRes);
 }
 
+export const resetMetrics: () => Promise<void> = RNFS.resetMetrics;
+
+export type RestoredJobT = {
+  id: string;
+  jobId: number;
+  promise: Promise<DownloadResultT>;
+};
+
+/**
+ * Resumes the downloads journaled with "persist" option, which were not
+ * completed before the app termination. Each download continues from its
+ * last checkpoint, if the server supports range requests, and the remote
+ * file has not changed; otherwise it starts over.
+ */
+export async function restoreJobs(
+  options: Partial<DownloadFileOptionsT> = {},
+): Promise<RestoredJobT[]> {
+  const jobs = await RNFS.getPendingJobs();
+  return jobs.map((job) => {
+    const { jobId, promise } = startDownload(
+      {
+        ...options,
+        fromUrl: job.fromUrl,
+        toFile: job.toFile,
+        headers: job.headers,
+        persist: true,
+      },
+      job.id,
+    );
+    return { id: job.id, jobId, promise };
+  });
+}
+
 export const scanFile = RNFS.scanFile;
 
+export const setFreeSpaceReserve: (bytes: number) => Promise<void> =
+  RNFS.setFreeSpaceReserve;
+
+export const setIOPoolSize: (size: number) => Promise<void> =
+  RNFS.setIOPoolSize;
+
+export const setMaxActiveJobs: (max: number) => Promise<void> =
+  RNFS.setMaxActiveJobs;
+
+/**
+ * Enables, or disables, the collection of per-method metrics, which is
+ * disabled by default.
+ */
+export function setMetricsEnabled(
+  enabled: boolean,
+  options: MetricsOptionsT = {},
+): Promise<void> {
+  return RNFS.setMetricsEnabled(enabled, options);
+}
+
 // TODO: Not documented!
 // setReadable for Android
 export const setReadable: (
@@ -467,6 +1088,43 @@ export const setReadable: (
   ownerOnly: boolean,
 ) => Promise<boolean> = RNFS.setReadable;
 
+export async function statMany(
+  paths: string[],
+): Promise<(StatResultT | null)[]> {
+  const results = await RNFS.statMany(paths.map(normalizeFilePath));
+  return results.map((result, index) =>
+    result ? toStatResult(paths[index]!, result) : null,
+  );
+}
+
+/**
+ * Extracts the ZIP archive at `zipPath` into the `destDir` folder.
+ */
+export function unzip(
+  zipPath: string,
+  destDir: string,
+  options: UnzipOptionsT = {},
+): Promise<CopyFolderResultT> {
+  return copyGeneric(
+    zipPath,
+    destDir,
+    options,
+    RNFS.unzip,
+    'CopyFolderProgress',
+  );
+}
+
+/**
+ * Packs the content of `srcDir` folder into the ZIP archive at `destZip`.
+ */
+export function zip(
+  srcDir: string,
+  destZip: string,
+  options: ZipOptionsT = {},
+): Promise<CopyFolderResultT> {
+  return copyGeneric(srcDir, destZip, options, RNFS.zip, 'CopyFolderProgress');
+}
+
 // iOS-specific
 
 export const completeHandlerIOS: (jobId: number) => void =
@@ -517,11 +1175,22 @@ export const resumeDownload: (jobId: number) => void = RNFS.resumeDownload;
 
 export const stopUpload: (jobId: number) => void = RNFS.stopUpload;
 
-// Windows-specific.
+// Android & Windows.
 
-// Windows workaround for slow copying of large folders of files
-export function copyFolder(from: string, into: string): Promise<void> {
-  return RNFS.copyFolder(normalizeFilePath(from), normalizeFilePath(into));
+// Copies content of a folder into another folder. On Android the result
+// summary is resolved, on Windows the promise resolves to undefined.
+export function copyFolder(
+  from: string,
+  into: string,
+  options: CopyFolderOptionsT = {},
+): Promise<CopyFolderResultT | undefined> {
+  return copyGeneric(
+    from,
+    into,
+    options,
+    RNFS.copyFolder,
+    'CopyFolderProgress',
+  );
 }
 
 const {
@@ -540,14 +1209,37 @@ const {
 } = RNFS.getConstants();
 
 export {
+  type ActiveJobT,
+  type AppenderOptionsT,
+  type AssetManifestItemT,
+  type CacheOptionsT,
+  type CachePutOptionsT,
+  type CacheStatsT,
+  type CopyFileOptionsT,
+  type CopyFolderOptionsT,
+  type CopyFolderProgressCallbackResultT,
+  type CopyFolderResultT,
+  type CopyProgressCallbackResultT,
   type DownloadBeginCallbackResultT,
   type DownloadFileOptionsT,
   type DownloadProgressCallbackResultT,
   type DownloadResultT,
+  type DownloadRetryOptionsT,
+  type DuOptionsT,
+  type DuResultT,
   type EncodingT,
+  type FileChangeT,
   type FileOptionsT,
   type FSInfoResultT,
+  type HashManyOptionsT,
+  type HashManyProgressCallbackResultT,
+  type HashOptionsT,
+  type MediaStoreItemT,
+  type MetricsOptionsT,
+  type MetricsT,
   type MkdirOptionsT,
+  type OperationMetricsT,
+  type PendingJobT,
   type ReadDirAssetsResItemT,
   type ReadDirResItemT,
   type StringMapT,
@@ -556,7 +1248,14 @@ export {
   type UploadFileOptionsT,
   type UploadProgressCallbackArgT,
   type UploadResultT,
+  type UnlinkOptionsT,
+  type UnzipOptionsT,
+  type WalkOptionsT,
+  type WalkResItemT,
+  type WatchEventT,
+  type WatchOptionsT,
   type WriteFileOptionsT,
+  type ZipOptionsT,
   MainBundlePath,
   CachesDirectoryPath,
   ExternalCachesDirectoryPath,
@@ -9,3 +9,9 @@ RNFSException::RNFSException(std::string&& message) {
 const char* RNFSException::what() {
   return this->Message.c_str();
 }
+
+RNFSException RNFSException::NOT_IMPLEMENTED(std::string&& method) {
+  RNFSException ex(method + "() is not implemented for Windows");
+  ex.Code = "NOT_IMPLEMENTED";
+  return ex;
+}
@@ -13,6 +13,10 @@ public:
   // fields, we may leverage here. For now, just getting the message is ok.
   RNFSException(std::string&& message);
 
+  // Rejects calls of methods not supported on Windows,
+  // e.g. NOT_IMPLEMENTED("walk").reject(promise).
+  static RNFSException NOT_IMPLEMENTED(std::string&& method);
+
   virtual const char* what();
 
   template<typename T>
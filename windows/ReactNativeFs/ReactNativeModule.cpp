@@ -264,6 +264,7 @@ catch (const hresult_error& ex)
 winrt::fire_and_forget ReactNativeModule::copyFolder(
     std::string srcFolderPath,
     std::string destFolderPath,
+    JSValueObject options,
     ReactPromise<void> promise) noexcept
 try
 {
@@ -346,7 +347,7 @@ catch (const hresult_error& ex)
 }
 
 
-winrt::fire_and_forget ReactNativeModule::unlink(std::string filepath, ReactPromise<void> promise) noexcept
+winrt::fire_and_forget ReactNativeModule::unlink(std::string filepath, JSValueObject options, ReactPromise<void> promise) noexcept
 try
 {
     size_t pathLength{ filepath.length() };
@@ -1120,3 +1121,192 @@ IAsyncAction ReactNativeModule::ProcessUploadRequestAsync(ReactPromise<JSValueOb
         promise.Reject(winrt::to_string(ex.message()).c_str());
     }
 }
+
+
+// Android-specific methods, not implemented for Windows.
+
+
+void ReactNativeModule::append(int appenderId, std::string b64, ReactPromise<void> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("append").reject(promise);
+}
+
+
+void ReactNativeModule::cacheClear(ReactPromise<void> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("cacheClear").reject(promise);
+}
+
+
+void ReactNativeModule::cacheConfigure(JSValueObject options, ReactPromise<void> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("cacheConfigure").reject(promise);
+}
+
+
+void ReactNativeModule::cacheGet(std::string key, ReactPromise<JSValue> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("cacheGet").reject(promise);
+}
+
+
+void ReactNativeModule::cachePut(std::string key, std::string path, JSValueObject options, ReactPromise<std::string> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("cachePut").reject(promise);
+}
+
+
+void ReactNativeModule::cacheRemove(std::string key, ReactPromise<bool> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("cacheRemove").reject(promise);
+}
+
+
+void ReactNativeModule::cacheStats(ReactPromise<JSValueObject> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("cacheStats").reject(promise);
+}
+
+
+void ReactNativeModule::closeAppender(int appenderId, ReactPromise<void> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("closeAppender").reject(promise);
+}
+
+
+void ReactNativeModule::copyAssetsFolder(std::string from, std::string into, JSValueObject options, ReactPromise<JSValueObject> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("copyAssetsFolder").reject(promise);
+}
+
+
+void ReactNativeModule::du(std::string path, JSValueObject options, ReactPromise<JSValueObject> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("du").reject(promise);
+}
+
+
+void ReactNativeModule::getActiveJobs(ReactPromise<JSValueArray> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("getActiveJobs").reject(promise);
+}
+
+
+void ReactNativeModule::getAssetManifest(ReactPromise<JSValueArray> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("getAssetManifest").reject(promise);
+}
+
+
+void ReactNativeModule::getMetrics(ReactPromise<JSValueObject> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("getMetrics").reject(promise);
+}
+
+
+void ReactNativeModule::getPendingJobs(ReactPromise<JSValueArray> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("getPendingJobs").reject(promise);
+}
+
+
+void ReactNativeModule::hashMany(JSValueArray paths, std::string algorithm, JSValueObject options, ReactPromise<JSValueObject> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("hashMany").reject(promise);
+}
+
+
+void ReactNativeModule::hashWithOptions(std::string path, JSValueObject options, ReactPromise<JSValueObject> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("hashWithOptions").reject(promise);
+}
+
+
+void ReactNativeModule::openAppender(std::string path, JSValueObject options, ReactPromise<int> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("openAppender").reject(promise);
+}
+
+
+void ReactNativeModule::resetMetrics(ReactPromise<void> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("resetMetrics").reject(promise);
+}
+
+
+void ReactNativeModule::setFreeSpaceReserve(double bytes, ReactPromise<void> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("setFreeSpaceReserve").reject(promise);
+}
+
+
+void ReactNativeModule::setIOPoolSize(int size, ReactPromise<void> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("setIOPoolSize").reject(promise);
+}
+
+
+void ReactNativeModule::setMaxActiveJobs(int max, ReactPromise<void> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("setMaxActiveJobs").reject(promise);
+}
+
+
+void ReactNativeModule::setMetricsEnabled(bool enabled, JSValueObject options, ReactPromise<void> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("setMetricsEnabled").reject(promise);
+}
+
+
+void ReactNativeModule::statMany(JSValueArray paths, ReactPromise<JSValueArray> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("statMany").reject(promise);
+}
+
+
+void ReactNativeModule::stopCopy(int jobId) noexcept
+{
+    // Nothing to do, as the related functionality is not implemented.
+}
+
+
+void ReactNativeModule::unwatch(int watchId) noexcept
+{
+    // Nothing to do, as the related functionality is not implemented.
+}
+
+
+void ReactNativeModule::unzip(std::string from, std::string into, JSValueObject options, ReactPromise<JSValueObject> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("unzip").reject(promise);
+}
+
+
+void ReactNativeModule::walk(std::string path, JSValueObject options, ReactPromise<JSValueObject> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("walk").reject(promise);
+}
+
+
+void ReactNativeModule::walkClose(int cursorId) noexcept
+{
+    // Nothing to do, as the related functionality is not implemented.
+}
+
+
+void ReactNativeModule::walkNext(int cursorId, ReactPromise<JSValueObject> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("walkNext").reject(promise);
+}
+
+
+void ReactNativeModule::watch(std::string path, JSValueObject options, ReactPromise<void> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("watch").reject(promise);
+}
+
+
+void ReactNativeModule::zip(std::string from, std::string into, JSValueObject options, ReactPromise<JSValueObject> promise) noexcept
+{
+    RNFSException::NOT_IMPLEMENTED("zip").reject(promise);
+}
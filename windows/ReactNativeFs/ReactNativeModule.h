@@ -87,13 +87,14 @@ struct ReactNativeModule
     winrt::fire_and_forget copyFolder(
         std::string src,
         std::string dest,
+        JSValueObject options,
         ReactPromise<void> promise) noexcept;
 
     REACT_METHOD(getFSInfo); // Implemented, no unit tests but cannot be tested
     winrt::fire_and_forget getFSInfo(ReactPromise<JSValueObject> promise) noexcept;
 
     REACT_METHOD(unlink); // Implemented
-    winrt::fire_and_forget unlink(std::string filePath, ReactPromise<void> promise) noexcept;
+    winrt::fire_and_forget unlink(std::string filePath, JSValueObject options, ReactPromise<void> promise) noexcept;
 
     REACT_METHOD(exists); // Implemented
     winrt::fire_and_forget exists(std::string fullpath, ReactPromise<bool> promise) noexcept;
@@ -155,6 +156,101 @@ struct ReactNativeModule
     REACT_METHOD(touch); // Implemented
     void touch(std::string filepath, int64_t mtime, int64_t ctime, bool modifyCreationTime, ReactPromise<std::string> promise) noexcept;
 
+    // Android-specific methods, not implemented for Windows.
+
+    REACT_METHOD(append);
+    void append(int appenderId, std::string b64, ReactPromise<void> promise) noexcept;
+
+    REACT_METHOD(cacheClear);
+    void cacheClear(ReactPromise<void> promise) noexcept;
+
+    REACT_METHOD(cacheConfigure);
+    void cacheConfigure(JSValueObject options, ReactPromise<void> promise) noexcept;
+
+    REACT_METHOD(cacheGet);
+    void cacheGet(std::string key, ReactPromise<JSValue> promise) noexcept;
+
+    REACT_METHOD(cachePut);
+    void cachePut(std::string key, std::string path, JSValueObject options, ReactPromise<std::string> promise) noexcept;
+
+    REACT_METHOD(cacheRemove);
+    void cacheRemove(std::string key, ReactPromise<bool> promise) noexcept;
+
+    REACT_METHOD(cacheStats);
+    void cacheStats(ReactPromise<JSValueObject> promise) noexcept;
+
+    REACT_METHOD(closeAppender);
+    void closeAppender(int appenderId, ReactPromise<void> promise) noexcept;
+
+    REACT_METHOD(copyAssetsFolder);
+    void copyAssetsFolder(std::string from, std::string into, JSValueObject options, ReactPromise<JSValueObject> promise) noexcept;
+
+    REACT_METHOD(du);
+    void du(std::string path, JSValueObject options, ReactPromise<JSValueObject> promise) noexcept;
+
+    REACT_METHOD(getActiveJobs);
+    void getActiveJobs(ReactPromise<JSValueArray> promise) noexcept;
+
+    REACT_METHOD(getAssetManifest);
+    void getAssetManifest(ReactPromise<JSValueArray> promise) noexcept;
+
+    REACT_METHOD(getMetrics);
+    void getMetrics(ReactPromise<JSValueObject> promise) noexcept;
+
+    REACT_METHOD(getPendingJobs);
+    void getPendingJobs(ReactPromise<JSValueArray> promise) noexcept;
+
+    REACT_METHOD(hashMany);
+    void hashMany(JSValueArray paths, std::string algorithm, JSValueObject options, ReactPromise<JSValueObject> promise) noexcept;
+
+    REACT_METHOD(hashWithOptions);
+    void hashWithOptions(std::string path, JSValueObject options, ReactPromise<JSValueObject> promise) noexcept;
+
+    REACT_METHOD(openAppender);
+    void openAppender(std::string path, JSValueObject options, ReactPromise<int> promise) noexcept;
+
+    REACT_METHOD(resetMetrics);
+    void resetMetrics(ReactPromise<void> promise) noexcept;
+
+    REACT_METHOD(setFreeSpaceReserve);
+    void setFreeSpaceReserve(double bytes, ReactPromise<void> promise) noexcept;
+
+    REACT_METHOD(setIOPoolSize);
+    void setIOPoolSize(int size, ReactPromise<void> promise) noexcept;
+
+    REACT_METHOD(setMaxActiveJobs);
+    void setMaxActiveJobs(int max, ReactPromise<void> promise) noexcept;
+
+    REACT_METHOD(setMetricsEnabled);
+    void setMetricsEnabled(bool enabled, JSValueObject options, ReactPromise<void> promise) noexcept;
+
+    REACT_METHOD(statMany);
+    void statMany(JSValueArray paths, ReactPromise<JSValueArray> promise) noexcept;
+
+    REACT_METHOD(stopCopy);
+    void stopCopy(int jobId) noexcept;
+
+    REACT_METHOD(unwatch);
+    void unwatch(int watchId) noexcept;
+
+    REACT_METHOD(unzip);
+    void unzip(std::string from, std::string into, JSValueObject options, ReactPromise<JSValueObject> promise) noexcept;
+
+    REACT_METHOD(walk);
+    void walk(std::string path, JSValueObject options, ReactPromise<JSValueObject> promise) noexcept;
+
+    REACT_METHOD(walkClose);
+    void walkClose(int cursorId) noexcept;
+
+    REACT_METHOD(walkNext);
+    void walkNext(int cursorId, ReactPromise<JSValueObject> promise) noexcept;
+
+    REACT_METHOD(watch);
+    void watch(std::string path, JSValueObject options, ReactPromise<void> promise) noexcept;
+
+    REACT_METHOD(zip);
+    void zip(std::string from, std::string into, JSValueObject options, ReactPromise<JSValueObject> promise) noexcept;
+
     REACT_EVENT(TimedEvent, L"TimedEventCpp");
     std::function<void(int)> TimedEvent;
 